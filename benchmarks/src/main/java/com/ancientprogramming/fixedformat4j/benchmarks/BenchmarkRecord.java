@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.benchmarks;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * A record with the most common datatypes used by the benchmarks.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+@Record
+public class BenchmarkRecord {
+
+  public static final String DATA = "some text 000123-00004520081024T000012345";
+
+  private String stringData;
+  private Integer integerData;
+  private Long longData;
+  private Date dateData;
+  private Boolean booleanData;
+  private BigDecimal bigDecimalData;
+
+  @Field(offset = 1, length = 10)
+  public String getStringData() {
+    return stringData;
+  }
+
+  public void setStringData(String stringData) {
+    this.stringData = stringData;
+  }
+
+  @Field(offset = 11, length = 6, align = Align.RIGHT, paddingChar = '0')
+  public Integer getIntegerData() {
+    return integerData;
+  }
+
+  public void setIntegerData(Integer integerData) {
+    this.integerData = integerData;
+  }
+
+  @Field(offset = 17, length = 7, align = Align.RIGHT, paddingChar = '0')
+  @FixedFormatNumber(sign = Sign.PREPEND)
+  public Long getLongData() {
+    return longData;
+  }
+
+  public void setLongData(Long longData) {
+    this.longData = longData;
+  }
+
+  @Field(offset = 24, length = 8)
+  @FixedFormatPattern("yyyyMMdd")
+  public Date getDateData() {
+    return dateData;
+  }
+
+  public void setDateData(Date dateData) {
+    this.dateData = dateData;
+  }
+
+  @Field(offset = 32, length = 1)
+  public Boolean getBooleanData() {
+    return booleanData;
+  }
+
+  public void setBooleanData(Boolean booleanData) {
+    this.booleanData = booleanData;
+  }
+
+  @Field(offset = 33, length = 9, align = Align.RIGHT, paddingChar = '0')
+  @FixedFormatDecimal(decimals = 4)
+  public BigDecimal getBigDecimalData() {
+    return bigDecimalData;
+  }
+
+  public void setBigDecimalData(BigDecimal bigDecimalData) {
+    this.bigDecimalData = bigDecimalData;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.benchmarks;
+
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.impl.AccessorStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading and exporting a single record through the {@link FixedFormatManager}.
+ * <p/>
+ * Run it with the gc profiler (<code>-prof gc</code>) to see the bytes allocated per record. Loading should only
+ * allocate the record, its field values and what the formatters need to parse them.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBenchmark {
+
+  @Param({"LAMBDA", "REFLECTION"})
+  private AccessorStrategy accessorStrategy;
+
+  private FixedFormatManager manager;
+  private BenchmarkRecord record;
+
+  @Setup
+  public void setUp() {
+    manager = new FixedFormatManagerImpl(accessorStrategy);
+    record = manager.load(BenchmarkRecord.class, BenchmarkRecord.DATA);
+  }
+
+  @Benchmark
+  public BenchmarkRecord load() {
+    return manager.load(BenchmarkRecord.class, BenchmarkRecord.DATA);
+  }
+
+  @Benchmark
+  public String export() {
+    return manager.export(record);
+  }
+}
@@ -15,7 +15,7 @@
  */
 package com.ancientprogramming.fixedformat4j.annotation;
 
-import org.apache.commons.lang.StringUtils;
+import java.util.Arrays;
 
 /**
  * Capable of pad or chop data in a given direction
@@ -29,28 +29,25 @@ public enum Align {
    * Pad or chop data to the left, so the text is aligned to the right
    */
   RIGHT {
-    public String apply(String data, int length, char paddingChar) {
-      String result;
-      if (data == null) {
-        data = "";
-      }
-      int dataLength = data.length();
-      if (dataLength > length) {
-        result = StringUtils.substring(data, dataLength - length, dataLength);
+    public void apply(CharSequence data, int start, int end, int length, char paddingChar, char[] target, int offset) {
+      int padding = length - (end - start);
+      if (padding > 0) {
+        Arrays.fill(target, offset, offset + padding, paddingChar);
+        copy(data, start, end, target, offset + padding);
       } else {
-        result = StringUtils.leftPad(data, length, paddingChar);
+        copy(data, end - length, end, target, offset);
       }
-      return result;
     }
-    public String remove(String data, char paddingChar) {
-      String result = data;
-      if (data == null) {
-        result = "";
-      }
-      while (result.startsWith("" + paddingChar)) {
-        result = result.substring(1, result.length());
+
+    public int valueStart(CharSequence data, int start, int end, char paddingChar) {
+      while (start < end && data.charAt(start) == paddingChar) {
+        start++;
       }
-      return result;
+      return start;
+    }
+
+    public int valueEnd(CharSequence data, int start, int end, char paddingChar) {
+      return end;
     }},
 
 
@@ -58,29 +55,25 @@ public enum Align {
    * Pad or chop data to the right, so the text is aligned to the left
    */
   LEFT {
-    public String apply(String data, int length, char paddingChar) {
-      String result;
-      if (data == null) {
-        data = "";
-      }
-      int dataLength = data.length();
-      if (dataLength > length) {
-        result = StringUtils.substring(data, 0, length);
+    public void apply(CharSequence data, int start, int end, int length, char paddingChar, char[] target, int offset) {
+      int padding = length - (end - start);
+      if (padding > 0) {
+        copy(data, start, end, target, offset);
+        Arrays.fill(target, offset + end - start, offset + length, paddingChar);
       } else {
-        result = StringUtils.rightPad(data, length, paddingChar);
+        copy(data, start, start + length, target, offset);
       }
-      return result;
     }
 
-    public String remove(String data, char paddingChar) {
-      String result = data;
-      if (data == null) {
-        result = "";
-      }
-      while (result.endsWith("" + paddingChar)) {
-        result = result.substring(0, result.length()-1);
+    public int valueStart(CharSequence data, int start, int end, char paddingChar) {
+      return start;
+    }
+
+    public int valueEnd(CharSequence data, int start, int end, char paddingChar) {
+      while (end > start && data.charAt(end - 1) == paddingChar) {
+        end--;
       }
-      return result;
+      return end;
     }};
 
   /**
@@ -92,7 +85,39 @@ public enum Align {
    * @param paddingChar the char the data is padded with.
    * @return the data after padding is applied.
    */
-  public abstract String apply(String data, int length, char paddingChar);
+  public String apply(String data, int length, char paddingChar) {
+    char[] result = new char[length];
+    apply(data, length, paddingChar, result, 0);
+    return new String(result);
+  }
+
+  /**
+   * Pads or chops the data to the length and writes it into the target.
+   *
+   * @param data        the data to pad. <code>null</code> is written as padding only.
+   * @param length      the number of chars to write.
+   * @param paddingChar the char the data is padded with.
+   * @param target      the buffer to write into
+   * @param offset      the index in the target to write the first char at
+   * @since 1.4.0
+   */
+  public void apply(CharSequence data, int length, char paddingChar, char[] target, int offset) {
+    apply(data, 0, data == null ? 0 : data.length(), length, paddingChar, target, offset);
+  }
+
+  /**
+   * Pads or chops a range of the data to the length and writes it into the target.
+   *
+   * @param data        the data containing the range to pad
+   * @param start       the index of the first char in the range
+   * @param end         the index after the last char in the range
+   * @param length      the number of chars to write.
+   * @param paddingChar the char the data is padded with.
+   * @param target      the buffer to write into
+   * @param offset      the index in the target to write the first char at
+   * @since 1.4.0
+   */
+  public abstract void apply(CharSequence data, int start, int end, int length, char paddingChar, char[] target, int offset);
 
   /**
    * Remove the padding chars from the data.
@@ -101,5 +126,61 @@ public enum Align {
    * @param paddingChar the padding char to remove
    * @return the data after padding is removed.
    */
-  public abstract String remove(String data, char paddingChar);
+  public String remove(String data, char paddingChar) {
+    if (data == null) {
+      return "";
+    }
+    int end = data.length();
+    int start = valueStart(data, 0, end, paddingChar);
+    return data.substring(start, valueEnd(data, start, end, paddingChar));
+  }
+
+  /**
+   * Remove the padding chars from a range of the data.
+   *
+   * @param data        the data including padding chars
+   * @param start       the index of the first char in the range
+   * @param end         the index after the last char in the range
+   * @param paddingChar the padding char to remove
+   * @return the data in the range after padding is removed.
+   * @since 1.4.0
+   */
+  public String remove(CharSequence data, int start, int end, char paddingChar) {
+    int valueStart = valueStart(data, start, end, paddingChar);
+    return data.subSequence(valueStart, valueEnd(data, valueStart, end, paddingChar)).toString();
+  }
+
+  /**
+   * Find where the data starts when the padding chars is removed from a range of the data.
+   *
+   * @param data        the data including padding chars
+   * @param start       the index of the first char in the range
+   * @param end         the index after the last char in the range
+   * @param paddingChar the padding char to remove
+   * @return the index of the first char after leading padding is removed
+   * @since 1.4.0
+   */
+  public abstract int valueStart(CharSequence data, int start, int end, char paddingChar);
+
+  /**
+   * Find where the data ends when the padding chars is removed from a range of the data.
+   *
+   * @param data        the data including padding chars
+   * @param start       the index of the first char in the range
+   * @param end         the index after the last char in the range
+   * @param paddingChar the padding char to remove
+   * @return the index after the last char after trailing padding is removed
+   * @since 1.4.0
+   */
+  public abstract int valueEnd(CharSequence data, int start, int end, char paddingChar);
+
+  private static void copy(CharSequence data, int start, int end, char[] target, int offset) {
+    if (data instanceof String) {
+      ((String) data).getChars(start, end, target, offset);
+    } else {
+      for (int i = start; i < end; i++) {
+        target[offset++] = data.charAt(i);
+      }
+    }
+  }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used together with FixedFormatField annotations to cache the parsed values of a field. Fields having few distinct
+ * values, like business dates and codes repeated in every record, is then only parsed once per distinct value.
+ * <p/>
+ * The cache is meant for immutable values. {@link java.util.Date} values is copied when they are taken from the cache.
+ * See {@link com.ancientprogramming.fixedformat4j.format.ValueCache}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface FixedFormatCache {
+
+  public static final int SIZE = 256;
+
+  /**
+   * The number of values the cache can hold. It is rounded up to a power of two
+   * @return the size
+   */
+  int size() default SIZE;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The code an enum constant is represented by in a record. Constants without the annotation is represented by their
+ * name.
+ * <pre>
+ * public enum Status {
+ *   &#64;FixedFormatEnumCode("A") ACTIVE,
+ *   &#64;FixedFormatEnumCode("C") CLOSED
+ * }
+ * </pre>
+ * The codes is used by the {@link com.ancientprogramming.fixedformat4j.format.impl.EnumFormatter}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+public @interface FixedFormatEnumCode {
+
+  /**
+   * @return the code of the constant. It has to be unique within the enum and shouldn't start or end with the
+   * padding char of the fields using the enum
+   */
+  String value();
+}
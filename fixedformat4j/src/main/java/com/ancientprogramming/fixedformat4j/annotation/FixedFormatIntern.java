@@ -0,0 +1,36 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Used together with FixedFormatField annotations on String fields having few distinct values, like currency codes
+ * and status flags. Equal values loaded from such fields is the same String instance, so records held in memory
+ * doesn't keep a copy of the value each.
+ * <p/>
+ * The values is canonicalized through {@link com.ancientprogramming.fixedformat4j.format.StringInterner#getDefault()}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface FixedFormatIntern {
+}
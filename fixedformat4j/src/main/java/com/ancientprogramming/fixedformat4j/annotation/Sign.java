@@ -16,7 +16,6 @@
 package com.ancientprogramming.fixedformat4j.annotation;
 
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
-import org.apache.commons.lang.StringUtils;
 
 /**
  * Sign defines where to place a sign defining a positive or negative number.
@@ -32,17 +31,16 @@ public enum Sign {
    * This just delegate to the {@link Align} defined in {@link FormatInstructions}.
    */
   NOSIGN {
-    public String apply(String value, FormatInstructions instructions) {
-      return instructions.getAlignment().apply(value, instructions.getLength(), instructions.getPaddingChar());
+    public void apply(CharSequence value, FormatInstructions instructions, char[] target, int offset) {
+      instructions.getAlignment().apply(value, instructions.getLength(), instructions.getPaddingChar(), target, offset);
     }
 
-    public String remove(String value, FormatInstructions instructions) {
-      String result =  instructions.getAlignment().remove(value, instructions.getPaddingChar());
-      if (StringUtils.isEmpty(result)) {
-        result = "0";
-      }
-      return result;
+    public int length(FormatInstructions instructions) {
+      return instructions.getLength();
+    }
 
+    int signIndex(int start, int end) {
+      return -1;
     }
   },
 
@@ -50,29 +48,17 @@ public enum Sign {
    * Prepend the sign to the string
    */
   PREPEND {
-    public String apply(String value, FormatInstructions instructions) {
-      String sign = StringUtils.substring(value, 0, 1);
-      if ("-".equals(sign)) {
-        value = StringUtils.substring(value, 1);
-      } else {
-        sign = "+";
+    public void apply(CharSequence value, FormatInstructions instructions, char[] target, int offset) {
+      boolean negative = isNegative(value);
+      int length = instructions.getLength();
+      if (length > 0) {
+        instructions.getAlignment().apply(value, negative ? 1 : 0, value == null ? 0 : value.length(), length, instructions.getPaddingChar(), target, offset);
       }
-      String result = instructions.getAlignment().apply(value, instructions.getLength(), instructions.getPaddingChar());
-      return sign + StringUtils.substring(result, 1);
+      target[offset] = negative ? '-' : '+';
     }
 
-    public String remove(String value, FormatInstructions instructions) {
-      String sign = StringUtils.substring(value, 0, 1);
-      String valueWithoutSign = StringUtils.substring(value, 1);
-      String result = instructions.getAlignment().remove(valueWithoutSign, instructions.getPaddingChar());
-      if (removeSign(instructions, sign, result)) {
-        sign = "";
-      }
-
-      if (StringUtils.isEmpty(result)) {
-        result = "0";
-      }
-      return sign + result;
+    int signIndex(int start, int end) {
+      return start;
     }
   },
 
@@ -80,49 +66,113 @@ public enum Sign {
    * Append the sign to the string
    */
   APPEND {
-    public String apply(String value, FormatInstructions instructions) {
-      String sign = StringUtils.substring(value, 0, 1);
-      if ("-".equals(sign)) {
-        value = StringUtils.substring(value, 1);
-      } else {
-        sign = "+";
+    public void apply(CharSequence value, FormatInstructions instructions, char[] target, int offset) {
+      boolean negative = isNegative(value);
+      int length = instructions.getLength();
+      if (length > 1) {
+        //the value is aligned like a prepended sign would be in front of it, and then moved in front of the sign
+        instructions.getAlignment().apply(value, negative ? 1 : 0, value == null ? 0 : value.length(), length, instructions.getPaddingChar(), target, offset);
+        System.arraycopy(target, offset + 1, target, offset, length - 1);
       }
-      String result = instructions.getAlignment().apply(value, instructions.getLength(), instructions.getPaddingChar());
-      return StringUtils.substring(result, 1) + sign;
-
+      target[offset + length(instructions) - 1] = negative ? '-' : '+';
     }
-    public String remove(String value, FormatInstructions instructions) {
-      String sign = StringUtils.substring(value, value.length()-1);
-      String valueWithoutSign = StringUtils.substring(value, 0, value.length()-1);
-      String result = instructions.getAlignment().remove(valueWithoutSign, instructions.getPaddingChar());
-      if (removeSign(instructions, sign, result)) {
-        sign = "";
-      }
-      if (StringUtils.isEmpty(result)) {
-        result = "0";
-      }
-      return sign + result;
+    int signIndex(int start, int end) {
+      return end - 1;
     }
   };
 
   /**
-   *remove sign in three cases:
+   * Apply the alignment and the sign to the value.
+   *
+   * @param value the value with a leading '-' if it is negative
+   * @param instructions the instructions containing the length, alignment and padding char
+   * @return the signed and padded value
+   */
+  public String apply(String value, FormatInstructions instructions) {
+    char[] result = new char[length(instructions)];
+    apply(value, instructions, result, 0);
+    return new String(result);
+  }
+
+  /**
+   * Apply the alignment and the sign to the value and write the result into the target.
+   *
+   * @param value the value with a leading '-' if it is negative
+   * @param instructions the instructions containing the length, alignment and padding char
+   * @param target the buffer to write into. It must have room for {@link #length} chars after the offset
+   * @param offset the index in the target to write the first char at
+   * @since 1.4.0
+   */
+  public abstract void apply(CharSequence value, FormatInstructions instructions, char[] target, int offset);
+
+  /**
+   * @param instructions the instructions containing the length
+   * @return the number of chars written by {@link #apply}. A signed value always has room for the sign
+   * @since 1.4.0
+   */
+  public int length(FormatInstructions instructions) {
+    return Math.max(instructions.getLength(), 1);
+  }
+
+  /**
+   * Remove the sign and the padding from the value.
+   *
+   * @param value the value including sign and padding
+   * @param instructions the instructions containing the alignment, padding char and signs
+   * @return the value with a leading '-' if it was negative. "0" if only padding was left
+   */
+  public String remove(String value, FormatInstructions instructions) {
+    if (value == null) {
+      value = "";
+    }
+    return remove(value, 0, value.length(), instructions);
+  }
+
+  /**
+   * Remove the sign and the padding from a range of the data. The sign and the padding is found by index, so only
+   * the returned String is created.
+   * <p/>
+   * The sign is removed in three cases:
    * 1. positive sign
    * 2. the unsigned value is empty (can happen if paddingchar is 0 and the value is zero)
    * 3. the unsigned value is 0 (can happen if paddingchar isn't 0 and the value is zero)
-   * @param instructions
-   * @param sign
-   * @param valueWithoutSign
-   * @return
+   * Other signs is kept in front of the value.
+   *
+   * @param data the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions containing the alignment, padding char and signs
+   * @return the value with its sign in front. "0" if only padding was left
+   * @since 1.4.0
    */
-  private static boolean removeSign(FormatInstructions instructions, String sign, String valueWithoutSign) {
-    return instructions.getFixedFormatNumberData().getPositiveSign().equals(sign.charAt(0)) ||
-        StringUtils.isEmpty(valueWithoutSign) ||
-        "0".equals(valueWithoutSign);
+  public String remove(CharSequence data, int start, int end, FormatInstructions instructions) {
+    int signIndex = start < end ? signIndex(start, end) : -1;
+    if (signIndex == start) {
+      start++;
+    } else if (signIndex != -1) {
+      end--;
+    }
+    Align alignment = instructions.getAlignment();
+    char paddingChar = instructions.getPaddingChar();
+    int valueStart = alignment.valueStart(data, start, end, paddingChar);
+    int valueEnd = alignment.valueEnd(data, valueStart, end, paddingChar);
+    if (valueStart == valueEnd) {
+      return "0";
+    }
+    if (signIndex == -1 ||
+        instructions.getFixedFormatNumberData().getPositiveSign().equals(data.charAt(signIndex)) ||
+        (valueEnd - valueStart == 1 && data.charAt(valueStart) == '0')) {
+      return data.subSequence(valueStart, valueEnd).toString();
+    }
+    return new StringBuilder(valueEnd - valueStart + 1).append(data.charAt(signIndex)).append(data, valueStart, valueEnd).toString();
   }
 
+  /**
+   * @return the index of the sign in the range or -1 if the value isn't signed
+   */
+  abstract int signIndex(int start, int end);
 
-  public abstract String apply(String value, FormatInstructions instructions);
-
-  public abstract String remove(String value, FormatInstructions instructions);
+  private static boolean isNegative(CharSequence value) {
+    return value != null && value.length() > 0 && value.charAt(0) == '-';
+  }
 }
@@ -22,6 +22,19 @@ package com.ancientprogramming.fixedformat4j.format;
  * @since 1.0.0
  */
 public abstract class AbstractFixedFormatter<T> implements FixedFormatter<T> {
+
+  private static final ClassValue<Boolean> PARSES_STRINGS = new ClassValue<Boolean>() {
+    protected Boolean computeValue(Class<?> type) {
+      return overridesStringMethod(type, "parse", new Class[]{String.class, FormatInstructions.class}, new Class[]{CharSequence.class, int.class, int.class, FormatInstructions.class});
+    }
+  };
+
+  private static final ClassValue<Boolean> FORMATS_STRINGS = new ClassValue<Boolean>() {
+    protected Boolean computeValue(Class<?> type) {
+      return overridesStringMethod(type, "format", new Class[]{Object.class, FormatInstructions.class}, new Class[]{Object.class, FormatInstructions.class, ExportBuffer.class, int.class});
+    }
+  };
+
   public T parse(String value, FormatInstructions instructions) {
     T result = null;
     if (value != null) {
@@ -41,10 +54,60 @@ public abstract class AbstractFixedFormatter<T> implements FixedFormatter<T> {
     return instructions.getAlignment().remove(value, instructions.getPaddingChar());
   }
 
+  /**
+   * Removes the padding by index and creates one String for {@link #asObject}.
+   * Subclasses overriding {@link #parse(String, FormatInstructions)} is parsed through that method instead.
+   */
+  public T parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (parsesStrings()) {
+      return parse(source.subSequence(start, end).toString(), instructions);
+    }
+    return asObject(instructions.getAlignment().remove(source, start, end, instructions.getPaddingChar()), instructions);
+  }
+
+  /**
+   * @return <code>true</code> if this formatter overrides {@link #parse(String, FormatInstructions)} in a class
+   * below the one implementing {@link #parse(CharSequence, int, int, FormatInstructions)}
+   */
+  protected final boolean parsesStrings() {
+    return PARSES_STRINGS.get(getClass());
+  }
+
   public String format(T value, FormatInstructions instructions) {
     return instructions.getAlignment().apply(asString(value, instructions), instructions.getLength(), instructions.getPaddingChar());
   }
 
+  /**
+   * Pads the value directly into the buffer.
+   * Subclasses overriding {@link #format(Object, FormatInstructions)} is formatted through that method instead.
+   */
+  public void format(T value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (formatsStrings()) {
+      buffer.write(offset, format(value, instructions));
+      return;
+    }
+    int length = instructions.getLength();
+    instructions.getAlignment().apply(asString(value, instructions), length, instructions.getPaddingChar(), buffer.reserve(offset, length), offset - 1);
+  }
+
+  /**
+   * @return <code>true</code> if this formatter overrides {@link #format(Object, FormatInstructions)} in a class
+   * below the one implementing {@link #format(Object, FormatInstructions, ExportBuffer, int)}
+   */
+  protected final boolean formatsStrings() {
+    return FORMATS_STRINGS.get(getClass());
+  }
+
+  private static boolean overridesStringMethod(Class<?> type, String name, Class<?>[] stringParameters, Class<?>[] bufferParameters) {
+    try {
+      Class<?> stringMethod = type.getMethod(name, stringParameters).getDeclaringClass();
+      Class<?> bufferMethod = type.getMethod(name, bufferParameters).getDeclaringClass();
+      return stringMethod != bufferMethod && bufferMethod.isAssignableFrom(stringMethod);
+    } catch (NoSuchMethodException e) {
+      return true;
+    }
+  }
+
   public abstract T asObject(String string, FormatInstructions instructions);
 
   public abstract String asString(T obj, FormatInstructions instructions);
@@ -0,0 +1,375 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+
+import java.lang.reflect.Method;
+
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.fetchData;
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.parseData;
+import static java.lang.String.format;
+
+/**
+ * Base class of the generated {@link RecordCodec}s.
+ * <p/>
+ * Contains the parts of loading and exporting that doesn't depend on the record class, so the generated
+ * code only has to call the getters and setters with the right offsets and instructions.
+ * The behaviour matches the reflection based {@link com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public abstract class AbstractRecordCodec<T> implements RecordCodec<T> {
+
+  private static final ClassValue<Boolean> IS_RECORD = new ClassValue<Boolean>() {
+    protected Boolean computeValue(Class<?> type) {
+      return type.getAnnotation(Record.class) != null;
+    }
+  };
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final int recordLength;
+  private final char paddingChar;
+  private final int layoutLength;
+
+  /**
+   * @param manager the manager used to load and export nested records
+   * @param recordClass the record class handled by the codec
+   * @param recordLength the {@link Record#length()} of the record class
+   * @param paddingChar the {@link Record#paddingChar()} of the record class
+   */
+  protected AbstractRecordCodec(FixedFormatManager manager, Class<T> recordClass, int recordLength, char paddingChar) {
+    this(manager, recordClass, recordLength, paddingChar, recordLength);
+  }
+
+  /**
+   * @param manager the manager used to load and export nested records
+   * @param recordClass the record class handled by the codec
+   * @param recordLength the {@link Record#length()} of the record class
+   * @param paddingChar the {@link Record#paddingChar()} of the record class
+   * @param layoutLength the length of an exported record. The record length or the end of the last field
+   */
+  protected AbstractRecordCodec(FixedFormatManager manager, Class<T> recordClass, int recordLength, char paddingChar, int layoutLength) {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.recordLength = recordLength;
+    this.paddingChar = paddingChar;
+    this.layoutLength = layoutLength;
+  }
+
+  /**
+   * Loads the record through {@link #load(CharSequence)}
+   */
+  public final T load(String data) {
+    return load((CharSequence) data);
+  }
+
+  /**
+   * Create an instance of the record class and load the data into it.
+   *
+   * @param data the data to load
+   * @return the loaded record
+   * @throws FixedFormatException if the data couldn't be loaded
+   */
+  public abstract T load(CharSequence data);
+
+  public Class<T> getRecordClass() {
+    return recordClass;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  public String export(String template, T instance) {
+    ExportBuffer result = ExportBuffer.acquire();
+    try {
+      export(template, instance, result);
+      return result.toString();
+    } finally {
+      result.release();
+    }
+  }
+
+  /**
+   * @inheritDoc
+   */
+  public void exportTo(T instance, ExportBuffer buffer) {
+    export("", instance, buffer);
+  }
+
+  private void export(String template, T instance, ExportBuffer result) {
+    result.reset(template, layoutLength, paddingChar);
+    write(result, instance);
+    result.padTo(recordLength);
+  }
+
+  /**
+   * Write all fields of the instance into the result in offset order.
+   *
+   * @param result the template to write on top of
+   * @param instance the record to export
+   */
+  protected abstract void write(ExportBuffer result, T instance);
+
+  /**
+   * Get the formatter instance to use in the given context. Fields using the
+   * {@link com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter} gets the formatter registered for their
+   * datatype in the {@link FormatterRegistry} of the manager.
+   *
+   * @param context the context
+   * @return the (shared) formatter instance
+   */
+  protected FixedFormatter formatter(FormatContext context) {
+    return FixedFormatUtil.getFixedFormatterInstance(context, manager.getFormatterRegistry());
+  }
+
+  /**
+   * Get the formatter instance to use for a primitive field in the given context
+   *
+   * @param context the context
+   * @param formatterType the specialized formatter interface of the datatype, e.g. {@link IntFixedFormatter}
+   * @return the (shared) formatter instance
+   * @throws FixedFormatException if the formatter doesn't implement the specialized interface
+   * @see FixedFormatUtil#getPrimitiveFormatter(FixedFormatter, Class)
+   */
+  @SuppressWarnings({"unchecked"})
+  protected <F extends FixedFormatter<?>> F formatter(FormatContext context, Class<F> formatterType) {
+    FixedFormatter registered = formatter(context);
+    FixedFormatter<?> formatter = FixedFormatUtil.getPrimitiveFormatter(registered, context.getDataType());
+    if (formatter == null && context.getFormatter() == ByTypeFormatter.class) {
+      //the registry of the manager replaced the build-in formatter with one only parsing and formatting boxed values
+      formatter = adapt(registered, context.getDataType());
+    }
+    if (!formatterType.isInstance(formatter)) {
+      throw new FixedFormatException(format("%s cannot be used as %s for datatype[%s]", context.getFormatter().getName(), formatterType.getName(), context.getDataType()));
+    }
+    return formatterType.cast(formatter);
+  }
+
+  /**
+   * Parse the field at the given context
+   *
+   * @param data the complete record
+   * @param getterName the name of the annotated getter. Only used to report parse errors
+   * @param context the context of the field
+   * @param instructions the instructions of the field
+   * @param formatter the formatter of the field
+   * @return the parsed value
+   * @throws ParseException if the formatter failed to parse the data
+   */
+  protected Object parse(CharSequence data, String getterName, FormatContext context, FormatInstructions instructions, FixedFormatter formatter) {
+    try {
+      return parseData(data, instructions, context, formatter);
+    } catch (RuntimeException e) {
+      throw parseFailed(data, getterName, context, instructions, e);
+    }
+  }
+
+  /**
+   * The fields of primitive datatypes is only parsed and set if the record contains data for them. Otherwise the
+   * field keeps its initial value.
+   *
+   * @param data the complete record
+   * @param context the context of the field
+   * @return <code>true</code> if the record is long enough to contain data for the field
+   */
+  protected boolean hasData(CharSequence data, FormatContext context) {
+    return data.length() >= context.getOffset();
+  }
+
+  /**
+   * Parse the <code>int</code> field at the given context. The record must contain data for the field.
+   *
+   * @param data the complete record
+   * @param getterName the name of the annotated getter. Only used to report parse errors
+   * @param context the context of the field
+   * @param instructions the instructions of the field
+   * @param formatter the formatter of the field
+   * @return the parsed value
+   * @throws ParseException if the formatter failed to parse the data
+   * @see #hasData(CharSequence, FormatContext)
+   */
+  protected int parseInt(CharSequence data, String getterName, FormatContext context, FormatInstructions instructions, IntFixedFormatter formatter) {
+    int start = context.getOffset() - 1;
+    try {
+      return formatter.parseInt(data, start, end(data, start, instructions), instructions);
+    } catch (RuntimeException e) {
+      throw parseFailed(data, getterName, context, instructions, e);
+    }
+  }
+
+  /**
+   * Parse the <code>long</code> field at the given context, see {@link #parseInt}
+   */
+  protected long parseLong(CharSequence data, String getterName, FormatContext context, FormatInstructions instructions, LongFixedFormatter formatter) {
+    int start = context.getOffset() - 1;
+    try {
+      return formatter.parseLong(data, start, end(data, start, instructions), instructions);
+    } catch (RuntimeException e) {
+      throw parseFailed(data, getterName, context, instructions, e);
+    }
+  }
+
+  /**
+   * Parse the <code>double</code> field at the given context, see {@link #parseInt}
+   */
+  protected double parseDouble(CharSequence data, String getterName, FormatContext context, FormatInstructions instructions, DoubleFixedFormatter formatter) {
+    int start = context.getOffset() - 1;
+    try {
+      return formatter.parseDouble(data, start, end(data, start, instructions), instructions);
+    } catch (RuntimeException e) {
+      throw parseFailed(data, getterName, context, instructions, e);
+    }
+  }
+
+  /**
+   * Parse the <code>boolean</code> field at the given context, see {@link #parseInt}
+   */
+  protected boolean parseBoolean(CharSequence data, String getterName, FormatContext context, FormatInstructions instructions, BooleanFixedFormatter formatter) {
+    int start = context.getOffset() - 1;
+    try {
+      return formatter.parseBoolean(data, start, end(data, start, instructions), instructions);
+    } catch (RuntimeException e) {
+      throw parseFailed(data, getterName, context, instructions, e);
+    }
+  }
+
+  private static int end(CharSequence data, int start, FormatInstructions instructions) {
+    return Math.min(data.length(), start + instructions.getLength());
+  }
+
+  private ParseException parseFailed(CharSequence data, String getterName, FormatContext context, FormatInstructions instructions, RuntimeException cause) {
+    String dataToParse = fetchData(data, instructions, context);
+    return new ParseException(data.toString(), dataToParse, recordClass, getGetter(getterName), context, instructions, cause);
+  }
+
+  /**
+   * Load a nested record from the field at the given context
+   *
+   * @param data the complete record
+   * @param context the context of the field
+   * @param instructions the instructions of the field
+   * @return the loaded nested record
+   */
+  protected Object loadNested(CharSequence data, FormatContext context, FormatInstructions instructions) {
+    return manager.load(context.getDataType(), fetchData(data, instructions, context));
+  }
+
+  /**
+   * Format a field value directly into the result. Values which are records themselves is exported through the manager
+   *
+   * @param result the result to write into
+   * @param offset the one based offset
+   * @param value the value to format
+   * @param formatter the formatter of the field
+   * @param instructions the instructions of the field
+   */
+  @SuppressWarnings({"unchecked"})
+  protected void writeField(ExportBuffer result, int offset, Object value, FixedFormatter formatter, FormatInstructions instructions) {
+    if (value != null && IS_RECORD.get(value.getClass())) {
+      result.write(offset, manager.export(value));
+    } else {
+      formatter.format(value, instructions, result, offset);
+    }
+  }
+
+  /**
+   * @param setterName the name of the missing setter
+   * @param datatype the datatype of the missing setter
+   * @return the exception to throw when a value is loaded for a field without a setter
+   */
+  protected FixedFormatException missingSetter(String setterName, Class<?> datatype) {
+    return new FixedFormatException(format("setter method named %s.%s(%s) does not exist", recordClass.getName(), setterName, datatype));
+  }
+
+  private static FixedFormatter<?> adapt(FixedFormatter formatter, Class<?> datatype) {
+    if (datatype == int.class) {
+      return new IntAdapter(formatter);
+    } else if (datatype == long.class) {
+      return new LongAdapter(formatter);
+    } else if (datatype == double.class) {
+      return new DoubleAdapter(formatter);
+    } else if (datatype == boolean.class) {
+      return new BooleanAdapter(formatter);
+    }
+    return formatter;
+  }
+
+  private Method getGetter(String getterName) {
+    try {
+      return recordClass.getMethod(getterName);
+    } catch (NoSuchMethodException e) {
+      throw new FixedFormatException(format("could not find method %s.%s()", recordClass.getName(), getterName), e);
+    }
+  }
+
+  /**
+   * Gives a formatter the specialized primitive methods by unboxing the values it parses and boxing the values it
+   * formats
+   */
+  private static class Delegating<T> implements FixedFormatter<T> {
+
+    private final FixedFormatter<T> delegate;
+
+    Delegating(FixedFormatter<T> delegate) {
+      this.delegate = delegate;
+    }
+
+    public T parse(String value, FormatInstructions instructions) throws FixedFormatException {
+      return delegate.parse(value, instructions);
+    }
+
+    public T parse(CharSequence source, int start, int end, FormatInstructions instructions) throws FixedFormatException {
+      return delegate.parse(source, start, end, instructions);
+    }
+
+    public String format(T value, FormatInstructions instructions) throws FixedFormatException {
+      return delegate.format(value, instructions);
+    }
+
+    public void format(T value, FormatInstructions instructions, ExportBuffer buffer, int offset) throws FixedFormatException {
+      delegate.format(value, instructions, buffer, offset);
+    }
+  }
+
+  private static final class IntAdapter extends Delegating<Integer> implements IntFixedFormatter {
+    IntAdapter(FixedFormatter<Integer> delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class LongAdapter extends Delegating<Long> implements LongFixedFormatter {
+    LongAdapter(FixedFormatter<Long> delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class DoubleAdapter extends Delegating<Double> implements DoubleFixedFormatter {
+    DoubleAdapter(FixedFormatter<Double> delegate) {
+      super(delegate);
+    }
+  }
+
+  private static final class BooleanAdapter extends Delegating<Boolean> implements BooleanFixedFormatter {
+    BooleanAdapter(FixedFormatter<Boolean> delegate) {
+      super(delegate);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+/**
+ * A {@link FixedFormatter} able to parse and format <code>boolean</code> values without boxing them.
+ * <p/>
+ * The record plans and the generated codecs uses these methods for fields whose getter returns a <code>boolean</code>.
+ * The default implementations delegates to the methods of {@link FixedFormatter}, so implementors only has to
+ * override them when they can do better.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public interface BooleanFixedFormatter extends FixedFormatter<Boolean> {
+
+  /**
+   * Parses the data found between <code>start</code> and <code>end</code> in the source like
+   * {@link #parse(CharSequence, int, int, FormatInstructions)} does.
+   * @param source the data containing the value to parse
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions contains the instructions telling how to parse the value
+   * @return the parsed value. <code>false</code> if the formatter parsed the data to <code>null</code>
+   * @throws FixedFormatException if the value could not be parsed according to the instructions
+   */
+  default boolean parseBoolean(CharSequence source, int start, int end, FormatInstructions instructions) throws FixedFormatException {
+    Boolean result = parse(source, start, end, instructions);
+    return result != null ? result : false;
+  }
+
+  /**
+   * Formats the value according to the instructions and writes it into the buffer a record is exported into like
+   * {@link #format(Object, FormatInstructions, ExportBuffer, int)} does.
+   * @param value the value to format
+   * @param instructions contains the instructions telling how to format the value
+   * @param buffer the buffer to write into
+   * @param offset the one based offset to write the formatted value at
+   * @throws FixedFormatException if the value could not be formatted according to the instructions
+   */
+  default void formatBoolean(boolean value, FormatInstructions instructions, ExportBuffer buffer, int offset) throws FixedFormatException {
+    format(Boolean.valueOf(value), instructions, buffer, offset);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A range of a {@link ByteBuffer} seen as the chars the bytes decodes to in a {@link SingleByteCharset}. The chars is
+ * decoded when they are read, so a record can be loaded directly from e.g. a memory mapped file.
+ * <p/>
+ * The bytes is read with absolute gets, so the position of the buffer isn't used, and sequences over the same buffer
+ * can be read by several threads.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public final class ByteCharSequence implements CharSequence {
+
+  private final ByteBuffer bytes;
+  private final int offset;
+  private final int length;
+  private final SingleByteCharset charset;
+
+  /**
+   * @param bytes the bytes
+   * @param offset the index of the first byte of the sequence
+   * @param length the number of bytes in the sequence
+   * @param charset the charset of the bytes
+   */
+  public ByteCharSequence(ByteBuffer bytes, int offset, int length, SingleByteCharset charset) {
+    if (offset < 0 || length < 0 || offset + length > bytes.limit()) {
+      throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", limit " + bytes.limit());
+    }
+    this.bytes = bytes;
+    this.offset = offset;
+    this.length = length;
+    this.charset = charset;
+  }
+
+  /**
+   * @param bytes the bytes
+   * @param offset the index of the first byte of the sequence
+   * @param length the number of bytes in the sequence
+   * @param charset the charset of the bytes
+   */
+  public ByteCharSequence(byte[] bytes, int offset, int length, SingleByteCharset charset) {
+    this(ByteBuffer.wrap(bytes), offset, length, charset);
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @param index the index of the byte within the sequence
+   * @return the undecoded byte
+   */
+  public byte byteAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return bytes.get(offset + index);
+  }
+
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return charset.decode(bytes.get(offset + index));
+  }
+
+  /**
+   * @return the decoded chars of the range
+   */
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+    }
+    char[] result = new char[end - start];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = charset.decode(bytes.get(offset + start + i));
+    }
+    return new String(result);
+  }
+
+  public String toString() {
+    return subSequence(0, length).toString();
+  }
+}
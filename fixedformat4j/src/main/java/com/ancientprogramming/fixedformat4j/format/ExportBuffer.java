@@ -0,0 +1,231 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The char buffer a record is exported into.
+ * <p/>
+ * The buffer is prefilled with the padding char of the record, so writing a field at an offset beyond the current
+ * end of the record only moves the end. The exported fields is copied directly to their offset, and the record is
+ * turned into a String once when all fields is written. Each thread reuses its own buffers, see {@link #acquire()}.
+ * <p/>
+ * The buffers of a thread is kept until the thread dies. As they keep the fixedformat4j classes loaded, applications
+ * deployed in a container reusing its threads should call {@link #clearThreadBuffers()} on the threads that exported
+ * records, e.g. at the end of each request.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public final class ExportBuffer {
+
+  private static final ThreadLocal<ExportBuffer> BUFFERS = new ThreadLocal<ExportBuffer>() {
+    protected ExportBuffer initialValue() {
+      return new ExportBuffer();
+    }
+  };
+
+  private char[] chars = new char[0];
+  private int length;
+  private char paddingChar;
+  //start and end pairs of the ranges holding bytes instead of chars
+  private int[] byteRanges = new int[0];
+  private int byteRangeCount;
+  private boolean inUse;
+  private ExportBuffer next;
+
+  /**
+   * Prepare the buffer for exporting a new record.
+   *
+   * @param template the data the record is exported on top of
+   * @param layoutLength the expected length of the record. The buffer grows if the fields turns out to be longer
+   * @param paddingChar the char to pad the gaps between the fields with
+   */
+  public void reset(String template, int layoutLength, char paddingChar) {
+    int capacity = Math.max(template.length(), layoutLength);
+    if (chars.length < capacity) {
+      chars = new char[capacity];
+    }
+    this.paddingChar = paddingChar;
+    this.length = template.length();
+    this.byteRangeCount = 0;
+    template.getChars(0, length, chars, 0);
+    Arrays.fill(chars, length, chars.length, paddingChar);
+  }
+
+  /**
+   * Write the data at the given offset. Gaps between the current end of the record and the offset is padded.
+   *
+   * @param offset the one based offset to write at
+   * @param data the data to write
+   */
+  public void write(int offset, String data) {
+    int start = offset - 1;
+    int end = start + data.length();
+    ensureCapacity(end);
+    data.getChars(0, data.length(), chars, start);
+    if (end > length) {
+      length = end;
+    }
+  }
+
+  /**
+   * Make room for a field and get the chars to write it into. Gaps between the current end of the record and the
+   * offset is padded.
+   *
+   * @param offset the one based offset of the field
+   * @param length the length of the field
+   * @return the chars of the buffer. The field has to be written from index <code>offset - 1</code>
+   */
+  public char[] reserve(int offset, int length) {
+    int end = offset - 1 + length;
+    ensureCapacity(end);
+    if (end > this.length) {
+      this.length = end;
+    }
+    return chars;
+  }
+
+  /**
+   * Make room for a field of bytes, like packed decimals, and get the chars to write it into. Each byte is written as
+   * the char of the same value, i.e. as ISO-8859-1, and {@link #getBytes} copies the bytes of the field without
+   * encoding them.
+   *
+   * @param offset the one based offset of the field
+   * @param length the length of the field in bytes
+   * @return the chars of the buffer. The field has to be written from index <code>offset - 1</code>
+   */
+  public char[] reserveBytes(int offset, int length) {
+    if (byteRanges.length == byteRangeCount * 2) {
+      byteRanges = Arrays.copyOf(byteRanges, Math.max(8, byteRanges.length * 2));
+    }
+    byteRanges[byteRangeCount * 2] = offset - 1;
+    byteRanges[byteRangeCount * 2 + 1] = offset - 1 + length;
+    byteRangeCount++;
+    return reserve(offset, length);
+  }
+
+  /**
+   * Pad the record to the given length
+   *
+   * @param recordLength the minimum length of the record
+   */
+  public void padTo(int recordLength) {
+    if (recordLength > length) {
+      ensureCapacity(recordLength);
+      length = recordLength;
+    }
+  }
+
+  /**
+   * @return the length of the record written so far
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Copy chars of the record written so far into the destination like {@link String#getChars} does
+   *
+   * @param srcBegin the index of the first char to copy
+   * @param srcEnd the index after the last char to copy
+   * @param dst the destination
+   * @param dstBegin the index in the destination to copy the first char to
+   * @throws IndexOutOfBoundsException if the range isn't within the record or the destination
+   */
+  public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+    if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length) {
+      throw new IndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + length);
+    }
+    System.arraycopy(chars, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+  }
+
+  /**
+   * Encode chars of the record written so far into the destination starting at its position, and move the position
+   * past the bytes. Fields written through {@link #reserveBytes} is copied without encoding them
+   *
+   * @param srcBegin the index of the first char to encode
+   * @param srcEnd the index after the last char to encode
+   * @param charset the charset to encode the chars in
+   * @param dst the destination
+   * @throws IndexOutOfBoundsException if the range isn't within the record
+   * @throws java.nio.BufferOverflowException if the destination has no room for the bytes
+   */
+  public void getBytes(int srcBegin, int srcEnd, SingleByteCharset charset, ByteBuffer dst) {
+    if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length) {
+      throw new IndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + length);
+    }
+    int position = dst.position();
+    charset.encode(chars, srcBegin, srcEnd, dst);
+    for (int i = 0; i < byteRangeCount; i++) {
+      int begin = Math.max(srcBegin, byteRanges[i * 2]);
+      int end = Math.min(srcEnd, byteRanges[i * 2 + 1]);
+      for (int j = begin; j < end; j++) {
+        dst.put(position + j - srcBegin, (byte) chars[j]);
+      }
+    }
+  }
+
+  /**
+   * @return the record written so far
+   */
+  public String toString() {
+    return new String(chars, 0, length);
+  }
+
+  /**
+   * Get an unused buffer of the current thread. Exporting a nested record while the outer record is exported uses
+   * a second buffer, so the buffers is kept as a chain per thread.
+   *
+   * @return the buffer. It has to be given back by calling {@link #release()}
+   */
+  public static ExportBuffer acquire() {
+    ExportBuffer buffer = BUFFERS.get();
+    while (buffer.inUse) {
+      if (buffer.next == null) {
+        buffer.next = new ExportBuffer();
+      }
+      buffer = buffer.next;
+    }
+    buffer.inUse = true;
+    return buffer;
+  }
+
+  /**
+   * Give the buffer back to the current thread
+   */
+  public void release() {
+    inUse = false;
+  }
+
+  /**
+   * Remove the buffers of the current thread. Buffers acquired but not released yet can still be used. The next
+   * {@link #acquire()} creates new buffers.
+   */
+  public static void clearThreadBuffers() {
+    BUFFERS.remove();
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > chars.length) {
+      int oldCapacity = chars.length;
+      chars = Arrays.copyOf(chars, Math.max(capacity, oldCapacity * 2));
+      Arrays.fill(chars, oldCapacity, chars.length, paddingChar);
+    }
+  }
+}
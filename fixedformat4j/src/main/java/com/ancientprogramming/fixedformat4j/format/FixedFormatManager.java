@@ -17,6 +17,8 @@ package com.ancientprogramming.fixedformat4j.format;
 
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface used to interact with fixed format annotations.
  * <p/>
@@ -39,6 +41,36 @@ public interface FixedFormatManager {
    */
   <T> T load(Class<T> clazz, String data) throws FixedFormatException;
 
+  /**
+   * Create an instance of the fixedFormatClass and load the data into it like {@link #load(Class, String)}. The data
+   * is only read while the record is loaded, so e.g. a reused buffer can be loaded without copying it into a String.
+   *
+   * @param clazz the class to instanciate
+   * @param data  the data to load
+   * @return an object loaded with the fixedformat data
+   * @throws FixedFormatException in case the data couldn't be loaded
+   * @since 1.4.0
+   */
+  default <T> T load(Class<T> clazz, CharSequence data) throws FixedFormatException {
+    return load(clazz, data.toString());
+  }
+
+  /**
+   * Create an instance of the fixedFormatClass and load the bytes from the position to the limit of the buffer into it
+   * like {@link #load(Class, CharSequence)}. The bytes is decoded through the table of the charset as they are
+   * parsed, so only the fields that is parsed as Strings becomes chars. The position of the buffer isn't changed.
+   *
+   * @param clazz the class to instanciate
+   * @param data  the data to load
+   * @param charset the charset of the data
+   * @return an object loaded with the fixedformat data
+   * @throws FixedFormatException in case the data couldn't be loaded
+   * @since 1.4.0
+   */
+  default <T> T load(Class<T> clazz, ByteBuffer data, SingleByteCharset charset) throws FixedFormatException {
+    return load(clazz, new ByteCharSequence(data, data.position(), data.remaining(), charset));
+  }
+
   /**
    * Exports the instance &lt;T&gt; into a fixed formatted string representation.
    * The instance has to be @Record annotated and containing @Field annotations on the getters that is to be exported
@@ -60,5 +92,45 @@ public interface FixedFormatManager {
    */
   <T> String export(String template, T instance) throws FixedFormatException;
 
+  /**
+   * Exports the instance &lt;T&gt; into the buffer instead of creating a String, so the buffer can be reused for many
+   * records. The buffer is reset before the instance is exported.
+   * @param instance is he object that is to be exported
+   * @param buffer the buffer to export into
+   * @throws FixedFormatException in case the instance couldn't be exported
+   * @since 1.4.0
+   */
+  default <T> void exportTo(T instance, ExportBuffer buffer) throws FixedFormatException {
+    String record = export(instance);
+    buffer.reset(record, record.length(), ' ');
+  }
 
+  /**
+   * Exports the instance &lt;T&gt; into the buffer at its position, and move the position past the record. The
+   * instance is exported into a reused {@link ExportBuffer} and encoded through the table of the charset.
+   * @param instance is he object that is to be exported
+   * @param buffer the buffer to export into
+   * @param charset the charset to encode the record in
+   * @throws FixedFormatException in case the instance couldn't be exported
+   * @throws java.nio.BufferOverflowException if the buffer has no room for the record
+   * @since 1.4.0
+   */
+  default <T> void exportTo(T instance, ByteBuffer buffer, SingleByteCharset charset) throws FixedFormatException {
+    ExportBuffer record = ExportBuffer.acquire();
+    try {
+      exportTo(instance, record);
+      record.getBytes(0, record.length(), charset, buffer);
+    } finally {
+      record.release();
+    }
+  }
+
+  /**
+   * @return the registry of the formatters used for fields annotated with the default
+   * {@link com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter}
+   * @since 1.4.0
+   */
+  default FormatterRegistry getFormatterRegistry() {
+    return FormatterRegistry.getDefault();
+  }
 }
@@ -16,9 +16,16 @@
 package com.ancientprogramming.fixedformat4j.format;
 
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import static java.lang.String.format;
 
 /**
@@ -31,6 +38,21 @@ public class FixedFormatUtil {
 
   private static final Log LOG = LogFactory.getLog(FixedFormatUtil.class);
 
+  private static final Map<Class<?>, Class<?>> PRIMITIVE_FORMATTERS = new HashMap<Class<?>, Class<?>>();
+
+  static {
+    PRIMITIVE_FORMATTERS.put(int.class, IntFixedFormatter.class);
+    PRIMITIVE_FORMATTERS.put(long.class, LongFixedFormatter.class);
+    PRIMITIVE_FORMATTERS.put(double.class, DoubleFixedFormatter.class);
+    PRIMITIVE_FORMATTERS.put(boolean.class, BooleanFixedFormatter.class);
+  }
+
+  private static final ClassValue<FormatterInstances> FORMATTER_INSTANCES = new ClassValue<FormatterInstances>() {
+    protected FormatterInstances computeValue(Class<?> type) {
+      return new FormatterInstances(type);
+    }
+  };
+
   /**
    * Fetch data from the record string according to the {@link FormatInstructions} and {@link FormatContext}
    * @param record the string to fetch from
@@ -39,20 +61,34 @@ public class FixedFormatUtil {
    * @return the String data fetched from the record. Can be <code>null</code> if the record was shorter than the context expected
    */
   public static String fetchData(String record, FormatInstructions instructions, FormatContext context) {
+    return fetchData((CharSequence) record, instructions, context);
+  }
+
+  /**
+   * Fetch data from the record according to the {@link FormatInstructions} and {@link FormatContext}
+   * @param record the record to fetch from
+   * @param instructions the fixed
+   * @param context the context to fetch data in
+   * @return the String data fetched from the record. Can be <code>null</code> if the record was shorter than the context expected
+   * @since 1.4.0
+   */
+  public static String fetchData(CharSequence record, FormatInstructions instructions, FormatContext context) {
     String result;
     int offset = context.getOffset() - 1;
     int length = instructions.getLength();
     if (record.length() >= offset + length) {
-      result = record.substring(offset, offset + length);
+      result = record.subSequence(offset, offset + length).toString();
     } else if (record.length() > offset) {
       //the field does contain data, but is not as long as the instructions tells.
-      result = record.substring(offset, record.length());
+      result = record.subSequence(offset, record.length()).toString();
       if (LOG.isDebugEnabled()) {
         LOG.info(format("The record field was not as long as expected by the instructions. Expected field to be %s long but it was %s.", length, record.length()));
       }
     } else {
       result = null;
-      LOG.info(format("Could not fetch data from record as the recordlength[%s] was shorter than or equal to the requested offset[%s] of the request data. Returning null", record.length(), offset));
+      if (LOG.isInfoEnabled()) {
+        LOG.info(format("Could not fetch data from record as the recordlength[%s] was shorter than or equal to the requested offset[%s] of the request data. Returning null", record.length(), offset));
+      }
     }
     if (LOG.isDebugEnabled()) {
       LOG.debug(format("fetched '%s' from record", result));
@@ -60,15 +96,90 @@ public class FixedFormatUtil {
     return result;
   }
 
-  public static <T> FixedFormatter<T> getFixedFormatterInstance(Class<? extends FixedFormatter<T>> formatterClass, FormatContext context) {
-    FixedFormatter<T> formatter = getFixedFormatterInstance(formatterClass, context.getClass(), context);
-    if (formatter == null) {
-      formatter = getFixedFormatterInstance(formatterClass, null, null);
+  /**
+   * Parse the field described by the instructions and context directly from the record, without copying the field
+   * out of the record first.
+   *
+   * @param record the complete record
+   * @param instructions the instructions of the field
+   * @param context the context of the field
+   * @param formatter the formatter to parse the field with
+   * @return the parsed value. Fields starting after the end of the record is parsed from <code>null</code> like
+   * {@link #fetchData} returns for them
+   */
+  public static <T> T parseData(CharSequence record, FormatInstructions instructions, FormatContext context, FixedFormatter<T> formatter) {
+    int start = context.getOffset() - 1;
+    if (record.length() <= start || LOG.isDebugEnabled()) {
+      //only copy the field when it is logged or the formatter should get the null value
+      String data = fetchData(record, instructions, context);
+      if (data == null) {
+        return formatter.parse((String) null, instructions);
+      }
     }
-    if (formatter == null) {
-      throw new FixedFormatException("could not create instance of [" + formatterClass.getName() + "] because the class has no default constructor and no constructor with " + FormatContext.class.getName() + " as argument.");
+    int end = Math.min(record.length(), start + instructions.getLength());
+    return formatter.parse(record, start, end, instructions);
+  }
+
+  /**
+   * Get the formatter able to parse and format values of a primitive datatype without boxing them, e.g. an
+   * {@link IntFixedFormatter} for <code>int</code>. A {@link ByTypeFormatter} is replaced by the build-in formatter it
+   * delegates to.
+   *
+   * @param formatter the formatter of the field
+   * @param datatype the datatype of the field
+   * @return the specialized formatter or <code>null</code> if the datatype has no specialized formatter interface or
+   * the formatter doesn't implement it
+   * @since 1.4.0
+   */
+  public static FixedFormatter<?> getPrimitiveFormatter(FixedFormatter<?> formatter, Class<?> datatype) {
+    Class<?> formatterType = PRIMITIVE_FORMATTERS.get(datatype);
+    if (formatterType == null) {
+      return null;
+    }
+    if (formatter instanceof ByTypeFormatter) {
+      formatter = ((ByTypeFormatter) formatter).getBuildInFormatter();
+    }
+    return formatterType.isInstance(formatter) ? formatter : null;
+  }
+
+  /**
+   * Get an instance of the formatter class to use in the given context.
+   * <p/>
+   * The build-in formatters of the <code>com.ancientprogramming.fixedformat4j.format.impl</code> package is stateless,
+   * so their instances is cached: a formatter having a constructor taking a {@link FormatContext} as argument is
+   * created once per context, while a formatter only having a default constructor is created once and shared by all
+   * contexts. Other formatters might keep state, so they get a new instance on every call, which the record plans
+   * and codecs bind to a single field.
+   *
+   * @param formatterClass the formatter to get an instance of
+   * @param context the context the formatter is used in
+   * @return the formatter instance
+   * @throws FixedFormatException if the formatter has no usable constructor or the instance couldn't be created
+   */
+  @SuppressWarnings({"unchecked"})
+  public static <T> FixedFormatter<T> getFixedFormatterInstance(Class<? extends FixedFormatter<T>> formatterClass, FormatContext context) {
+    return (FixedFormatter<T>) FORMATTER_INSTANCES.get(formatterClass).getInstance(context);
+  }
+
+  /**
+   * Get the formatter to use in the given context. Fields using the {@link ByTypeFormatter} gets the formatter
+   * registered for their datatype directly, others an instance of their formatter class.
+   *
+   * @param context the context the formatter is used in
+   * @param registry the registry to look up the formatters of {@link ByTypeFormatter} fields in
+   * @return the formatter instance. A {@link ByTypeFormatter} if the registry has no formatter for the datatype
+   * @throws FixedFormatException if the formatter has no usable constructor or the instance couldn't be created
+   * @since 1.4.0
+   */
+  @SuppressWarnings({"unchecked"})
+  public static FixedFormatter getFixedFormatterInstance(FormatContext context, FormatterRegistry registry) {
+    if (context.getFormatter() == ByTypeFormatter.class) {
+      FixedFormatter formatter = registry.getFormatter(context.getDataType());
+      if (formatter != null) {
+        return formatter;
+      }
     }
-    return formatter;
+    return getFixedFormatterInstance(context.getFormatter(), context);
   }
 
   public static <T> FixedFormatter<T> getFixedFormatterInstance(Class<? extends FixedFormatter<T>> formatterClass, Class paramType, FormatContext paramValue) {
@@ -92,4 +203,76 @@ public class FixedFormatUtil {
     }
     return result;
   }
+
+  /**
+   * @param formatterClass the formatter class
+   * @return <code>true</code> if the formatter is one of the stateless build-in formatters, whose instances is shared
+   */
+  static boolean isBuildIn(Class<?> formatterClass) {
+    return FORMATTER_INSTANCES.get(formatterClass).buildIn;
+  }
+
+  /**
+   * The constructors and cached instances of one formatter class
+   */
+  private static class FormatterInstances {
+
+    private final Class<?> formatterClass;
+    private final boolean buildIn;
+    private final Constructor<?> contextConstructor;
+    private final Constructor<?> defaultConstructor;
+    private final ConcurrentMap<FormatContext, FixedFormatter> contextInstances = new ConcurrentHashMap<FormatContext, FixedFormatter>();
+    private volatile FixedFormatter sharedInstance;
+
+    FormatterInstances(Class<?> formatterClass) {
+      this.formatterClass = formatterClass;
+      this.buildIn = formatterClass.getClassLoader() == FixedFormatUtil.class.getClassLoader() &&
+          formatterClass.getName().startsWith(ByTypeFormatter.class.getPackage().getName() + ".");
+      Constructor<?> contextConstructor = null;
+      Constructor<?> defaultConstructor = null;
+      for (Constructor<?> constructor : formatterClass.getConstructors()) {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length == 1 && parameterTypes[0] == FormatContext.class) {
+          contextConstructor = constructor;
+        } else if (parameterTypes.length == 0) {
+          defaultConstructor = constructor;
+        }
+      }
+      this.contextConstructor = contextConstructor;
+      this.defaultConstructor = defaultConstructor;
+    }
+
+    FixedFormatter getInstance(FormatContext context) {
+      FixedFormatter result;
+      if (!buildIn && ((contextConstructor != null && context != null) || defaultConstructor != null)) {
+        result = contextConstructor != null && context != null ? newInstance(contextConstructor, context) : newInstance(defaultConstructor);
+      } else if (contextConstructor != null && context != null) {
+        result = contextInstances.get(context);
+        if (result == null) {
+          FixedFormatter created = newInstance(contextConstructor, context);
+          result = contextInstances.putIfAbsent(context, created);
+          if (result == null) {
+            result = created;
+          }
+        }
+      } else if (defaultConstructor != null) {
+        result = sharedInstance;
+        if (result == null) {
+          result = newInstance(defaultConstructor);
+          sharedInstance = result;
+        }
+      } else {
+        throw new FixedFormatException("could not create instance of [" + formatterClass.getName() + "] because the class has no default constructor and no constructor with " + FormatContext.class.getName() + " as argument.");
+      }
+      return result;
+    }
+
+    private FixedFormatter newInstance(Constructor<?> constructor, Object... args) {
+      try {
+        return (FixedFormatter) constructor.newInstance(args);
+      } catch (Exception e) {
+        throw new FixedFormatException(args.length == 0 ? "Could not create instance with no arg constructor" : "Could not create instance with one argument constructor", e);
+      }
+    }
+  }
 }
@@ -25,6 +25,8 @@ import com.ancientprogramming.fixedformat4j.format.impl.DateFormatter;
  * A concrete class is used together with the @{@link Field} annotation.
  * <p/>
  * Example: <p><code>@Field(offset = 1, length = 20, formatter = {@link DateFormatter}.class)</code></p>
+ * <p/>
+ * Formatter instances is cached and shared between records and threads, so implementations has to be thread-safe.
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
@@ -41,6 +43,24 @@ public interface FixedFormatter<T> {
    */
   T parse(String value, FormatInstructions instructions) throws FixedFormatException;
 
+  /**
+   * Parses the data found between <code>start</code> and <code>end</code> in the source according to the format
+   * instruction. The data is typically a field inside a complete record, so implementations reading the chars directly
+   * saves copying the field out of the record.
+   * <p/>
+   * The default implementation copies the window and calls {@link #parse(String, FormatInstructions)}, so formatters
+   * written before 1.4.0 works unchanged.
+   * @param source the data containing the value to parse
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions contains the instructions telling how to parse the value
+   * @return An instance of T after the value was parsed according to the instructions
+   * @throws FixedFormatException if the value could not be parsed according to the instructions
+   * @since 1.4.0
+   */
+  default T parse(CharSequence source, int start, int end, FormatInstructions instructions) throws FixedFormatException {
+    return parse(source.subSequence(start, end).toString(), instructions);
+  }
 
   /**
    * Formats an instance of T according to the instructions
@@ -50,4 +70,20 @@ public interface FixedFormatter<T> {
    * @throws FixedFormatException if the value could not be formatted according to the instructions
    */
   String format(T value, FormatInstructions instructions) throws FixedFormatException;
+
+  /**
+   * Formats an instance of T according to the instructions and writes it into the buffer a record is exported into.
+   * <p/>
+   * The default implementation writes the result of {@link #format(Object, FormatInstructions)}, so formatters written
+   * before 1.4.0 works unchanged.
+   * @param value the object to format
+   * @param instructions contains the instructions telling how to format the value
+   * @param buffer the buffer to write into
+   * @param offset the one based offset to write the formatted value at
+   * @throws FixedFormatException if the value could not be formatted according to the instructions
+   * @since 1.4.0
+   */
+  default void format(T value, FormatInstructions instructions, ExportBuffer buffer, int offset) throws FixedFormatException {
+    buffer.write(offset, format(value, instructions));
+  }
 }
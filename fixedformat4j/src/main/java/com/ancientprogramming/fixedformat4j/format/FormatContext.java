@@ -46,6 +46,23 @@ public class FormatContext<T> {
     return formatter;
   }
 
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof FormatContext)) return false;
+
+    FormatContext that = (FormatContext) o;
+
+    return offset == that.offset &&
+        (dataType != null ? dataType.equals(that.dataType) : that.dataType == null) &&
+        (formatter != null ? formatter.equals(that.formatter) : that.formatter == null);
+  }
+
+  public int hashCode() {
+    int result = offset;
+    result = 31 * result + (dataType != null ? dataType.hashCode() : 0);
+    result = 31 * result + (formatter != null ? formatter.hashCode() : 0);
+    return result;
+  }
 
   public String toString() {
     return "FormatContext{" +
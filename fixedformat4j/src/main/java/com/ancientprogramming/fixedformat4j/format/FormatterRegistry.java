@@ -0,0 +1,150 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.BigDecimalFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.BooleanFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.CharacterFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.DateFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.DoubleFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.EnumFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.FloatFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.InstantFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.IntegerFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.LocalDateFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.LocalDateTimeFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.LocalTimeFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.LongFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.ShortFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps datatypes to the formatter instances used for fields annotated with the default
+ * {@link ByTypeFormatter}.
+ * <p/>
+ * A new registry contains the build-in formatters. Register formatters for your own types, or replace the build-in
+ * ones, and give the registry to the manager:
+ * <pre>
+ * FormatterRegistry registry = new FormatterRegistry()
+ *     .register(Money.class, new MoneyFormatter())
+ *     .register(UUID.class, new UUIDFormatter());
+ * FixedFormatManager manager = new FixedFormatManagerImpl(registry);
+ * </pre>
+ * The formatter of a field is looked up once when the record class is first used, so formatters has to be registered
+ * before the manager loads or exports records. The formatter is found by the exact datatype of the field. Enums without
+ * a registered formatter is handled by the {@link EnumFormatter}.
+ * <p/>
+ * The registered formatters is shared between records and threads, so they have to be thread-safe.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class FormatterRegistry {
+
+  private static final FormatterRegistry DEFAULT = new FormatterRegistry(true);
+
+  private final ConcurrentMap<Class<?>, FixedFormatter<?>> formatters = new ConcurrentHashMap<Class<?>, FixedFormatter<?>>();
+  private final boolean locked;
+
+  /**
+   * Create a registry containing the build-in formatters
+   */
+  public FormatterRegistry() {
+    this(false);
+  }
+
+  private FormatterRegistry(boolean locked) {
+    StringFormatter stringFormatter = new StringFormatter();
+    ShortFormatter shortFormatter = new ShortFormatter();
+    IntegerFormatter integerFormatter = new IntegerFormatter();
+    LongFormatter longFormatter = new LongFormatter();
+    CharacterFormatter characterFormatter = new CharacterFormatter();
+    BooleanFormatter booleanFormatter = new BooleanFormatter();
+    DoubleFormatter doubleFormatter = new DoubleFormatter();
+    FloatFormatter floatFormatter = new FloatFormatter();
+
+    formatters.put(String.class, stringFormatter);
+    formatters.put(short.class, shortFormatter);
+    formatters.put(Short.class, shortFormatter);
+    formatters.put(int.class, integerFormatter);
+    formatters.put(Integer.class, integerFormatter);
+    formatters.put(long.class, longFormatter);
+    formatters.put(Long.class, longFormatter);
+    formatters.put(Date.class, new DateFormatter());
+    formatters.put(char.class, characterFormatter);
+    formatters.put(Character.class, characterFormatter);
+    formatters.put(boolean.class, booleanFormatter);
+    formatters.put(Boolean.class, booleanFormatter);
+    formatters.put(double.class, doubleFormatter);
+    formatters.put(Double.class, doubleFormatter);
+    formatters.put(float.class, floatFormatter);
+    formatters.put(Float.class, floatFormatter);
+    formatters.put(BigDecimal.class, new BigDecimalFormatter());
+    formatters.put(LocalDate.class, new LocalDateFormatter());
+    formatters.put(LocalDateTime.class, new LocalDateTimeFormatter());
+    formatters.put(LocalTime.class, new LocalTimeFormatter());
+    formatters.put(Instant.class, new InstantFormatter());
+    this.locked = locked;
+  }
+
+  /**
+   * @return the registry of the build-in formatters used by managers created without a registry. It can't be modified
+   */
+  public static FormatterRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Register the formatter to use for fields of the given datatype. A formatter already registered for the datatype
+   * is replaced.
+   *
+   * @param datatype the datatype. Use e.g. <code>int.class</code> for primitive fields
+   * @param formatter the formatter instance
+   * @return this registry
+   * @throws FixedFormatException if this is the default registry
+   */
+  public <T> FormatterRegistry register(Class<T> datatype, FixedFormatter<T> formatter) {
+    if (locked) {
+      throw new FixedFormatException("the default registry can't be modified. Create a new FormatterRegistry instead");
+    }
+    formatters.put(datatype, formatter);
+    return this;
+  }
+
+  /**
+   * @param datatype the datatype to get the formatter for
+   * @return the formatter registered for the datatype, the {@link EnumFormatter} for unregistered enums or
+   * <code>null</code> if there is none
+   */
+  public FixedFormatter<?> getFormatter(Class<?> datatype) {
+    FixedFormatter<?> result = formatters.get(datatype);
+    if (result == null && datatype.isEnum()) {
+      result = EnumFormatter.forType(datatype);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+/**
+ * Loads and exports one specific @{@link com.ancientprogramming.fixedformat4j.annotation.Record} class without
+ * using reflection.
+ * <p/>
+ * Codecs are generated by the fixedformat4j annotation processor. A codec for the record class <code>Foo</code>
+ * is named <code>FooCodec</code> and placed in the same package (<code>Outer$InnerCodec</code> for the nested class
+ * <code>Outer.Inner</code>). A codec is only used if it is a codec of the record class.
+ * It has a public constructor taking the {@link FixedFormatManager} used for nested records.
+ * The {@link com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl} uses a codec whenever
+ * one is found for a record class.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public interface RecordCodec<T> {
+
+  /**
+   * The suffix appended to the record class name to get the name of its codec
+   */
+  public static final String CODEC_SUFFIX = "Codec";
+
+  /**
+   * Create an instance of the record class and load the data string into it.
+   *
+   * @param data the data to load
+   * @return the loaded record
+   * @throws FixedFormatException if the data couldn't be loaded
+   * @see FixedFormatManager#load(Class, String)
+   */
+  T load(String data) throws FixedFormatException;
+
+  /**
+   * Create an instance of the record class and load the data into it. The data is only read while the record is
+   * loaded.
+   *
+   * @param data the data to load
+   * @return the loaded record
+   * @throws FixedFormatException if the data couldn't be loaded
+   * @see FixedFormatManager#load(Class, CharSequence)
+   * @since 1.4.0
+   */
+  default T load(CharSequence data) throws FixedFormatException {
+    return load(data.toString());
+  }
+
+  /**
+   * Exports the record on top of the given template.
+   *
+   * @param template the data to merge the exported record with
+   * @param instance the record to export
+   * @return the exported record
+   * @throws FixedFormatException if the record couldn't be exported
+   * @see FixedFormatManager#export(String, Object)
+   */
+  String export(String template, T instance) throws FixedFormatException;
+
+  /**
+   * Exports the record into the buffer. The buffer is reset first.
+   *
+   * @param instance the record to export
+   * @param buffer the buffer to export into
+   * @throws FixedFormatException if the record couldn't be exported
+   * @see FixedFormatManager#exportTo(Object, ExportBuffer)
+   * @since 1.4.0
+   */
+  default void exportTo(T instance, ExportBuffer buffer) throws FixedFormatException {
+    String record = export("", instance);
+    buffer.reset(record, record.length(), ' ');
+  }
+}
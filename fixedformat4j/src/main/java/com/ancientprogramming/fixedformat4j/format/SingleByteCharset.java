@@ -0,0 +1,173 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A charset encoding each char in one byte, like US-ASCII, ISO-8859-1 or EBCDIC, decoded through a table of the 256
+ * byte values and encoded through a table of the chars the charset can encode. Bytes the charset can't decode is decoded
+ * to the replacement char U+FFFD, and chars it can't encode is encoded to the replacement byte of the charset,
+ * usually <code>'?'</code>.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public final class SingleByteCharset {
+
+  private static final ConcurrentMap<Charset, SingleByteCharset> CHARSETS = new ConcurrentHashMap<Charset, SingleByteCharset>();
+
+  private final Charset charset;
+  private final char[] chars = new char[256];
+  private final byte replacement;
+  //the encoded bytes per high byte of the char. Pages without chars of the charset is null
+  private final byte[][] pages = new byte[256][];
+
+  private SingleByteCharset(Charset charset) {
+    this.charset = charset;
+    CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    CharBuffer decoded = CharBuffer.allocate(2);
+    for (int i = 0; i < chars.length; i++) {
+      decoded.clear();
+      decoder.reset();
+      decoder.decode(ByteBuffer.wrap(new byte[]{(byte) i}), decoded, true);
+      decoder.flush(decoded);
+      chars[i] = decoded.position() == 1 ? decoded.get(0) : '\uFFFD';
+    }
+    //the chars below and above the surrogates is encoded in one go each. Unmappable chars is replaced by one byte each,
+    //and the surrogates is left as unmappable as a single byte charset can't encode the supplementary chars
+    CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.replacement = encoder.replacement()[0];
+    encodeRange(encoder, Character.MIN_VALUE, Character.MIN_SURROGATE);
+    encodeRange(encoder, Character.MAX_SURROGATE + 1, Character.MAX_VALUE + 1);
+  }
+
+  private void encodeRange(CharsetEncoder encoder, int begin, int end) {
+    char[] range = new char[end - begin];
+    for (int i = 0; i < range.length; i++) {
+      range[i] = (char) (begin + i);
+    }
+    ByteBuffer encoded = ByteBuffer.allocate(range.length);
+    encoder.reset();
+    encoder.encode(CharBuffer.wrap(range), encoded, true);
+    encoder.flush(encoded);
+    if (encoded.position() != range.length) {
+      throw new FixedFormatException(String.format("%s encoded %s chars into %s bytes", charset.name(), range.length, encoded.position()));
+    }
+    for (int i = 0; i < range.length; i++) {
+      byte b = encoded.get(i);
+      if (b != replacement) {
+        int c = begin + i;
+        byte[] page = pages[c >>> 8];
+        if (page == null) {
+          page = new byte[256];
+          Arrays.fill(page, replacement);
+          pages[c >>> 8] = page;
+        }
+        page[c & 0xFF] = b;
+      }
+    }
+  }
+
+  /**
+   * @param charset the charset
+   * @return the decoding table of the charset
+   * @throws FixedFormatException if the charset doesn't encode each char in one byte
+   */
+  public static SingleByteCharset forCharset(Charset charset) {
+    SingleByteCharset result = CHARSETS.get(charset);
+    if (result == null) {
+      if (!isSingleByte(charset)) {
+        throw new FixedFormatException(String.format("%s isn't a single byte charset", charset.name()));
+      }
+      CHARSETS.putIfAbsent(charset, new SingleByteCharset(charset));
+      result = CHARSETS.get(charset);
+    }
+    return result;
+  }
+
+  /**
+   * @param charset the charset
+   * @return whether the charset encodes each char in one byte
+   */
+  public static boolean isSingleByte(Charset charset) {
+    return CHARSETS.containsKey(charset)
+        || charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1f && charset.newDecoder().maxCharsPerByte() == 1f;
+  }
+
+  /**
+   * @return the charset
+   */
+  public Charset getCharset() {
+    return charset;
+  }
+
+  /**
+   * @param b the byte
+   * @return the char the byte decodes to
+   */
+  public char decode(byte b) {
+    return chars[b & 0xFF];
+  }
+
+  /**
+   * @param c the char
+   * @return the byte the char encodes to
+   */
+  public byte encode(char c) {
+    byte[] page = pages[c >>> 8];
+    return page == null ? replacement : page[c & 0xFF];
+  }
+
+  /**
+   * Encode the chars into the destination starting at its position, and move the position past the bytes
+   *
+   * @param src the chars
+   * @param srcBegin the index of the first char to encode
+   * @param srcEnd the index after the last char to encode
+   * @param dst the destination
+   * @throws BufferOverflowException if the destination has no room for the bytes
+   */
+  public void encode(char[] src, int srcBegin, int srcEnd, ByteBuffer dst) {
+    if (dst.remaining() < srcEnd - srcBegin) {
+      throw new BufferOverflowException();
+    }
+    int position = dst.position();
+    if (dst.hasArray()) {
+      byte[] bytes = dst.array();
+      int index = dst.arrayOffset() + position;
+      for (int i = srcBegin; i < srcEnd; i++) {
+        bytes[index++] = encode(src[i]);
+      }
+    } else {
+      for (int i = srcBegin; i < srcEnd; i++) {
+        dst.put(position + i - srcBegin, encode(src[i]));
+      }
+    }
+    dst.position(position + srcEnd - srcBegin);
+  }
+}
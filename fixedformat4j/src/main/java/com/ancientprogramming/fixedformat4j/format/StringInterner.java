@@ -0,0 +1,186 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded table of canonical String instances.
+ * <p/>
+ * Like {@link ValueCache} the table is lock free and each value has one slot given by its hash. A value replaces
+ * whatever value had the slot before, so the table never holds more values than its size and a replaced value is
+ * only shared by the values interned before it was replaced. Values is looked up directly in the record, so a hit
+ * doesn't create any objects.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public final class StringInterner {
+
+  public static final int DEFAULT_SIZE = 4096;
+
+  private static final StringInterner DEFAULT = new StringInterner(DEFAULT_SIZE);
+
+  private final AtomicReferenceArray<String> values;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param size the number of values the table can hold. It is rounded up to a power of two
+   */
+  public StringInterner(int size) {
+    int capacity = Integer.highestOneBit(Math.max(1, Math.min(size, 1 << 29) * 2 - 1));
+    this.values = new AtomicReferenceArray<String>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * @return the table shared by all fields annotated with
+   * {@link com.ancientprogramming.fixedformat4j.annotation.FixedFormatIntern}
+   */
+  public static StringInterner getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @return the canonical instance of the value
+   */
+  public String intern(CharSequence source, int start, int end) {
+    if (start == end) {
+      return "";
+    }
+    int index = hash(source, start, end) & mask;
+    String value = values.get(index);
+    if (value != null && matches(value, source, start, end)) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    value = source.subSequence(start, end).toString();
+    values.set(index, value);
+    return value;
+  }
+
+  /**
+   * @param value the value
+   * @return the canonical instance of the value
+   */
+  public String intern(String value) {
+    if (value == null || value.length() == 0) {
+      return value;
+    }
+    int index = hash(value, 0, value.length()) & mask;
+    String result = values.get(index);
+    if (result != null && result.equals(value)) {
+      hits.increment();
+      return result;
+    }
+    misses.increment();
+    values.set(index, value);
+    return value;
+  }
+
+  /**
+   * Wrap the formatter of a field, so the values it loads is interned. Fields parsed by the {@link StringFormatter}
+   * is interned directly from the record.
+   *
+   * @param formatter the formatter of the field
+   * @param context the context of the field
+   * @return the formatter interning the values
+   */
+  public <T> FixedFormatter<T> interned(final FixedFormatter<T> formatter, FormatContext context) {
+    FixedFormatter<?> actual = formatter instanceof ByTypeFormatter ? ((ByTypeFormatter) formatter).getBuildInFormatter() : formatter;
+    final boolean fromRecord = context.getDataType() == String.class && actual != null && actual.getClass() == StringFormatter.class;
+    return new FixedFormatter<T>() {
+      public T parse(String value, FormatInstructions instructions) {
+        return canonical(formatter.parse(value, instructions));
+      }
+
+      public T parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+        if (fromRecord) {
+          Align alignment = instructions.getAlignment();
+          int valueStart = alignment.valueStart(source, start, end, instructions.getPaddingChar());
+          return canonical(source, valueStart, alignment.valueEnd(source, valueStart, end, instructions.getPaddingChar()));
+        }
+        return canonical(formatter.parse(source, start, end, instructions));
+      }
+
+      public String format(T value, FormatInstructions instructions) {
+        return formatter.format(value, instructions);
+      }
+
+      public void format(T value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+        formatter.format(value, instructions, buffer, offset);
+      }
+    };
+  }
+
+  /**
+   * @return the number of values found in the table
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of values added to the table
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private <T> T canonical(T value) {
+    return value instanceof String ? (T) intern((String) value) : value;
+  }
+
+  /**
+   * Only used for fields whose datatype is String
+   */
+  @SuppressWarnings({"unchecked"})
+  private <T> T canonical(CharSequence source, int start, int end) {
+    return (T) intern(source, start, end);
+  }
+
+  private static boolean matches(String value, CharSequence source, int start, int end) {
+    if (value.length() != end - start) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) != source.charAt(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hash(CharSequence source, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + source.charAt(i);
+    }
+    return hash ^ (hash >>> 16);
+  }
+}
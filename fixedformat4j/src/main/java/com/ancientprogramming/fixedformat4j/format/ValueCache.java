@@ -0,0 +1,230 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of parsed values keyed by the raw data of the field.
+ * <p/>
+ * The cache is a lock free table where each raw value has one slot given by its hash. A value replaces whatever
+ * value had the slot before, so the cache never holds more values than its size. The lookup compares the raw data
+ * directly in the record, so a hit doesn't create any objects.
+ * <p/>
+ * A cache is created per field annotated with
+ * {@link com.ancientprogramming.fixedformat4j.annotation.FixedFormatCache} and formatter parsing the field. It is
+ * shared by all managers and codecs using the same formatter, while a manager with another formatter registered for
+ * the datatype of the field gets a cache of its own. Build-in formatters is told apart by instance and other
+ * formatters by class, as they get a new instance per field. The hits and misses of a field can be inspected through
+ * {@link #get(Class, String, int, FixedFormatter)}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public final class ValueCache<T> {
+
+  private static final ClassValue<ConcurrentMap<Key, ValueCache<?>>> CACHES = new ClassValue<ConcurrentMap<Key, ValueCache<?>>>() {
+    protected ConcurrentMap<Key, ValueCache<?>> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<Key, ValueCache<?>>();
+    }
+  };
+
+  private final AtomicReferenceArray<Entry<T>> entries;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param size the number of values the cache can hold. It is rounded up to a power of two
+   */
+  public ValueCache(int size) {
+    int capacity = Integer.highestOneBit(Math.max(1, Math.min(size, 1 << 29) * 2 - 1));
+    this.entries = new AtomicReferenceArray<Entry<T>>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Get the cache of a field. The cache is created the first time it is asked for.
+   *
+   * @param recordClass the record class
+   * @param getterName the name of the annotated getter
+   * @param offset the offset of the field
+   * @param formatter the formatter parsing the field
+   * @param size the size of the cache if it has to be created
+   * @return the cache
+   */
+  @SuppressWarnings({"unchecked"})
+  public static <T> ValueCache<T> of(Class<?> recordClass, String getterName, int offset, FixedFormatter<T> formatter, int size) {
+    ConcurrentMap<Key, ValueCache<?>> caches = CACHES.get(recordClass);
+    Key key = new Key(getterName, offset, formatter);
+    ValueCache<?> result = caches.get(key);
+    if (result == null) {
+      caches.putIfAbsent(key, new ValueCache<T>(size));
+      result = caches.get(key);
+    }
+    return (ValueCache<T>) result;
+  }
+
+  /**
+   * @param recordClass the record class
+   * @param getterName the name of the annotated getter
+   * @param offset the offset of the field
+   * @param formatter the formatter parsing the field
+   * @return the cache of the field or <code>null</code> if the field isn't cached or hasn't been used with the formatter yet
+   */
+  public static ValueCache<?> get(Class<?> recordClass, String getterName, int offset, FixedFormatter<?> formatter) {
+    return CACHES.get(recordClass).get(new Key(getterName, offset, formatter));
+  }
+
+  /**
+   * Parse the data through the cache.
+   *
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions of the field
+   * @param formatter the formatter to parse the value with when it isn't cached
+   * @return the value
+   */
+  public T parse(CharSequence source, int start, int end, FormatInstructions instructions, FixedFormatter<T> formatter) {
+    int hash = hash(source, start, end);
+    int index = hash & mask;
+    Entry<T> entry = entries.get(index);
+    if (entry != null && entry.hash == hash && entry.matches(source, start, end)) {
+      hits.increment();
+      return copy(entry.value);
+    }
+    misses.increment();
+    T result = formatter.parse(source, start, end, instructions);
+    if (result != null) {
+      entries.set(index, new Entry<T>(hash, source.subSequence(start, end).toString(), copy(result)));
+    }
+    return result;
+  }
+
+  /**
+   * Wrap the formatter, so values is parsed through this cache
+   *
+   * @param formatter the formatter of the field
+   * @return the formatter using the cache
+   */
+  public FixedFormatter<T> cached(final FixedFormatter<T> formatter) {
+    return new FixedFormatter<T>() {
+      public T parse(String value, FormatInstructions instructions) {
+        return value != null ? ValueCache.this.parse(value, 0, value.length(), instructions, formatter) : formatter.parse(value, instructions);
+      }
+
+      public T parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+        return ValueCache.this.parse(source, start, end, instructions, formatter);
+      }
+
+      public String format(T value, FormatInstructions instructions) {
+        return formatter.format(value, instructions);
+      }
+
+      public void format(T value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+        formatter.format(value, instructions, buffer, offset);
+      }
+    };
+  }
+
+  /**
+   * @return the number of values found in the cache
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of values that had to be parsed
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of values the cache can hold
+   */
+  public int getSize() {
+    return entries.length();
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static <T> T copy(T value) {
+    //dates is mutable, so the cached instance is never handed out
+    return value instanceof Date ? (T) ((Date) value).clone() : value;
+  }
+
+  private static int hash(CharSequence source, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + source.charAt(i);
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  private static final class Key {
+    private final String getterName;
+    private final int offset;
+    private final Object formatter;
+
+    private Key(String getterName, int offset, FixedFormatter<?> formatter) {
+      this.getterName = getterName;
+      this.offset = offset;
+      this.formatter = FixedFormatUtil.isBuildIn(formatter.getClass()) ? formatter : formatter.getClass();
+    }
+
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return offset == key.offset && formatter == key.formatter && getterName.equals(key.getterName);
+    }
+
+    public int hashCode() {
+      return (getterName.hashCode() * 31 + offset) * 31 + System.identityHashCode(formatter);
+    }
+  }
+
+  private static final class Entry<T> {
+    private final int hash;
+    private final String key;
+    private final T value;
+
+    private Entry(int hash, String key, T value) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+    }
+
+    private boolean matches(CharSequence source, int start, int end) {
+      if (key.length() != end - start) {
+        return false;
+      }
+      for (int i = 0; i < key.length(); i++) {
+        if (key.charAt(i) != source.charAt(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -16,13 +16,12 @@
 package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
-import org.apache.commons.lang.StringUtils;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.DecimalFormat;
 
 /**
  * Base class for formatting decimal data
@@ -35,12 +34,26 @@ public abstract class AbstractDecimalFormatter<T extends Number> extends Abstrac
   private static final Log LOG = LogFactory.getLog(AbstractDecimalFormatter.class);
 
   public String asString(T obj, FormatInstructions instructions) {
-    BigDecimal roundedValue = null;
-    int decimals = instructions.getFixedFormatDecimalData().getDecimals();
+    BigDecimal value = null;
     if (obj != null) {
-      BigDecimal value = obj instanceof BigDecimal ? (BigDecimal)obj : BigDecimal.valueOf(obj.doubleValue());
+      value = obj instanceof BigDecimal ? (BigDecimal)obj : BigDecimal.valueOf(obj.doubleValue());
+    }
+    return asDecimalString(value, instructions);
+  }
 
-      RoundingMode roundingMode = instructions.getFixedFormatDecimalData().getRoundingMode();
+  /**
+   * Rounds the value to the decimals of the instructions and writes it with or without the delimiter
+   *
+   * @param value the value. <code>null</code> is written as zero
+   * @param instructions the instructions
+   * @return the raw value
+   */
+  protected String asDecimalString(BigDecimal value, FormatInstructions instructions) {
+    FixedFormatDecimalData decimalData = instructions.getFixedFormatDecimalData();
+    int decimals = decimalData.getDecimals();
+    BigDecimal roundedValue = BigDecimal.ZERO;
+    if (value != null) {
+      RoundingMode roundingMode = decimalData.getRoundingMode();
 
       roundedValue = value.setScale(decimals, roundingMode);
 
@@ -48,34 +61,8 @@ public abstract class AbstractDecimalFormatter<T extends Number> extends Abstrac
         LOG.debug("Value before rounding = '" + value + "', value after rounding = '" + roundedValue + "', decimals = " + decimals + ", rounding mode = " + roundingMode);
       }
     }
-       
-    DecimalFormat formatter = new DecimalFormat();
-    formatter.setDecimalSeparatorAlwaysShown(true);
-    formatter.setMaximumFractionDigits(decimals);
-
-    char decimalSeparator = formatter.getDecimalFormatSymbols().getDecimalSeparator();
-    char groupingSeparator = formatter.getDecimalFormatSymbols().getGroupingSeparator();
-    String zeroString = "0" + decimalSeparator + "0";
-
-    String rawString = roundedValue != null ? formatter.format(roundedValue) : zeroString;
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("rawString: " + rawString + " - G[" + groupingSeparator + "] D[" + decimalSeparator + "]");
-    }
-    rawString = rawString.replaceAll("\\" + groupingSeparator, "");
-    boolean useDecimalDelimiter = instructions.getFixedFormatDecimalData().isUseDecimalDelimiter();
-
-    String beforeDelimiter = rawString.substring(0, rawString.indexOf(decimalSeparator));
-    String afterDelimiter = rawString.substring(rawString.indexOf(decimalSeparator)+1, rawString.length());
-    if (LOG.isDebugEnabled()) {
-      LOG.debug("beforeDelimiter[" + beforeDelimiter + "], afterDelimiter[" + afterDelimiter + "]");
-    }
-
-    //trim decimals
-    afterDelimiter = StringUtils.substring(afterDelimiter, 0, decimals);
-    afterDelimiter = StringUtils.rightPad(afterDelimiter, decimals, '0');
 
-    String delimiter = useDecimalDelimiter ? "" + instructions.getFixedFormatDecimalData().getDecimalDelimiter() : "";
-    String result = beforeDelimiter + delimiter + afterDelimiter;
+    String result = DecimalWriter.write(roundedValue, decimals, decimalData.isUseDecimalDelimiter(), decimalData.getDecimalDelimiter());
     if (LOG.isDebugEnabled()) {
       LOG.debug("result[" + result + "]");
     }
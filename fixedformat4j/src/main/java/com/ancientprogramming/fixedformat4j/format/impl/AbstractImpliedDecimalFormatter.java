@@ -0,0 +1,161 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Base class for formatting numbers stored as a fixed number of digits with implied decimals, like the numeric
+ * fields of mainframe records. The digits of the field is the value multiplied by 10 to the power of the decimals of
+ * the {@link com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal} annotation, and no delimiter is
+ * written.
+ * <p/>
+ * The datatype of the field decides what the digits is parsed to:
+ * <ul>
+ * <li>{@link BigDecimal} gets the decimals, and is rounded to the decimals according to the rounding mode when
+ * exported</li>
+ * <li><code>long</code>, {@link Long}, <code>int</code> and {@link Integer} gets the digits as they are, i.e. the
+ * scaled value like the {@link ScaledLongFormatter} uses</li>
+ * </ul>
+ * Digits beyond the range of a long is only supported for {@link BigDecimal} fields.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public abstract class AbstractImpliedDecimalFormatter implements FixedFormatter<Number> {
+
+  static final long[] POWERS_OF_TEN = DecimalWriter.POWERS_OF_TEN;
+
+  private final Class<?> dataType;
+
+  /**
+   * @param context the context of the field
+   * @throws FixedFormatException if the datatype of the field isn't supported
+   */
+  protected AbstractImpliedDecimalFormatter(FormatContext context) {
+    this.dataType = context.getDataType();
+    if (dataType != BigDecimal.class && dataType != long.class && dataType != Long.class && dataType != int.class && dataType != Integer.class) {
+      throw new FixedFormatException(String.format("%s cannot handle datatype[%s]. Use BigDecimal, long or int", getClass().getName(), dataType.getName()));
+    }
+  }
+
+  public Number parse(String value, FormatInstructions instructions) {
+    return value == null ? null : parse(value, 0, value.length(), instructions);
+  }
+
+  public String format(Number value, FormatInstructions instructions) {
+    char[] chars = new char[instructions.getLength()];
+    format(value, instructions, chars, 0);
+    return new String(chars);
+  }
+
+  /**
+   * Writes the field into the target
+   *
+   * @param value the value to format. <code>null</code> is written as zero
+   * @param instructions the instructions
+   * @param target the chars to write into
+   * @param offset the index of the first char of the field
+   * @throws FixedFormatException if the value doesn't fit in the field
+   */
+  protected void format(Number value, FormatInstructions instructions, char[] target, int offset) {
+    if (value instanceof BigDecimal) {
+      FixedFormatDecimalData decimalData = instructions.getFixedFormatDecimalData();
+      BigInteger unscaled = ((BigDecimal) value).setScale(decimalData.getDecimals(), decimalData.getRoundingMode()).unscaledValue();
+      if (unscaled.bitLength() >= 63) {
+        //beyond a long, which is rare enough to write the digits from a String
+        write(unscaled.signum() < 0, 0, unscaled.abs().toString(), instructions, target, offset);
+        return;
+      }
+      long unscaledValue = unscaled.longValue();
+      write(unscaledValue < 0, Math.abs(unscaledValue), null, instructions, target, offset);
+      return;
+    }
+    long longValue = value == null ? 0L : value.longValue();
+    if (longValue == Long.MIN_VALUE) {
+      write(true, 0, BigInteger.valueOf(longValue).negate().toString(), instructions, target, offset);
+      return;
+    }
+    write(longValue < 0, Math.abs(longValue), null, instructions, target, offset);
+  }
+
+  /**
+   * Writes the digits and sign into the target
+   *
+   * @param negative whether the value is negative
+   * @param magnitude the digits of the value if they fit in a long
+   * @param bigDigits the digits of the value if they don't fit in a long, otherwise <code>null</code>
+   * @param instructions the instructions
+   * @param target the chars to write into
+   * @param offset the index of the first char of the field
+   * @throws FixedFormatException if the digits doesn't fit in the field
+   */
+  protected abstract void write(boolean negative, long magnitude, String bigDigits, FormatInstructions instructions, char[] target, int offset);
+
+  /**
+   * @param bigDigits the digits of a value beyond a long
+   * @param index the index of the digit counted from the right, starting at 0
+   * @return the digit
+   */
+  static int digit(String bigDigits, int index) {
+    return index < bigDigits.length() ? bigDigits.charAt(bigDigits.length() - 1 - index) - '0' : 0;
+  }
+
+  /**
+   * @param magnitude the digits of the value if they fit in a long
+   * @param bigDigits the digits of the value if they don't fit in a long, otherwise <code>null</code>
+   * @param digits the number of digits of the field
+   * @throws FixedFormatException if the digits doesn't fit in the field
+   */
+  static void checkDigits(long magnitude, String bigDigits, int digits) {
+    if (bigDigits != null ? bigDigits.length() > digits : digits < POWERS_OF_TEN.length && magnitude >= POWERS_OF_TEN[digits]) {
+      throw new FixedFormatException(String.format("the value %s doesn't fit in %s digits", bigDigits != null ? bigDigits : String.valueOf(magnitude), digits));
+    }
+  }
+
+  /**
+   * @param negative whether the value is negative
+   * @param magnitude the digits of the value if they fit in a long
+   * @param bigMagnitude the digits of the value if they don't fit in a long, otherwise <code>null</code>
+   * @param instructions the instructions
+   * @return the value of the datatype of the field
+   * @throws NumberFormatException if the value is out of the range of the datatype
+   */
+  protected Number toValue(boolean negative, long magnitude, BigInteger bigMagnitude, FormatInstructions instructions) {
+    if (dataType == BigDecimal.class) {
+      int decimals = instructions.getFixedFormatDecimalData().getDecimals();
+      if (bigMagnitude != null) {
+        return new BigDecimal(negative ? bigMagnitude.negate() : bigMagnitude, decimals);
+      }
+      return BigDecimal.valueOf(negative ? -magnitude : magnitude, decimals);
+    }
+    long value = negative ? -magnitude : magnitude;
+    if (bigMagnitude != null || (dataType == int.class || dataType == Integer.class) && (int) value != value) {
+      throw new NumberFormatException(String.format("the value %s%s is out of the range of %s", negative ? "-" : "", bigMagnitude != null ? bigMagnitude : magnitude, dataType.getName()));
+    }
+    if (dataType == int.class || dataType == Integer.class) {
+      return (int) value;
+    }
+    return value;
+  }
+}
@@ -15,9 +15,12 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
+import com.ancientprogramming.fixedformat4j.annotation.Align;
 import com.ancientprogramming.fixedformat4j.annotation.Sign;
 import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
 
 /**
  * Apply signing to values
@@ -27,6 +30,95 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  */
 public abstract class AbstractNumberFormatter<T> extends AbstractFixedFormatter<T> {
 
+  /**
+   * Parse a whole number directly from the window in one pass. The padding is skipped and the sign is read from
+   * where the {@link Sign} places it. Both the configured signs and '+' and '-' is accepted.
+   *
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions
+   * @param min the smallest value allowed
+   * @param max the largest value allowed
+   * @return the parsed value
+   * @throws NumberFormatException if the window contains anything but digits, padding and the sign or the value is
+   * out of range. The message contains the index of the offending char in the window
+   */
+  protected static long parseLong(CharSequence source, int start, int end, FormatInstructions instructions, long min, long max) {
+    int fieldStart = start;
+    int fieldEnd = end;
+    FixedFormatNumberData numberData = instructions.getFixedFormatNumberData();
+    Sign signing = numberData.getSigning();
+    int signIndex = -1;
+    if (signing == Sign.PREPEND) {
+      signIndex = start++;
+    } else if (signing == Sign.APPEND) {
+      signIndex = --end;
+    }
+    Align alignment = instructions.getAlignment();
+    int valueStart = alignment.valueStart(source, start, end, instructions.getPaddingChar());
+    int valueEnd = alignment.valueEnd(source, valueStart, end, instructions.getPaddingChar());
+
+    boolean negative = false;
+    long result = 0;
+    if (signIndex != -1) {
+      char sign = source.charAt(signIndex);
+      if (sign == numberData.getNegativeSign() || sign == '-') {
+        negative = true;
+      } else if (sign != numberData.getPositiveSign() && sign != '+') {
+        //an unknown sign is ignored on zero values like the String based parsing does
+        if (valueStart == valueEnd || (valueEnd - valueStart == 1 && source.charAt(valueStart) == '0')) {
+          return 0;
+        }
+        //like the String based parsing a digit at the sign position is read as the first digit of the number
+        int digit = Character.digit(sign, 10);
+        if (digit < 0) {
+          throw invalidChar(source, fieldStart, fieldEnd, signIndex);
+        }
+        result = -digit;
+      }
+    }
+    if (valueStart == valueEnd) {
+      return 0;
+    }
+    int index = valueStart;
+    if (signIndex == -1) {
+      char c = source.charAt(index);
+      if (c == '-' || c == '+') {
+        negative = c == '-';
+        if (++index == valueEnd) {
+          throw invalidChar(source, fieldStart, fieldEnd, index - 1);
+        }
+      }
+    }
+    //accumulate negatively to be able to hold the min value
+    long limit = negative ? min : -max;
+    long limitBeforeMultiply = limit / 10;
+    for (; index < valueEnd; index++) {
+      int digit = Character.digit(source.charAt(index), 10);
+      if (digit < 0) {
+        throw invalidChar(source, fieldStart, fieldEnd, index);
+      }
+      if (result < limitBeforeMultiply) {
+        throw outOfRange(source, fieldStart, fieldEnd, min, max);
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw outOfRange(source, fieldStart, fieldEnd, min, max);
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  private static NumberFormatException invalidChar(CharSequence source, int start, int end, int index) {
+    return new NumberFormatException(String.format("could not parse '%s'. Unexpected char '%s' at index %d", source.subSequence(start, end), source.charAt(index), index - start));
+  }
+
+  private static NumberFormatException outOfRange(CharSequence source, int start, int end, long min, long max) {
+    return new NumberFormatException(String.format("could not parse '%s'. The value is out of range [%d;%d]", source.subSequence(start, end), min, max));
+  }
+
   /**
    * Override and applies signing instead of align.
    *
@@ -44,6 +136,24 @@ public abstract class AbstractNumberFormatter<T> extends AbstractFixedFormatter<
     return result;
   }
 
+  /**
+   * Override and applies signing instead of align. The sign and padding is found by index, so only the String
+   * given to {@link #asObject} is created.
+   *
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions
+   * @return the parsed object
+   */
+  public T parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (parsesStrings()) {
+      return parse(source.subSequence(start, end).toString(), instructions);
+    }
+    Sign signing = instructions.getFixedFormatNumberData().getSigning();
+    return asObject(signing.remove(source, start, end, instructions), instructions);
+  }
+
   /**
      * Override and applies signing instead of align.
      *
@@ -54,4 +164,33 @@ public abstract class AbstractNumberFormatter<T> extends AbstractFixedFormatter<
     public String format(T obj, FormatInstructions instructions) {
       return instructions.getFixedFormatNumberData().getSigning().apply(asString(obj, instructions), instructions);
     }
+
+  /**
+   * Override and applies signing instead of align.
+   *
+   * @param obj the object to format
+   * @param instructions the instructions
+   * @param buffer the buffer to write into
+   * @param offset the one based offset to write at
+   */
+  public void format(T obj, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (formatsStrings()) {
+      buffer.write(offset, format(obj, instructions));
+      return;
+    }
+    write(asString(obj, instructions), instructions, buffer, offset);
+  }
+
+  /**
+   * Applies signing to the raw value and writes it into the buffer.
+   *
+   * @param rawValue the value as returned by {@link #asString}
+   * @param instructions the instructions
+   * @param buffer the buffer to write into
+   * @param offset the one based offset to write at
+   */
+  protected static void write(String rawValue, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    Sign signing = instructions.getFixedFormatNumberData().getSigning();
+    signing.apply(rawValue, instructions, buffer.reserve(offset, signing.length(instructions)), offset - 1);
+  }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import org.apache.commons.lang.StringUtils;
+
+import java.time.DateTimeException;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.DAY;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.HOUR;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MILLISECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MINUTE;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MONTH;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.SECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.YEAR;
+
+/**
+ * Base class for formatting java.time data by the pattern of the field.
+ * <p/>
+ * The {@link DateTimeFormatter} of each pattern is created once and shared, as it is immutable. Numeric patterns
+ * like <code>yyyyMMdd</code> is parsed and formatted by digit arithmetic giving the same result as the
+ * {@link DateTimeFormatter}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+abstract class AbstractTemporalFormatter<T extends TemporalAccessor> extends AbstractFixedFormatter<T> {
+
+  private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<String, DateTimeFormatter>();
+  //the field each field needs to be resolved, e.g. a day needs a month
+  private static final int[] PARENTS = {-1, YEAR, MONTH, -1, HOUR, MINUTE, SECOND};
+  private static final int[] MIN_VALUES = {1, 1, 1, 0, 0, 0, 0};
+  private static final int[] MAX_VALUES = {9999, 12, 31, 23, 59, 59, 999};
+
+  private final Class<T> type;
+  private final TemporalQuery<T> query;
+
+  AbstractTemporalFormatter(Class<T> type, TemporalQuery<T> query) {
+    this.type = type;
+    this.query = query;
+  }
+
+  public T asObject(String string, FormatInstructions instructions) {
+    T result = null;
+    if (!StringUtils.isEmpty(string)) {
+      String pattern = instructions.getFixedFormatPatternData().getPattern();
+      DatePattern datePattern = DatePattern.of(pattern);
+      int[] fields = datePattern != null ? datePattern.parse(string) : null;
+      if (fields != null && resolve(datePattern, fields)) {
+        result = fromFields(datePattern, fields);
+      }
+      if (result == null) {
+        try {
+          result = getFormatter(pattern).parse(string, query);
+        } catch (DateTimeException e) {
+          throw new FixedFormatException("Could not parse value[" + string + "] by pattern[" + pattern + "] to " + type.getName(), e);
+        }
+      }
+    }
+    return result;
+  }
+
+  public String asString(T value, FormatInstructions instructions) {
+    String result = null;
+    if (value != null) {
+      String pattern = instructions.getFixedFormatPatternData().getPattern();
+      DatePattern datePattern = DatePattern.of(pattern);
+      if (datePattern != null) {
+        int[] fields = toFields(value);
+        if (inRange(datePattern, fields)) {
+          result = datePattern.format(fields);
+        }
+      }
+      if (result == null) {
+        result = getFormatter(pattern).format(value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param pattern the pattern
+   * @return the shared formatter of the pattern
+   */
+  DateTimeFormatter getFormatter(String pattern) {
+    DateTimeFormatter result = FORMATTERS.get(pattern);
+    if (result == null) {
+      result = DateTimeFormatter.ofPattern(pattern);
+      FORMATTERS.putIfAbsent(pattern, result);
+    }
+    return result;
+  }
+
+  /**
+   * @param pattern the pattern of the field
+   * @param fields the valid fields of the pattern indexed by {@link DatePattern#YEAR}, {@link DatePattern#MONTH} etc.
+   * @return the value or <code>null</code> if the pattern lacks fields the value needs
+   */
+  abstract T fromFields(DatePattern pattern, int[] fields);
+
+  /**
+   * @param value the value
+   * @return the fields of the value indexed by {@link DatePattern#YEAR}, {@link DatePattern#MONTH} etc. Fields the
+   * value doesn't have is -1
+   */
+  abstract int[] toFields(T value);
+
+  /**
+   * Validate the fields and adjust them like {@link java.time.format.ResolverStyle#SMART} does, e.g. the 31st of
+   * April is the 30th.
+   *
+   * @return whether the fields could be resolved. If not the value has to be parsed by the {@link DateTimeFormatter}
+   */
+  private static boolean resolve(DatePattern pattern, int[] fields) {
+    if (pattern.isTwoDigitYear()) {
+      fields[YEAR] += 2000;
+    }
+    for (int field = YEAR; field <= MILLISECOND; field++) {
+      if (pattern.has(field)) {
+        if (fields[field] < MIN_VALUES[field] || fields[field] > MAX_VALUES[field] || (PARENTS[field] != -1 && !pattern.has(PARENTS[field]))) {
+          return false;
+        }
+      }
+    }
+    if (pattern.has(DAY)) {
+      fields[DAY] = Math.min(fields[DAY], Month.of(fields[MONTH]).length(Year.isLeap(fields[YEAR])));
+    }
+    return true;
+  }
+
+  private static boolean inRange(DatePattern pattern, int[] fields) {
+    for (int field = YEAR; field <= MILLISECOND; field++) {
+      if (pattern.has(field) && (fields[field] < MIN_VALUES[field] || fields[field] > MAX_VALUES[field])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Defines how the {@link FixedFormatManagerImpl} invokes the annotated getters and their setters.
+ * <p/>
+ * The getters and setters are resolved once when a record class is compiled. If a strategy cannot be used for
+ * a specific method, e.g. because a security manager or the module system denies it, the next strategy in line is
+ * used: {@link #LAMBDA} falls back to {@link #METHOD_HANDLE}, which falls back to {@link #REFLECTION}.
+ * <p/>
+ * The codecs spun at runtime invokes the methods the same way, through the handles of {@link #getterHandle} and
+ * {@link #setterHandle}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public enum AccessorStrategy {
+
+  /**
+   * Invokes the methods through {@link Method#invoke(Object, Object...)}.
+   * A {@link FixedFormatManagerImpl} using this strategy doesn't spin any codecs at runtime.
+   */
+  REFLECTION {
+    PropertyGetter getter(final Method method) {
+      return new PropertyGetter() {
+        public Object get(Object instance) throws Throwable {
+          return method.invoke(instance);
+        }
+      };
+    }
+
+    PropertySetter setter(final Method method) {
+      return new PropertySetter() {
+        public void set(Object instance, Object value) throws Throwable {
+          method.invoke(instance, value);
+        }
+      };
+    }},
+
+  /**
+   * Invokes the methods through {@link MethodHandle}s
+   */
+  METHOD_HANDLE {
+    PropertyGetter getter(Method method) {
+      try {
+        final MethodHandle handle = unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        return new PropertyGetter() {
+          public Object get(Object instance) throws Throwable {
+            return (Object) handle.invokeExact(instance);
+          }
+        };
+      } catch (Throwable t) {
+        logFallback(method, t);
+        return REFLECTION.getter(method);
+      }
+    }
+
+    PropertySetter setter(Method method) {
+      try {
+        final MethodHandle handle = unreflect(method).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return new PropertySetter() {
+          public void set(Object instance, Object value) throws Throwable {
+            handle.invokeExact(instance, value);
+          }
+        };
+      } catch (Throwable t) {
+        logFallback(method, t);
+        return REFLECTION.setter(method);
+      }
+    }},
+
+  /**
+   * Invokes the methods through classes spun by the {@link LambdaMetafactory}, just like a method reference.
+   * The JIT compiler is able to inline these calls.
+   */
+  LAMBDA {
+    PropertyGetter getter(Method method) {
+      if (!isLinkable(method.getDeclaringClass())) {
+        return METHOD_HANDLE.getter(method);
+      }
+      try {
+        MethodType instantiated = MethodType.methodType(wrap(method.getReturnType()), method.getDeclaringClass());
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(PropertyGetter.class),
+            MethodType.methodType(Object.class, Object.class), unreflect(method), instantiated);
+        return (PropertyGetter) site.getTarget().invoke();
+      } catch (Throwable t) {
+        logFallback(method, t);
+        return METHOD_HANDLE.getter(method);
+      }
+    }
+
+    PropertySetter setter(Method method) {
+      Class<?> parameterType = method.getParameterTypes()[0];
+      if (!isLinkable(method.getDeclaringClass()) || !isLinkable(parameterType)) {
+        return METHOD_HANDLE.setter(method);
+      }
+      try {
+        MethodType instantiated = MethodType.methodType(void.class, method.getDeclaringClass(), wrap(parameterType));
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "set", MethodType.methodType(PropertySetter.class),
+            MethodType.methodType(void.class, Object.class, Object.class), unreflect(method), instantiated);
+        return (PropertySetter) site.getTarget().invoke();
+      } catch (Throwable t) {
+        logFallback(method, t);
+        return METHOD_HANDLE.setter(method);
+      }
+    }
+
+    MethodHandle getterHandle(Method method, PropertyGetter accessor) {
+      //the accessor is a constant of the handle, so the JIT compiler inlines the spun class into the codec
+      return GET.bindTo(accessor);
+    }
+
+    MethodHandle setterHandle(Method method, PropertySetter accessor) {
+      return SET.bindTo(accessor);
+    }};
+
+  private static final Log LOG = LogFactory.getLog(AccessorStrategy.class);
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodHandle GET;
+  private static final MethodHandle SET;
+
+  static {
+    try {
+      GET = LOOKUP.findVirtual(PropertyGetter.class, "get", MethodType.methodType(Object.class, Object.class));
+      SET = LOOKUP.findVirtual(PropertySetter.class, "set", MethodType.methodType(void.class, Object.class, Object.class));
+    } catch (Exception e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Create an accessor for the given getter method
+   *
+   * @param method the getter
+   * @return the accessor
+   */
+  abstract PropertyGetter getter(Method method);
+
+  /**
+   * Create an accessor for the given one argument setter method
+   *
+   * @param method the setter
+   * @return the accessor
+   */
+  abstract PropertySetter setter(Method method);
+
+  /**
+   * Create a handle invoking the getter the way this strategy does. The handle invokes the method directly unless the
+   * strategy overrides it.
+   *
+   * @param method the getter
+   * @param accessor the accessor created by this strategy for the getter
+   * @return the handle. Its type is either the type of the getter or (Object)Object
+   * @throws IllegalAccessException if the getter can't be accessed through a method handle
+   */
+  MethodHandle getterHandle(Method method, PropertyGetter accessor) throws IllegalAccessException {
+    return unreflect(method);
+  }
+
+  /**
+   * Create a handle invoking the setter the way this strategy does. The handle invokes the method directly unless the
+   * strategy overrides it.
+   *
+   * @param method the setter
+   * @param accessor the accessor created by this strategy for the setter
+   * @return the handle. Its type is either the type of the setter or (Object, Object)void
+   * @throws IllegalAccessException if the setter can't be accessed through a method handle
+   */
+  MethodHandle setterHandle(Method method, PropertySetter accessor) throws IllegalAccessException {
+    return unreflect(method);
+  }
+
+  static MethodHandle unreflect(Method method) throws IllegalAccessException {
+    if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+      method.setAccessible(true);
+    }
+    return LOOKUP.unreflect(method);
+  }
+
+  /**
+   * A class spun by the {@link LambdaMetafactory} lives in this package and class loader.
+   * It can only link against types it can see and access from here.
+   */
+  private static boolean isLinkable(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    boolean accessible = Modifier.isPublic(type.getModifiers()) || AccessorStrategy.class.getPackage().equals(type.getPackage());
+    if (!accessible) {
+      return false;
+    }
+    try {
+      return Class.forName(type.getName(), false, AccessorStrategy.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException e) {
+      return false;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+  }
+
+  private static void logFallback(Method method, Throwable t) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("could not create accessor for " + method + ". Falling back to a slower strategy", t);
+    }
+  }
+}
@@ -27,7 +27,25 @@ import java.math.BigDecimal;
  */
 public class BigDecimalFormatter extends AbstractDecimalFormatter<BigDecimal> {
 
+    /**
+     * Parses the digits directly from the window. Subclasses is parsed through {@link #asObject} as they might
+     * override it.
+     */
+    public BigDecimal parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+      if (getClass() == BigDecimalFormatter.class) {
+        BigDecimal result = DecimalParser.toBigDecimal(source, start, end, instructions);
+        if (result != null) {
+          return result;
+        }
+      }
+      return super.parse(source, start, end, instructions);
+    }
+
     public BigDecimal asObject(String string, FormatInstructions instructions) {
+      BigDecimal result = DecimalParser.toBigDecimal(string, instructions.getFixedFormatDecimalData());
+      if (result != null) {
+        return result;
+      }
       String toConvert = getStringToConvert(string, instructions);
       return new BigDecimal("".equals(toConvert) ? "0" : toConvert);
     }
@@ -15,9 +15,12 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
+import com.ancientprogramming.fixedformat4j.annotation.Align;
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.BooleanFixedFormatter;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
 import org.apache.commons.lang.StringUtils;
 
 /**
@@ -26,7 +29,48 @@ import org.apache.commons.lang.StringUtils;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class BooleanFormatter extends AbstractFixedFormatter<Boolean> {
+public class BooleanFormatter extends AbstractFixedFormatter<Boolean> implements BooleanFixedFormatter {
+
+  /**
+   * Compares the window with the true and false values without creating any objects. Subclasses is parsed through
+   * {@link #asObject} as they might override it.
+   *
+   * @throws FixedFormatException if a subclass parses the window to <code>null</code>
+   */
+  public boolean parseBoolean(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != BooleanFormatter.class) {
+      Boolean result = parse(source, start, end, instructions);
+      if (result == null) {
+        throw new FixedFormatException(getClass().getName() + " parsed string[" + source.subSequence(start, end) + "] to null, which can't be loaded as a boolean value");
+      }
+      return result;
+    }
+    Align alignment = instructions.getAlignment();
+    int valueStart = alignment.valueStart(source, start, end, instructions.getPaddingChar());
+    int valueEnd = alignment.valueEnd(source, valueStart, end, instructions.getPaddingChar());
+    if (valueStart == valueEnd) {
+      return false;
+    }
+    FixedFormatBooleanData booleanData = instructions.getFixedFormatBooleanData();
+    if (matches(source, valueStart, valueEnd, booleanData.getTrueValue())) {
+      return true;
+    } else if (matches(source, valueStart, valueEnd, booleanData.getFalseValue())) {
+      return false;
+    }
+    throw new FixedFormatException("Could not convert string[" + source.subSequence(valueStart, valueEnd) + "] to boolean value according to booleanData[" + booleanData + "]");
+  }
+
+  private static boolean matches(CharSequence source, int start, int end, String value) {
+    if (end - start != value.length()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (source.charAt(start + i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
 
   public Boolean asObject(String string, FormatInstructions instructions) throws FixedFormatException {
     Boolean result = false;
@@ -16,78 +16,78 @@
 package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
 import com.ancientprogramming.fixedformat4j.format.FormatContext;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.FormatterRegistry;
 
-import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Formatter capable of formatting a bunch of known java standard library classes. So far:
  * {@link String}, {@link Integer}, {@link Short}, {@link Long}, {@link Date},
- * {@link Character}, {@link Boolean}, {@link Double}, {@link Float} and {@link BigDecimal}
- *
+ * {@link Character}, {@link Boolean}, {@link Double}, {@link Float}, {@link BigDecimal}, {@link LocalDate},
+ * {@link LocalDateTime}, {@link LocalTime}, {@link Instant} and enums
+ * <p/>
+ * The formatters is taken from the {@link FormatterRegistry#getDefault() default registry}. Managers having a
+ * registry of their own resolves the formatter of a field directly from their registry instead.
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
 public class ByTypeFormatter implements FixedFormatter<Object> {
   private FormatContext context;
-
-  private static final Map<Class<? extends Serializable>, Class<? extends FixedFormatter>> KNOWN_FORMATTERS = new HashMap<Class<? extends Serializable>, Class<? extends FixedFormatter>>();
-
-  static {
-    KNOWN_FORMATTERS.put(String.class, StringFormatter.class);
-    KNOWN_FORMATTERS.put(short.class, ShortFormatter.class);
-    KNOWN_FORMATTERS.put(Short.class, ShortFormatter.class);
-    KNOWN_FORMATTERS.put(int.class, IntegerFormatter.class);
-    KNOWN_FORMATTERS.put(Integer.class, IntegerFormatter.class);
-    KNOWN_FORMATTERS.put(long.class, LongFormatter.class);
-    KNOWN_FORMATTERS.put(Long.class, LongFormatter.class);
-    KNOWN_FORMATTERS.put(Date.class, DateFormatter.class);
-    KNOWN_FORMATTERS.put(char.class, CharacterFormatter.class);
-    KNOWN_FORMATTERS.put(Character.class, CharacterFormatter.class);
-    KNOWN_FORMATTERS.put(boolean.class, BooleanFormatter.class);
-    KNOWN_FORMATTERS.put(Boolean.class, BooleanFormatter.class);
-    KNOWN_FORMATTERS.put(double.class, DoubleFormatter.class);
-    KNOWN_FORMATTERS.put(Double.class, DoubleFormatter.class);
-    KNOWN_FORMATTERS.put(float.class, FloatFormatter.class);
-    KNOWN_FORMATTERS.put(Float.class, FloatFormatter.class);
-    KNOWN_FORMATTERS.put(BigDecimal.class,  BigDecimalFormatter.class);
-  }
+  private FixedFormatter formatter;
 
   public ByTypeFormatter(FormatContext context) {
     this.context = context;
+    //resolve the actual formatter once. Unknown datatypes fails first time they are parsed or formatted
+    this.formatter = FormatterRegistry.getDefault().getFormatter(context.getDataType());
   }
 
 
   public Object parse(String value, FormatInstructions instructions) {
-    FixedFormatter formatter = actualFormatter(context.getDataType());
-    return formatter.parse(value, instructions);
+    return formatter().parse(value, instructions);
+  }
+
+  public Object parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    return formatter().parse(source, start, end, instructions);
   }
 
   public String format(Object value, FormatInstructions instructions) {
-    FixedFormatter formatter = actualFormatter(context.getDataType());
-    return formatter.format(value, instructions);
+    return formatter().format(value, instructions);
+  }
+
+  public void format(Object value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    formatter().format(value, instructions, buffer, offset);
+  }
+
+  /**
+   * @return the build-in formatter used for the datatype of the context or <code>null</code> if the datatype isn't
+   * supported
+   * @since 1.4.0
+   */
+  public FixedFormatter getBuildInFormatter() {
+    return formatter;
+  }
+
+  private FixedFormatter formatter() {
+    return formatter != null ? formatter : actualFormatter(context.getDataType());
   }
 
   public FixedFormatter actualFormatter(final Class<? extends Object> dataType) {
-    Class<? extends FixedFormatter> formatterClass = KNOWN_FORMATTERS.get(dataType);
+    FixedFormatter formatter = FormatterRegistry.getDefault().getFormatter(dataType);
 
-    if (formatterClass != null) {
-      try {
-        return formatterClass.getConstructor().newInstance();
-      } catch (NoSuchMethodException e) {
-        throw new FixedFormatException("Could not create instance of[" + formatterClass.getName() + "] because no default constructor exists");
-      } catch (Exception e) {
-        throw new FixedFormatException("Could not create instance of[" + formatterClass.getName() + "]", e);
-      }
+    if (formatter != null) {
+      return formatter;
     } else {
-      throw new FixedFormatException(ByTypeFormatter.class.getName() + " cannot handle datatype[" + dataType.getName() + "]. Provide your own custom FixedFormatter for this datatype.");
+      throw new FixedFormatException(ByTypeFormatter.class.getName() + " cannot handle datatype[" + dataType.getName() + "]. Provide your own custom FixedFormatter for this datatype or register one in a " + FormatterRegistry.class.getSimpleName() + ".");
     }
   }
 }
@@ -23,25 +23,66 @@ import org.apache.commons.lang.StringUtils;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.DAY;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.HOUR;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MILLISECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MINUTE;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MONTH;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.SECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.YEAR;
 
 /**
  * Formatter for {@link java.util.Date} data.
  * The formatting and parsing is perfomed by using an instance of the {@link SimpleDateFormat} class.
+ * <p/>
+ * Since 1.4.0 numeric patterns like <code>yyyyMMdd</code> is parsed and formatted by digit arithmetic giving the
+ * same result as a lenient {@link SimpleDateFormat} in the default time zone. Other patterns and values where the
+ * result could differ, like dates before 1900 and local times in daylight saving transitions, is handled by a
+ * {@link SimpleDateFormat} cached per thread and pattern.
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
 public class DateFormatter extends AbstractFixedFormatter<Date> {
 
+  private static final int FIRST_FAST_YEAR = 1900;
+  private static final int LAST_FAST_YEAR = 9999;
+
+  //SimpleDateFormat isn't thread safe, so each thread has its own instance per pattern
+  private static final ThreadLocal<Map<String, DateFormat>> FORMATS = new ThreadLocal<Map<String, DateFormat>>() {
+    protected Map<String, DateFormat> initialValue() {
+      return new HashMap<String, DateFormat>();
+    }
+  };
+
   public Date asObject(String string, FormatInstructions instructions) throws FixedFormatException {
     Date result = null;
 
     if (!StringUtils.isEmpty(string)) {
-      try {
-        result = getFormatter(instructions.getFixedFormatPatternData().getPattern()).parse(string);
-      } catch (ParseException e) {
-        throw new FixedFormatException("Could not parse value[" + string + "] by pattern[" + instructions.getFixedFormatPatternData().getPattern() + "] to " + Date.class.getName());
+      String pattern = instructions.getFixedFormatPatternData().getPattern();
+      DatePattern datePattern = DatePattern.of(pattern);
+      int[] fields = datePattern != null ? datePattern.parse(string) : null;
+      if (fields != null) {
+        result = toDate(datePattern, fields);
+      }
+      if (result == null) {
+        try {
+          result = getFormatter(pattern).parse(string);
+        } catch (ParseException e) {
+          throw new FixedFormatException("Could not parse value[" + string + "] by pattern[" + pattern + "] to " + Date.class.getName());
+        }
       }
     }
     return result;
@@ -50,12 +91,77 @@ public class DateFormatter extends AbstractFixedFormatter<Date> {
   public String asString(Date date, FormatInstructions instructions) {
     String result = null;
     if (date != null) {
-      result = getFormatter(instructions.getFixedFormatPatternData().getPattern()).format(date);
+      String pattern = instructions.getFixedFormatPatternData().getPattern();
+      DatePattern datePattern = DatePattern.of(pattern);
+      if (datePattern != null) {
+        result = format(datePattern, date);
+      }
+      if (result == null) {
+        result = getFormatter(pattern).format(date);
+      }
     }
     return result;
   }
 
+  /**
+   * Get the {@link SimpleDateFormat} of the current thread for the pattern. The two digit year window of the
+   * instance is computed when the thread first uses the pattern.
+   *
+   * @param pattern the pattern
+   * @return the formatter using the current default time zone
+   */
   DateFormat getFormatter(String pattern) {
-    return new SimpleDateFormat(pattern);
+    Map<String, DateFormat> formats = FORMATS.get();
+    DateFormat result = formats.get(pattern);
+    if (result == null) {
+      result = new SimpleDateFormat(pattern);
+      formats.put(pattern, result);
+    } else {
+      result.setTimeZone(TimeZone.getDefault());
+    }
+    return result;
+  }
+
+  /**
+   * Convert the fields like a lenient {@link SimpleDateFormat} does. Fields missing in the pattern is taken from
+   * 1970-01-01 00:00:00.000 and values out of range, like day 32, rolls over into the next month.
+   *
+   * @return the date or <code>null</code> if the result of {@link SimpleDateFormat} could differ
+   */
+  private static Date toDate(DatePattern pattern, int[] fields) {
+    int year = pattern.has(YEAR) ? fields[YEAR] : 1970;
+    if (pattern.isTwoDigitYear()) {
+      //two digit years is within 80 years before and 20 years after today. The year of the boundary depends on the date
+      int centuryStart = LocalDate.now().getYear() - 80;
+      int ambiguousYear = centuryStart % 100;
+      if (year == ambiguousYear) {
+        return null;
+      }
+      year += centuryStart / 100 * 100 + (year < ambiguousYear ? 100 : 0);
+    }
+    if (year < FIRST_FAST_YEAR || year > LAST_FAST_YEAR) {
+      return null;
+    }
+    int month = pattern.has(MONTH) ? fields[MONTH] : 1;
+    int day = pattern.has(DAY) ? fields[DAY] : 1;
+    LocalDateTime dateTime = LocalDate.of(year, 1, 1).plusMonths(month - 1).plusDays(day - 1).atStartOfDay()
+        .plusHours(fields[HOUR]).plusMinutes(fields[MINUTE]).plusSeconds(fields[SECOND]).plusNanos(fields[MILLISECOND] * 1000000L);
+    if (dateTime.getYear() < FIRST_FAST_YEAR) {
+      return null;
+    }
+    List<ZoneOffset> offsets = ZoneId.systemDefault().getRules().getValidOffsets(dateTime);
+    return offsets.size() == 1 ? new Date(dateTime.toInstant(offsets.get(0)).toEpochMilli()) : null;
+  }
+
+  /**
+   * @return the formatted date or <code>null</code> if the result of {@link SimpleDateFormat} could differ
+   */
+  private static String format(DatePattern pattern, Date date) {
+    ZonedDateTime dateTime = Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault());
+    if (dateTime.getYear() < FIRST_FAST_YEAR || dateTime.getYear() > LAST_FAST_YEAR) {
+      return null;
+    }
+    return pattern.format(new int[]{dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+        dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / 1000000});
   }
 }
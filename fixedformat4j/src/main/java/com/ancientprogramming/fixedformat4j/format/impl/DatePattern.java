@@ -0,0 +1,170 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A date pattern consisting only of fixed width numeric fields and literals, like <code>yyyyMMdd</code>,
+ * <code>ddMMyy</code> or <code>yyyy-MM-dd HH:mm:ss</code>. Such patterns is parsed and formatted with digit arithmetic
+ * instead of the general pattern engines of {@link java.text.SimpleDateFormat} and
+ * {@link java.time.format.DateTimeFormatter}.
+ * <p/>
+ * The supported fields is <code>yyyy</code>, <code>yy</code>, <code>MM</code>, <code>dd</code>, <code>HH</code>,
+ * <code>mm</code>, <code>ss</code> and <code>SSS</code>, each used at most once. Literals can be any char but letters,
+ * digits, quotes and the chars reserved by {@link java.time.format.DateTimeFormatter}.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class DatePattern {
+
+  static final int YEAR = 0;
+  static final int MONTH = 1;
+  static final int DAY = 2;
+  static final int HOUR = 3;
+  static final int MINUTE = 4;
+  static final int SECOND = 5;
+  static final int MILLISECOND = 6;
+
+  private static final String LETTERS = "yMdHmsS";
+  private static final String RESERVED = "'[]{}#";
+  private static final int[] WIDTHS = {4, 2, 2, 2, 2, 2, 3};
+  private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000};
+  private static final DatePattern UNSUPPORTED = new DatePattern("", new int[0], new int[0], 0, false);
+  private static final ConcurrentMap<String, DatePattern> PATTERNS = new ConcurrentHashMap<String, DatePattern>();
+
+  private final String pattern;
+  private final int[] fieldAt;
+  private final int[] powerAt;
+  private final int fields;
+  private final boolean twoDigitYear;
+
+  private DatePattern(String pattern, int[] fieldAt, int[] powerAt, int fields, boolean twoDigitYear) {
+    this.pattern = pattern;
+    this.fieldAt = fieldAt;
+    this.powerAt = powerAt;
+    this.fields = fields;
+    this.twoDigitYear = twoDigitYear;
+  }
+
+  /**
+   * @param pattern the pattern
+   * @return the compiled pattern or <code>null</code> if the pattern isn't supported
+   */
+  static DatePattern of(String pattern) {
+    DatePattern result = PATTERNS.get(pattern);
+    if (result == null) {
+      result = compile(pattern);
+      PATTERNS.putIfAbsent(pattern, result);
+    }
+    return result == UNSUPPORTED ? null : result;
+  }
+
+  private static DatePattern compile(String pattern) {
+    int[] fieldAt = new int[pattern.length()];
+    int[] powerAt = new int[pattern.length()];
+    int fields = 0;
+    boolean twoDigitYear = false;
+    int index = 0;
+    while (index < pattern.length()) {
+      char c = pattern.charAt(index);
+      int end = index;
+      while (end < pattern.length() && pattern.charAt(end) == c) {
+        end++;
+      }
+      int field = LETTERS.indexOf(c);
+      if (field != -1) {
+        int width = end - index;
+        boolean twoDigits = field == YEAR && width == 2;
+        if ((width != WIDTHS[field] && !twoDigits) || (fields & (1 << field)) != 0) {
+          return UNSUPPORTED;
+        }
+        fields |= 1 << field;
+        twoDigitYear |= twoDigits;
+        for (int i = index; i < end; i++) {
+          fieldAt[i] = field;
+          powerAt[i] = POWERS_OF_TEN[end - i - 1];
+        }
+      } else if (Character.isLetterOrDigit(c) || RESERVED.indexOf(c) != -1) {
+        return UNSUPPORTED;
+      } else {
+        for (int i = index; i < end; i++) {
+          fieldAt[i] = -1;
+        }
+      }
+      index = end;
+    }
+    return fields == 0 ? UNSUPPORTED : new DatePattern(pattern, fieldAt, powerAt, fields, twoDigitYear);
+  }
+
+  /**
+   * @param field the field
+   * @return whether the pattern contains the field
+   */
+  boolean has(int field) {
+    return (fields & (1 << field)) != 0;
+  }
+
+  /**
+   * @return whether the year is given by two digits only
+   */
+  boolean isTwoDigitYear() {
+    return twoDigitYear;
+  }
+
+  /**
+   * @param value the value to parse
+   * @return the value of each field indexed by {@link #YEAR}, {@link #MONTH} etc. Fields not in the pattern is 0.
+   * <code>null</code> is returned if the value doesn't have the length of the pattern, has other than digits where
+   * the fields is or doesn't contain the literals of the pattern
+   */
+  int[] parse(CharSequence value) {
+    if (value.length() != fieldAt.length) {
+      return null;
+    }
+    int[] result = new int[WIDTHS.length];
+    for (int i = 0; i < fieldAt.length; i++) {
+      char c = value.charAt(i);
+      int field = fieldAt[i];
+      if (field == -1) {
+        if (c != pattern.charAt(i)) {
+          return null;
+        }
+      } else if (c >= '0' && c <= '9') {
+        result[field] = result[field] * 10 + (c - '0');
+      } else {
+        return null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param values the non negative value of each field indexed by {@link #YEAR}, {@link #MONTH} etc. Only the
+   * last digits of a value is written if it is wider than its field
+   * @return the formatted value
+   */
+  String format(int[] values) {
+    char[] result = new char[fieldAt.length];
+    for (int i = 0; i < fieldAt.length; i++) {
+      int field = fieldAt[i];
+      result[i] = field == -1 ? pattern.charAt(i) : (char) ('0' + values[field] / powerAt[i] % 10);
+    }
+    return new String(result);
+  }
+}
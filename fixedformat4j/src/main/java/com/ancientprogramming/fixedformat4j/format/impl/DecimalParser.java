@@ -0,0 +1,321 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses decimal values by accumulating the unscaled digits into a long, instead of inserting a '.' into the value
+ * and parsing the result as a String.
+ * <p/>
+ * The parser only handles values whose result is well defined: an optional leading sign, at most 18 digits and
+ * either an implied delimiter with at least <code>decimals</code> digits or a single explicit delimiter. In every
+ * other case it returns <code>null</code>, and the value has to be parsed through
+ * {@link AbstractDecimalFormatter#getStringToConvert(String, com.ancientprogramming.fixedformat4j.format.FormatInstructions)}
+ * to keep the results and errors of earlier versions.
+ * <p/>
+ * The window variants finds the sign and the padding of the field by index and accumulates the digits directly
+ * from the record, so no String is created for the value.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class DecimalParser {
+
+  private static final int MAX_DIGITS = 18;
+  private static final long MAX_EXACT_DOUBLE = 1L << 53;
+  private static final long MAX_EXACT_FLOAT = 1L << 24;
+  private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+  private static final float[] FLOAT_POWERS_OF_TEN = new float[11];
+
+  static {
+    double power = 1;
+    for (int i = 0; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+      DOUBLE_POWERS_OF_TEN[i] = power;
+      if (i < FLOAT_POWERS_OF_TEN.length) {
+        FLOAT_POWERS_OF_TEN[i] = (float) power;
+      }
+      power *= 10;
+    }
+  }
+
+  private DecimalParser() {
+  }
+
+  /**
+   * @param value the value with the padding and sign handled
+   * @param decimalData the decimal instructions of the field
+   * @return the value or <code>null</code> if it has to be parsed the slow way
+   */
+  static BigDecimal toBigDecimal(String value, FixedFormatDecimalData decimalData) {
+    return toBigDecimal(value, 0, value.length(), isNegative(value), decimalData);
+  }
+
+  /**
+   * Like {@link #toBigDecimal(String, FixedFormatDecimalData)} reading the value directly from the window, so no
+   * String is created for the padding and sign to be removed from.
+   *
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions of the field
+   * @return the value or <code>null</code> if it has to be parsed the slow way
+   */
+  static BigDecimal toBigDecimal(CharSequence source, int start, int end, FormatInstructions instructions) {
+    long value = value(source, start, end, instructions);
+    int negative = value < 0 ? -1 : negative(source, start, end, (int) (value >>> 32), (int) value, instructions);
+    if (negative < 0) {
+      return null;
+    }
+    return toBigDecimal(source, (int) (value >>> 32), (int) value, negative == 1, instructions.getFixedFormatDecimalData());
+  }
+
+  /**
+   * The result is the same as {@link Double#parseDouble(String)} gives. The division of two exactly representable
+   * doubles is correctly rounded, so only values with at most 53 bits and powers of ten up to 10^22 is handled.
+   *
+   * @param value the value with the padding and sign handled
+   * @param decimalData the decimal instructions of the field
+   * @return the value or <code>null</code> if it has to be parsed the slow way
+   */
+  static Double toDouble(String value, FixedFormatDecimalData decimalData) {
+    double result = parseDouble(value, decimalData);
+    return Double.isNaN(result) ? null : result;
+  }
+
+  /**
+   * Like {@link #toDouble(String, FixedFormatDecimalData)} without boxing the result.
+   *
+   * @param value the value with the padding and sign handled
+   * @param decimalData the decimal instructions of the field
+   * @return the value or {@link Double#NaN} if it has to be parsed the slow way
+   */
+  static double parseDouble(String value, FixedFormatDecimalData decimalData) {
+    return parseDouble(value, 0, value.length(), isNegative(value), decimalData);
+  }
+
+  /**
+   * Like {@link #parseDouble(String, FixedFormatDecimalData)} reading the value directly from the window.
+   *
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions of the field
+   * @return the value or {@link Double#NaN} if it has to be parsed the slow way
+   */
+  static double parseDouble(CharSequence source, int start, int end, FormatInstructions instructions) {
+    long value = value(source, start, end, instructions);
+    int negative = value < 0 ? -1 : negative(source, start, end, (int) (value >>> 32), (int) value, instructions);
+    if (negative < 0) {
+      return Double.NaN;
+    }
+    return parseDouble(source, (int) (value >>> 32), (int) value, negative == 1, instructions.getFixedFormatDecimalData());
+  }
+
+  /**
+   * The result is the same as {@link Float#parseFloat(String)} gives, see {@link #toDouble(String, FixedFormatDecimalData)}.
+   *
+   * @param value the value with the padding and sign handled
+   * @param decimalData the decimal instructions of the field
+   * @return the value or <code>null</code> if it has to be parsed the slow way
+   */
+  static Float toFloat(String value, FixedFormatDecimalData decimalData) {
+    return toFloat(value, 0, value.length(), isNegative(value), decimalData);
+  }
+
+  /**
+   * Like {@link #toFloat(String, FixedFormatDecimalData)} reading the value directly from the window.
+   *
+   * @param source the data containing the value
+   * @param start the index of the first char of the value
+   * @param end the index after the last char of the value
+   * @param instructions the instructions of the field
+   * @return the value or <code>null</code> if it has to be parsed the slow way
+   */
+  static Float toFloat(CharSequence source, int start, int end, FormatInstructions instructions) {
+    long value = value(source, start, end, instructions);
+    int negative = value < 0 ? -1 : negative(source, start, end, (int) (value >>> 32), (int) value, instructions);
+    if (negative < 0) {
+      return null;
+    }
+    return toFloat(source, (int) (value >>> 32), (int) value, negative == 1, instructions.getFixedFormatDecimalData());
+  }
+
+  /**
+   * Parse a value with an explicit delimiter into the value multiplied by 10 to the power of <code>decimals</code>.
+   *
+   * @param value the value with the padding and sign handled
+   * @param decimalData the decimal instructions of the field
+   * @return the scaled value or <code>null</code> if the value has more than <code>decimals</code> digits after the
+   * delimiter, doesn't fit in a long or has to be parsed the slow way
+   */
+  static Long toScaledLong(String value, FixedFormatDecimalData decimalData) {
+    int scale = scale(value, 0, value.length(), decimalData);
+    int decimals = decimalData.getDecimals();
+    long unscaled = scale < 0 || scale > decimals || decimals > MAX_DIGITS ? -1 : unscaled(value, 0, value.length(), decimalData);
+    if (unscaled < 0) {
+      return null;
+    }
+    long factor = DecimalWriter.POWERS_OF_TEN[decimals - scale];
+    if (unscaled > Long.MAX_VALUE / factor) {
+      return null;
+    }
+    return isNegative(value) ? -unscaled * factor : unscaled * factor;
+  }
+
+  private static BigDecimal toBigDecimal(CharSequence value, int start, int end, boolean negative, FixedFormatDecimalData decimalData) {
+    int scale = scale(value, start, end, decimalData);
+    long unscaled = scale < 0 ? -1 : unscaled(value, start, end, decimalData);
+    if (unscaled < 0) {
+      return null;
+    }
+    return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+  }
+
+  private static double parseDouble(CharSequence value, int start, int end, boolean negative, FixedFormatDecimalData decimalData) {
+    int scale = scale(value, start, end, decimalData);
+    long unscaled = scale < 0 || scale >= DOUBLE_POWERS_OF_TEN.length ? -1 : unscaled(value, start, end, decimalData);
+    if (unscaled < 0 || unscaled >= MAX_EXACT_DOUBLE) {
+      return Double.NaN;
+    }
+    double result = unscaled / DOUBLE_POWERS_OF_TEN[scale];
+    return negative ? -result : result;
+  }
+
+  private static Float toFloat(CharSequence value, int start, int end, boolean negative, FixedFormatDecimalData decimalData) {
+    int scale = scale(value, start, end, decimalData);
+    long unscaled = scale < 0 || scale >= FLOAT_POWERS_OF_TEN.length ? -1 : unscaled(value, start, end, decimalData);
+    if (unscaled < 0 || unscaled >= MAX_EXACT_FLOAT) {
+      return null;
+    }
+    float result = unscaled / FLOAT_POWERS_OF_TEN[scale];
+    return negative ? -result : result;
+  }
+
+  /**
+   * @return the number of digits after the delimiter or -1 if the value has no well defined scale
+   */
+  private static int scale(CharSequence value, int start, int end, FixedFormatDecimalData decimalData) {
+    if (decimalData.isUseDecimalDelimiter()) {
+      char delimiter = decimalData.getDecimalDelimiter();
+      if (isDigitOrSign(delimiter)) {
+        return -1;
+      }
+      int delimiterIndex = indexOf(value, delimiter, start, end);
+      if (delimiterIndex == -1) {
+        return 0;
+      }
+      return indexOf(value, delimiter, delimiterIndex + 1, end) == -1 ? end - delimiterIndex - 1 : -1;
+    }
+    int decimals = decimalData.getDecimals();
+    if (decimals <= 0) {
+      return 0;
+    }
+    int digits = end - start - (start < end && isSign(value.charAt(start)) ? 1 : 0);
+    return digits >= decimals ? decimals : -1;
+  }
+
+  /**
+   * @return the digits of the value as a positive long or -1 if the value contains anything but a leading sign,
+   * digits and a delimiter or has too many digits
+   */
+  private static long unscaled(CharSequence value, int start, int end, FixedFormatDecimalData decimalData) {
+    boolean useDecimalDelimiter = decimalData.isUseDecimalDelimiter();
+    char delimiter = decimalData.getDecimalDelimiter();
+    int index = start < end && isSign(value.charAt(start)) ? start + 1 : start;
+    int digits = 0;
+    long result = 0;
+    for (; index < end; index++) {
+      char c = value.charAt(index);
+      if (c >= '0' && c <= '9') {
+        if (++digits > MAX_DIGITS) {
+          return -1;
+        }
+        result = result * 10 + (c - '0');
+      } else if (!useDecimalDelimiter || c != delimiter) {
+        return -1;
+      }
+    }
+    return digits == 0 ? -1 : result;
+  }
+
+  /**
+   * Find the value in the window like {@link Sign#remove(CharSequence, int, int, FormatInstructions)} does.
+   *
+   * @return the start of the value in the high and the end in the low 32 bits or -1 if the window has to be parsed
+   * the slow way
+   */
+  private static long value(CharSequence source, int start, int end, FormatInstructions instructions) {
+    Sign signing = instructions.getFixedFormatNumberData().getSigning();
+    if (signing == Sign.PREPEND) {
+      start++;
+    } else if (signing == Sign.APPEND) {
+      end--;
+    }
+    Align alignment = instructions.getAlignment();
+    int valueStart = alignment.valueStart(source, start, end, instructions.getPaddingChar());
+    int valueEnd = alignment.valueEnd(source, valueStart, end, instructions.getPaddingChar());
+    //empty values and values with a sign of their own next to the sign of the field is left to the slow way
+    if (valueStart >= valueEnd || (signing != Sign.NOSIGN && isSign(source.charAt(valueStart)))) {
+      return -1;
+    }
+    return ((long) valueStart << 32) | valueEnd;
+  }
+
+  /**
+   * @return 1 if the value is negative, 0 if it is positive and -1 if the sign of the field is neither a positive
+   * sign nor '-'
+   */
+  private static int negative(CharSequence source, int start, int end, int valueStart, int valueEnd, FormatInstructions instructions) {
+    FixedFormatNumberData numberData = instructions.getFixedFormatNumberData();
+    Sign signing = numberData.getSigning();
+    if (signing == Sign.NOSIGN) {
+      return source.charAt(valueStart) == '-' ? 1 : 0;
+    }
+    char sign = source.charAt(signing == Sign.PREPEND ? start : end - 1);
+    if (numberData.getPositiveSign() == sign || sign == '+' || (valueEnd - valueStart == 1 && source.charAt(valueStart) == '0')) {
+      return 0;
+    }
+    return sign == '-' ? 1 : -1;
+  }
+
+  private static int indexOf(CharSequence value, char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (value.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isNegative(String value) {
+    return value.length() > 0 && value.charAt(0) == '-';
+  }
+
+  private static boolean isSign(char c) {
+    return c == '-' || c == '+';
+  }
+
+  private static boolean isDigitOrSign(char c) {
+    return (c >= '0' && c <= '9') || isSign(c);
+  }
+}
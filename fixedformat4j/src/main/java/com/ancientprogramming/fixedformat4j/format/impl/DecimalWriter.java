@@ -0,0 +1,120 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * Writes scaled decimal values as the digits before the delimiter, the optional delimiter and exactly
+ * <code>decimals</code> digits after it. A negative value is written with a leading '-', and values between -1 and 1
+ * has a single 0 before the delimiter.
+ * <p/>
+ * Values whose unscaled value fits in a long is written with integer arithmetic. The output is independent of the
+ * default locale.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class DecimalWriter {
+
+  static final long[] POWERS_OF_TEN = new long[19];
+
+  static {
+    long power = 1;
+    for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = power;
+      power *= 10;
+    }
+  }
+
+  private DecimalWriter() {
+  }
+
+  /**
+   * @param value the value. It has to be rounded to <code>decimals</code> already
+   * @param decimals the number of digits after the delimiter
+   * @param useDecimalDelimiter whether to write the delimiter
+   * @param decimalDelimiter the delimiter
+   * @return the written value
+   */
+  static String write(BigDecimal value, int decimals, boolean useDecimalDelimiter, char decimalDelimiter) {
+    if (decimals >= 0 && decimals < POWERS_OF_TEN.length && value.scale() == decimals && value.precision() < POWERS_OF_TEN.length) {
+      return write(value.unscaledValue().longValue(), decimals, useDecimalDelimiter, decimalDelimiter);
+    }
+    String plain = value.abs().toPlainString();
+    int delimiterIndex = plain.indexOf('.');
+    StringBuilder result = new StringBuilder(plain.length() + 2);
+    if (value.signum() < 0) {
+      result.append('-');
+    }
+    result.append(plain, 0, delimiterIndex == -1 ? plain.length() : delimiterIndex);
+    if (useDecimalDelimiter) {
+      result.append(decimalDelimiter);
+    }
+    int fractionDigits = 0;
+    if (delimiterIndex != -1) {
+      fractionDigits = Math.min(plain.length() - delimiterIndex - 1, Math.max(decimals, 0));
+      result.append(plain, delimiterIndex + 1, delimiterIndex + 1 + fractionDigits);
+    }
+    for (int i = fractionDigits; i < decimals; i++) {
+      result.append('0');
+    }
+    return result.toString();
+  }
+
+  /**
+   * @param unscaled the value multiplied by 10 to the power of <code>decimals</code>
+   * @param decimals the number of digits after the delimiter. Between 0 and 18
+   * @param useDecimalDelimiter whether to write the delimiter
+   * @param decimalDelimiter the delimiter
+   * @return the written value
+   */
+  static String write(long unscaled, int decimals, boolean useDecimalDelimiter, char decimalDelimiter) {
+    if (unscaled == Long.MIN_VALUE) {
+      return write(BigDecimal.valueOf(unscaled, decimals), decimals, useDecimalDelimiter, decimalDelimiter);
+    }
+    boolean negative = unscaled < 0;
+    long abs = negative ? -unscaled : unscaled;
+    long integerPart = abs / POWERS_OF_TEN[decimals];
+    long fraction = abs - integerPart * POWERS_OF_TEN[decimals];
+
+    char[] result = new char[(negative ? 1 : 0) + digits(integerPart) + (useDecimalDelimiter ? 1 : 0) + decimals];
+    int index = result.length;
+    for (int i = 0; i < decimals; i++) {
+      result[--index] = (char) ('0' + fraction % 10);
+      fraction /= 10;
+    }
+    if (useDecimalDelimiter) {
+      result[--index] = decimalDelimiter;
+    }
+    do {
+      result[--index] = (char) ('0' + integerPart % 10);
+      integerPart /= 10;
+    } while (integerPart != 0);
+    if (negative) {
+      result[--index] = '-';
+    }
+    return new String(result);
+  }
+
+  private static int digits(long value) {
+    int digits = 1;
+    while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+      digits++;
+    }
+    return digits;
+  }
+}
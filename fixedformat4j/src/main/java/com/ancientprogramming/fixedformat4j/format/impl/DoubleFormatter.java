@@ -15,17 +15,73 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.DoubleFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
 
+import java.math.BigDecimal;
+
 /**
  * Formatter for {@link Double} data
  *
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class DoubleFormatter extends AbstractDecimalFormatter<Double> {
+public class DoubleFormatter extends AbstractDecimalFormatter<Double> implements DoubleFixedFormatter {
+
+  /**
+   * Parses the window without boxing the result. Subclasses is parsed through {@link #asObject} as they might
+   * override it.
+   *
+   * @throws FixedFormatException if a subclass parses the window to <code>null</code>
+   */
+  public double parseDouble(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != DoubleFormatter.class) {
+      Double result = parse(source, start, end, instructions);
+      if (result == null) {
+        throw new FixedFormatException(getClass().getName() + " parsed string[" + source.subSequence(start, end) + "] to null, which can't be loaded as a double value");
+      }
+      return result;
+    }
+    double result = DecimalParser.parseDouble(source, start, end, instructions);
+    if (!Double.isNaN(result)) {
+      return result;
+    }
+    return toDouble(instructions.getFixedFormatNumberData().getSigning().remove(source, start, end, instructions), instructions);
+  }
+
+  /**
+   * Parses the digits directly from the window. Subclasses is parsed through {@link #asObject} as they might
+   * override it.
+   */
+  public Double parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != DoubleFormatter.class) {
+      return super.parse(source, start, end, instructions);
+    }
+    return parseDouble(source, start, end, instructions);
+  }
+
+  /**
+   * Writes the value without boxing it. Subclasses is formatted through {@link #asString} as they might override it.
+   */
+  public void formatDouble(double value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (getClass() != DoubleFormatter.class) {
+      format(value, instructions, buffer, offset);
+      return;
+    }
+    write(asDecimalString(BigDecimal.valueOf(value), instructions), instructions, buffer, offset);
+  }
 
   public Double asObject(String string, FormatInstructions instructions) {
+    return toDouble(string, instructions);
+  }
+
+  private double toDouble(String string, FormatInstructions instructions) {
+    double result = DecimalParser.parseDouble(string, instructions.getFixedFormatDecimalData());
+    if (!Double.isNaN(result)) {
+      return result;
+    }
     String toConvert = getStringToConvert(string, instructions);
     return Double.parseDouble("".equals(toConvert) ? "0" : toConvert);
   }
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatEnumCode;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+
+import java.util.Arrays;
+
+/**
+ * Formatter for enum data. Each constant is represented by its
+ * {@link FixedFormatEnumCode code}, or its name if it has no code.
+ * <p/>
+ * The codes of an enum type is put into lookup tables the first time the type is used. Codes of one ASCII char is
+ * looked up by the char and longer codes in a small open addressing table, both directly from the record without
+ * creating a String. Exported values is copied from codes padded once per field layout.
+ * <p/>
+ * The {@link ByTypeFormatter} uses this formatter for enums that has no formatter registered.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class EnumFormatter<E extends Enum<E>> extends AbstractFixedFormatter<E> {
+
+  private static final ClassValue<Codes> CODES = new ClassValue<Codes>() {
+    protected Codes computeValue(Class<?> type) {
+      return new Codes(type);
+    }
+  };
+
+  @SuppressWarnings({"unchecked"})
+  private static final ClassValue<EnumFormatter<?>> SHARED = new ClassValue<EnumFormatter<?>>() {
+    protected EnumFormatter<?> computeValue(Class<?> type) {
+      return new EnumFormatter(type);
+    }
+  };
+
+  private final Codes codes;
+  private volatile Layout[] layouts = new Layout[0];
+
+  @SuppressWarnings({"unchecked"})
+  public EnumFormatter(FormatContext context) {
+    this((Class<E>) context.getDataType());
+  }
+
+  /**
+   * @param enumType the enum to parse and format constants of
+   * @throws FixedFormatException if the type isn't an enum or two constants has the same code
+   */
+  public EnumFormatter(Class<E> enumType) {
+    if (enumType == null || !enumType.isEnum()) {
+      throw new FixedFormatException(String.format("%s cannot handle datatype[%s] as it isn't an enum", EnumFormatter.class.getName(), enumType));
+    }
+    this.codes = CODES.get(enumType);
+  }
+
+  /**
+   * @param enumType the enum type
+   * @return the formatter shared by all fields of the enum type
+   * @throws FixedFormatException if the type isn't an enum or two constants has the same code
+   */
+  public static EnumFormatter<?> forType(Class<?> enumType) {
+    return SHARED.get(enumType);
+  }
+
+  /**
+   * Looks up the constant of the window without creating any objects. Subclasses is parsed through
+   * {@link #asObject} as they might override it.
+   */
+  @SuppressWarnings({"unchecked"})
+  public E parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != EnumFormatter.class) {
+      return super.parse(source, start, end, instructions);
+    }
+    Align alignment = instructions.getAlignment();
+    int valueStart = alignment.valueStart(source, start, end, instructions.getPaddingChar());
+    int valueEnd = alignment.valueEnd(source, valueStart, end, instructions.getPaddingChar());
+    return (E) codes.constant(source, valueStart, valueEnd);
+  }
+
+  /**
+   * Copies the padded code into the buffer. Subclasses is formatted through {@link #asString} as they might
+   * override it.
+   */
+  public void format(E value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (getClass() != EnumFormatter.class) {
+      super.format(value, instructions, buffer, offset);
+      return;
+    }
+    int length = instructions.getLength();
+    char[] padded = layout(instructions).padded[value != null ? value.ordinal() : codes.constants.length];
+    System.arraycopy(padded, 0, buffer.reserve(offset, length), offset - 1, length);
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public E asObject(String string, FormatInstructions instructions) {
+    return (E) codes.constant(string, 0, string.length());
+  }
+
+  public String asString(E obj, FormatInstructions instructions) {
+    return obj != null ? codes.codes[obj.ordinal()] : null;
+  }
+
+  private Layout layout(FormatInstructions instructions) {
+    Layout[] current = layouts;
+    for (Layout layout : current) {
+      if (layout.matches(instructions)) {
+        return layout;
+      }
+    }
+    //a shared formatter sees the layouts of all fields of the enum type. They are few, so the array is just copied
+    Layout result = new Layout(codes.codes, instructions);
+    Layout[] updated = Arrays.copyOf(current, current.length + 1);
+    updated[current.length] = result;
+    layouts = updated;
+    return result;
+  }
+
+  /**
+   * The codes of an enum type and the tables to look them up in
+   */
+  private static final class Codes {
+    private final Class<?> type;
+    private final Enum<?>[] constants;
+    private final String[] codes;
+    private final Enum<?>[] singleChars = new Enum<?>[128];
+    private final int[] table;
+    private final int mask;
+
+    Codes(Class<?> type) {
+      this.type = type;
+      this.constants = (Enum<?>[]) type.getEnumConstants();
+      this.codes = new String[constants.length];
+      this.table = new int[Integer.highestOneBit(Math.max(1, constants.length * 2 - 1)) << 1];
+      this.mask = table.length - 1;
+      for (int i = 0; i < constants.length; i++) {
+        String code = code(constants[i]);
+        int index = hash(code, 0, code.length()) & mask;
+        for (; table[index] != 0; index = (index + 1) & mask) {
+          if (codes[table[index] - 1].equals(code)) {
+            throw new FixedFormatException(String.format("%s.%s and %s.%s has the same code[%s]", type.getName(), constants[table[index] - 1].name(), type.getName(), constants[i].name(), code));
+          }
+        }
+        table[index] = i + 1;
+        codes[i] = code;
+        if (code.length() == 1 && code.charAt(0) < singleChars.length) {
+          singleChars[code.charAt(0)] = constants[i];
+        }
+      }
+    }
+
+    private String code(Enum<?> constant) {
+      FixedFormatEnumCode code;
+      try {
+        code = type.getField(constant.name()).getAnnotation(FixedFormatEnumCode.class);
+      } catch (NoSuchFieldException e) {
+        throw new FixedFormatException(String.format("could not find the field of %s.%s", type.getName(), constant.name()), e);
+      }
+      if (code == null) {
+        return constant.name();
+      }
+      if (code.value().length() == 0) {
+        throw new FixedFormatException(String.format("%s.%s has an empty code", type.getName(), constant.name()));
+      }
+      return code.value();
+    }
+
+    /**
+     * @return the constant having the code in the range or <code>null</code> if the range is empty
+     * @throws FixedFormatException if no constant has the code
+     */
+    Enum<?> constant(CharSequence source, int start, int end) {
+      if (start == end) {
+        return null;
+      }
+      if (end - start == 1) {
+        char c = source.charAt(start);
+        if (c < singleChars.length && singleChars[c] != null) {
+          return singleChars[c];
+        }
+      }
+      for (int index = hash(source, start, end) & mask; table[index] != 0; index = (index + 1) & mask) {
+        int ordinal = table[index] - 1;
+        if (matches(source, start, end, codes[ordinal])) {
+          return constants[ordinal];
+        }
+      }
+      throw new FixedFormatException(String.format("Could not convert string[%s] to a constant of %s. The known codes is %s", source.subSequence(start, end), type.getName(), Arrays.toString(codes)));
+    }
+
+    private static int hash(CharSequence source, int start, int end) {
+      int hash = 0;
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + source.charAt(i);
+      }
+      return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(CharSequence source, int start, int end, String code) {
+      if (end - start != code.length()) {
+        return false;
+      }
+      for (int i = 0; i < code.length(); i++) {
+        if (source.charAt(start + i) != code.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The codes padded for fields of one length, alignment and padding char
+   */
+  private static final class Layout {
+    private final int length;
+    private final Align alignment;
+    private final char paddingChar;
+    //the padded code of each constant followed by the padding written for null values
+    private final char[][] padded;
+
+    Layout(String[] codes, FormatInstructions instructions) {
+      this.length = instructions.getLength();
+      this.alignment = instructions.getAlignment();
+      this.paddingChar = instructions.getPaddingChar();
+      this.padded = new char[codes.length + 1][];
+      for (int i = 0; i < padded.length; i++) {
+        padded[i] = new char[length];
+        alignment.apply(i < codes.length ? codes[i] : null, length, paddingChar, padded[i], 0);
+      }
+    }
+
+    boolean matches(FormatInstructions instructions) {
+      return length == instructions.getLength() && alignment == instructions.getAlignment() && paddingChar == instructions.getPaddingChar();
+    }
+  }
+}
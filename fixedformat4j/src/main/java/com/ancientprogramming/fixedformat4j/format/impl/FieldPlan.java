@@ -0,0 +1,151 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatUtil;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+
+import java.lang.reflect.Method;
+
+import static java.lang.String.format;
+
+/**
+ * The compiled form of a single {@link com.ancientprogramming.fixedformat4j.annotation.Field} annotation.
+ * Holds everything needed to read or write the field, so no annotation lookups is needed per record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class FieldPlan {
+
+  private final Method getter;
+  private final Method setter;
+  private final PropertyGetter getterAccessor;
+  private final PropertySetter setterAccessor;
+  private final String setterName;
+  private final Class<?> datatype;
+  private final FormatContext context;
+  private final FormatInstructions instructions;
+  private final FixedFormatter formatter;
+  private final FixedFormatter<?> primitiveFormatter;
+  private final boolean nestedRecord;
+
+  FieldPlan(Method getter, Method setter, PropertyGetter getterAccessor, PropertySetter setterAccessor, String setterName, Class<?> datatype, FormatContext context, FormatInstructions instructions, FixedFormatter formatter) {
+    this.getter = getter;
+    this.setter = setter;
+    this.getterAccessor = getterAccessor;
+    this.setterAccessor = setterAccessor;
+    this.setterName = setterName;
+    this.datatype = datatype;
+    this.context = context;
+    this.instructions = instructions;
+    this.formatter = formatter;
+    this.primitiveFormatter = FixedFormatUtil.getPrimitiveFormatter(formatter, datatype);
+    this.nestedRecord = datatype.getAnnotation(Record.class) != null;
+  }
+
+  Method getGetter() {
+    return getter;
+  }
+
+  /**
+   * @return the setter or <code>null</code> if the getter has no setter
+   */
+  Method getSetter() {
+    return setter;
+  }
+
+  PropertyGetter getGetterAccessor() {
+    return getterAccessor;
+  }
+
+  /**
+   * @return the accessor of the setter or <code>null</code> if the getter has no setter
+   */
+  PropertySetter getSetterAccessor() {
+    return setterAccessor;
+  }
+
+  Class<?> getDatatype() {
+    return datatype;
+  }
+
+  FormatContext getContext() {
+    return context;
+  }
+
+  FormatInstructions getInstructions() {
+    return instructions;
+  }
+
+  /**
+   * @return the formatter instance bound to this field
+   */
+  FixedFormatter getFormatter() {
+    return formatter;
+  }
+
+  /**
+   * @return the formatter as the specialized formatter of the primitive datatype, e.g. an
+   * {@link com.ancientprogramming.fixedformat4j.format.IntFixedFormatter} for <code>int</code> fields, or
+   * <code>null</code> if the values has to be boxed
+   */
+  FixedFormatter<?> getPrimitiveFormatter() {
+    return primitiveFormatter;
+  }
+
+  /**
+   * @return <code>true</code> if the datatype of the field is a @{@link Record} itself
+   */
+  boolean isNestedRecord() {
+    return nestedRecord;
+  }
+
+  Object get(Object instance) {
+    try {
+      return getterAccessor.get(instance);
+    } catch (Throwable e) {
+      throw getterFailed(instance, e);
+    }
+  }
+
+  void set(Object instance, Object value) {
+    if (setterAccessor == null) {
+      throw missingSetter(instance);
+    }
+    try {
+      setterAccessor.set(instance, value);
+    } catch (Throwable e) {
+      throw setterFailed(instance, e);
+    }
+  }
+
+  FixedFormatException getterFailed(Object instance, Throwable cause) {
+    return new FixedFormatException(format("could not invoke method %s.%s(%s)", instance.getClass().getName(), getter.getName(), datatype), cause);
+  }
+
+  FixedFormatException setterFailed(Object instance, Throwable cause) {
+    return new FixedFormatException(format("could not invoke method %s.%s(%s)", instance.getClass().getName(), setterName, datatype), cause);
+  }
+
+  FixedFormatException missingSetter(Object instance) {
+    return new FixedFormatException(format("setter method named %s.%s(%s) does not exist", instance.getClass().getName(), setterName, datatype));
+  }
+}
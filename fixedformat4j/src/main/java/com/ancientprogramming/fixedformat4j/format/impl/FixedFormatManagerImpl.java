@@ -15,36 +15,25 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
-import com.ancientprogramming.fixedformat4j.annotation.Field;
-import com.ancientprogramming.fixedformat4j.annotation.Fields;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
-import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
 import com.ancientprogramming.fixedformat4j.annotation.Record;
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.AbstractRecordCodec;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
-import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
 import com.ancientprogramming.fixedformat4j.format.FormatContext;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.FormatterRegistry;
 import com.ancientprogramming.fixedformat4j.format.ParseException;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
-import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
-import org.apache.commons.lang.StringUtils;
+import com.ancientprogramming.fixedformat4j.format.RecordCodec;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.math.RoundingMode;
-import java.util.HashMap;
-import java.util.Set;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 
 import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.fetchData;
-import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.getFixedFormatterInstance;
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.parseData;
 import static java.lang.String.format;
 
 /**
@@ -57,63 +46,110 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
 
   private static final Log LOG = LogFactory.getLog(FixedFormatManagerImpl.class);
 
+  private final AccessorStrategy accessorStrategy;
+
+  private final FormatterRegistry formatterRegistry;
+
+  private final ClassValue<RecordPlan<?>> recordPlans = new ClassValue<RecordPlan<?>>() {
+    protected RecordPlan<?> computeValue(Class<?> type) {
+      return RecordPlan.compile(type, accessorStrategy, formatterRegistry);
+    }
+  };
+
+  private final ClassValue<RecordCodec<?>> recordCodecs = new ClassValue<RecordCodec<?>>() {
+    protected RecordCodec<?> computeValue(Class<?> type) {
+      return createRecordCodec(type);
+    }
+  };
+
+  /**
+   * Create a manager invoking getters and setters through the {@link AccessorStrategy#LAMBDA} strategy
+   */
+  public FixedFormatManagerImpl() {
+    this(AccessorStrategy.LAMBDA);
+  }
+
+  /**
+   * Create a manager invoking getters and setters through the given strategy
+   * @param accessorStrategy the strategy to use
+   */
+  public FixedFormatManagerImpl(AccessorStrategy accessorStrategy) {
+    this(accessorStrategy, FormatterRegistry.getDefault());
+  }
+
+  /**
+   * Create a manager using the formatters of the given registry for fields annotated with the default
+   * {@link ByTypeFormatter}
+   * @param formatterRegistry the registry to use
+   */
+  public FixedFormatManagerImpl(FormatterRegistry formatterRegistry) {
+    this(AccessorStrategy.LAMBDA, formatterRegistry);
+  }
+
+  /**
+   * Create a manager invoking getters and setters through the given strategy and using the formatters of the given
+   * registry for fields annotated with the default {@link ByTypeFormatter}
+   * @param accessorStrategy the strategy to use
+   * @param formatterRegistry the registry to use
+   */
+  public FixedFormatManagerImpl(AccessorStrategy accessorStrategy, FormatterRegistry formatterRegistry) {
+    this.accessorStrategy = accessorStrategy;
+    this.formatterRegistry = formatterRegistry;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  public FormatterRegistry getFormatterRegistry() {
+    return formatterRegistry;
+  }
+
   /**
    * @inheritDoc
    */
   public <T> T load(Class<T> fixedFormatRecordClass, String data) {
-    HashMap<String, Object> foundData = new HashMap<String, Object>();
-    HashMap<String, Class<?>> methodClass = new HashMap<String, Class<?>>();
-    //assert the record is marked with a Record
-    getAndAssertRecordAnnotation(fixedFormatRecordClass);
+    return load(fixedFormatRecordClass, (CharSequence) data);
+  }
 
-    //create instance to set data into
-    T instance = createRecordInstance(fixedFormatRecordClass);
-
-    //look for setter annotations and read data from the 'data' string
-    Method[] allMethods = fixedFormatRecordClass.getMethods();
-    for (Method method : allMethods) {
-      String methodName = stripMethodPrefix(method.getName());
-      Field fieldAnnotation = method.getAnnotation(Field.class);
-      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
-      if (fieldAnnotation != null) {
-        readFieldData(fixedFormatRecordClass, data, foundData, methodClass, method, methodName, fieldAnnotation);
-      } else if (fieldsAnnotation != null) {
-        //assert that the fields annotation contains minimum one field anno
-        if (fieldsAnnotation.value() == null || fieldsAnnotation.value().length == 0) {
-          throw new FixedFormatException(format("%s annotation must contain minimum one %s annotation", Fields.class.getName(), Field.class.getName()));
-        }
-        readFieldData(fixedFormatRecordClass, data, foundData, methodClass, method, methodName, fieldsAnnotation.value()[0]);
-      }
+  /**
+   * @inheritDoc
+   */
+  @SuppressWarnings({"unchecked"})
+  public <T> T load(Class<T> fixedFormatRecordClass, CharSequence data) {
+    //use the generated codec if there is one
+    RecordCodec<T> codec = (RecordCodec<T>) recordCodecs.get(fixedFormatRecordClass);
+    if (codec != null) {
+      return codec.load(data);
     }
 
-    Set<String> keys = foundData.keySet();
-    for (String key : keys) {
-      String setterMethodName = "set" + key;
+    //assert the record is marked with a Record
+    RecordPlan<T> plan = getAndAssertRecordPlan(fixedFormatRecordClass);
 
-      Object foundDataObj = foundData.get(key);
-      if (foundDataObj != null) {
-        Class datatype = methodClass.get(key);
-        Method method;
-        try {
-          method = fixedFormatRecordClass.getMethod(setterMethodName, datatype);
-        } catch (NoSuchMethodException e) {
-          throw new FixedFormatException(format("setter method named %s.%s(%s) does not exist", fixedFormatRecordClass.getName(), setterMethodName, datatype));
-        }
-        try {
-          method.invoke(instance, foundData.get(key));
-        } catch (Exception e) {
-          throw new FixedFormatException(format("could not invoke method %s.%s(%s)", fixedFormatRecordClass.getName(), setterMethodName, datatype), e);
-        }
-      }
+    //create instance to set data into
+    T instance = createRecordInstance(plan);
 
+    //read data from the 'data' string according to the compiled field annotations
+    for (FieldPlan field : plan.getLoadFields()) {
+      Object loadedData = readDataAccordingFieldPlan(fixedFormatRecordClass, data, field);
+      if (loadedData != null) {
+        field.set(instance, loadedData);
+      }
     }
     return instance;
   }
 
-  private <T> void readFieldData(Class<T> fixedFormatRecordClass, String data, HashMap<String, Object> foundData, HashMap<String, Class<?>> methodClass, Method method, String methodName, Field fieldAnnotation) {
-    Object loadedData = readDataAccordingFieldAnnotation(fixedFormatRecordClass, data, method, fieldAnnotation);
-    foundData.put(methodName, loadedData);
-    methodClass.put(methodName, method.getReturnType());
+  private <T> T createRecordInstance(RecordPlan<T> plan) {
+    T instance;
+    try {
+      instance = plan.newInstance();
+    } catch (Exception e) {
+      throw new FixedFormatException(format("unable to create instance of %s", plan.getRecordClass().getName()), e);
+    }
+    if (instance == null) {
+      //the plan could not resolve the needed constructors. Let the thorough lookup explain why
+      instance = createRecordInstance(plan.getRecordClass());
+    }
+    return instance;
   }
 
   private <T> T createRecordInstance(Class<T> fixedFormatRecordClass) {
@@ -156,40 +192,45 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
   /**
    * @inheritDoc
    */
+  @SuppressWarnings({"unchecked"})
   public <T> String export(String template, T fixedFormatRecord) {
-    StringBuffer result = new StringBuffer(template);
-    Record record = getAndAssertRecordAnnotation(fixedFormatRecord.getClass());
-
-    Class fixedFormatRecordClass = fixedFormatRecord.getClass();
-    HashMap<Integer, String> foundData = new HashMap<Integer, String>(); // hashmap containing offset and data to write
-    Method[] allMethods = fixedFormatRecordClass.getMethods();
-    for (Method method : allMethods) {
-      Field fieldAnnotation = method.getAnnotation(Field.class);
-      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
-      if (fieldAnnotation != null) {
-        String exportedData = exportDataAccordingFieldAnnotation(fixedFormatRecord, method, fieldAnnotation);
-        foundData.put(fieldAnnotation.offset(), exportedData);
-      } else if (fieldsAnnotation != null) {
-        Field[] fields = fieldsAnnotation.value();
-        for (Field field : fields) {
-          String exportedData = exportDataAccordingFieldAnnotation(fixedFormatRecord, method, field);
-          foundData.put(field.offset(), exportedData);
-        }
-      }
+    //use the generated codec if there is one
+    RecordCodec<T> codec = (RecordCodec<T>) recordCodecs.get(fixedFormatRecord.getClass());
+    if (codec != null) {
+      return codec.export(template, fixedFormatRecord);
     }
 
-    Set<Integer> sortedoffsets = foundData.keySet();
-    for (Integer offset : sortedoffsets) {
-      String data = foundData.get(offset);
-      appendData(result, record.paddingChar(), offset, data);
+    ExportBuffer result = ExportBuffer.acquire();
+    try {
+      exportAccordingRecordPlan(template, fixedFormatRecord, result);
+      return result.toString();
+    } finally {
+      result.release();
     }
+  }
 
-    if (record.length() != -1) { //pad with paddingchar
-      while (result.length() < record.length()) {
-        result.append(record.paddingChar());
-      }
+  /**
+   * @inheritDoc
+   */
+  @SuppressWarnings({"unchecked"})
+  public <T> void exportTo(T fixedFormatRecord, ExportBuffer buffer) {
+    //use the generated codec if there is one
+    RecordCodec<T> codec = (RecordCodec<T>) recordCodecs.get(fixedFormatRecord.getClass());
+    if (codec != null) {
+      codec.exportTo(fixedFormatRecord, buffer);
+    } else {
+      exportAccordingRecordPlan("", fixedFormatRecord, buffer);
     }
-    return result.toString();
+  }
+
+  private <T> void exportAccordingRecordPlan(String template, T fixedFormatRecord, ExportBuffer result) {
+    RecordPlan<?> plan = getAndAssertRecordPlan(fixedFormatRecord.getClass());
+    Record record = plan.getRecord();
+    result.reset(template, plan.getLayoutLength(), record.paddingChar());
+    for (FieldPlan field : plan.getExportFields()) {
+      exportDataAccordingFieldPlan(fixedFormatRecord, field, result);
+    }
+    result.padTo(record.length());
   }
 
   /**
@@ -199,49 +240,96 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
     return export("", fixedFormatRecord);
   }
 
-  private void appendData(StringBuffer result, Character paddingChar, Integer offset, String data) {
-    int zeroBasedOffset = offset - 1;
-    while (result.length() < zeroBasedOffset) {
-      result.append(paddingChar);
+  /**
+   * Find the codec to use for the record class. A codec generated by the fixedformat4j annotation processor is
+   * preferred. Otherwise a codec is spun at runtime from the record plan, unless the manager is restricted to
+   * the {@link AccessorStrategy#REFLECTION} strategy.
+   *
+   * @param recordClass the record class to find a codec for
+   * @return the codec or <code>null</code> if the record plan has to be used directly
+   */
+  private RecordCodec<?> createRecordCodec(Class<?> recordClass) {
+    if (recordClass.getAnnotation(Record.class) == null) {
+      return null;
     }
-    int length = data.length();
-    if (result.length() < zeroBasedOffset + length) {
-      result.append(StringUtils.leftPad("", (zeroBasedOffset + length) - result.length(), paddingChar));
+    RecordCodec<?> codec = findGeneratedRecordCodec(recordClass);
+    if (codec == null && accessorStrategy != AccessorStrategy.REFLECTION) {
+      codec = MethodHandleRecordCodec.compile(this, getAndAssertRecordPlan(recordClass), accessorStrategy);
     }
-    result.replace(zeroBasedOffset, zeroBasedOffset + length, data);
+    return codec;
   }
 
+  private RecordCodec<?> findGeneratedRecordCodec(Class<?> recordClass) {
+    if (recordClass.getClassLoader() == null) {
+      return null;
+    }
+    String codecName = recordClass.getName() + RecordCodec.CODEC_SUFFIX;
+    Class<?> codecClass;
+    try {
+      //the class isn't initialized before it is known to be the codec of the record class
+      codecClass = Class.forName(codecName, false, recordClass.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+    if (!isRecordCodecOf(codecClass, recordClass)) {
+      return null;
+    }
+    try {
+      RecordCodec<?> codec = (RecordCodec<?>) codecClass.getConstructor(FixedFormatManager.class).newInstance(this);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(format("using generated codec %s for %s", codecName, recordClass.getName()));
+      }
+      return codec;
+    } catch (Exception e) {
+      throw new FixedFormatException(format("unable to create instance of the generated codec %s", codecName), e);
+    }
+  }
 
-  private <T> Record getAndAssertRecordAnnotation(Class<T> fixedFormatRecordClass) {
-    Record recordAnno = fixedFormatRecordClass.getAnnotation(Record.class);
-    if (recordAnno == null) {
-      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", fixedFormatRecordClass.getName()));
+  private static boolean isRecordCodecOf(Class<?> codecClass, Class<?> recordClass) {
+    if (!RecordCodec.class.isAssignableFrom(codecClass)) {
+      return false;
+    }
+    Type[] interfaces = codecClass.getGenericInterfaces();
+    Type[] types = new Type[interfaces.length + 1];
+    System.arraycopy(interfaces, 0, types, 0, interfaces.length);
+    types[interfaces.length] = codecClass.getGenericSuperclass();
+    for (Type type : types) {
+      if (type instanceof ParameterizedType) {
+        ParameterizedType codecType = (ParameterizedType) type;
+        Type rawType = codecType.getRawType();
+        if ((rawType == AbstractRecordCodec.class || rawType == RecordCodec.class) && codecType.getActualTypeArguments()[0] == recordClass) {
+          return true;
+        }
+      }
     }
-    return recordAnno;
+    return false;
   }
 
   @SuppressWarnings({"unchecked"})
-  protected <T> Object readDataAccordingFieldAnnotation(Class<T> clazz, String data, Method method, Field fieldAnno) throws ParseException {
-    Class datatype = getDatatype(method, fieldAnno);
-
-    //recursive follow if the datatype is annotated with the @Record annotation
-
-    FormatContext context = getFormatContext(datatype, fieldAnno);
-    FixedFormatter formatter = getFixedFormatterInstance(context.getFormatter(), context);
-    FormatInstructions formatdata = getFormatInstructions(method, fieldAnno);
+  private <T> RecordPlan<T> getAndAssertRecordPlan(Class<T> fixedFormatRecordClass) {
+    RecordPlan<T> plan = (RecordPlan<T>) recordPlans.get(fixedFormatRecordClass);
+    if (plan == null) {
+      throw new FixedFormatException(format("%s has to be marked with the record annotation to be loaded", fixedFormatRecordClass.getName()));
+    }
+    return plan;
+  }
 
-    String dataToParse = fetchData(data, formatdata, context);
+  @SuppressWarnings({"unchecked"})
+  private <T> Object readDataAccordingFieldPlan(Class<T> clazz, CharSequence data, FieldPlan field) throws ParseException {
+    FormatContext context = field.getContext();
+    FormatInstructions formatdata = field.getInstructions();
 
     Object loadedData;
 
-    Annotation recordAnno = datatype.getAnnotation(Record.class);
-    if (recordAnno != null) {
-      loadedData = load(datatype, dataToParse);
+    //recursive follow if the datatype is annotated with the @Record annotation
+    if (field.isNestedRecord()) {
+      loadedData = load(field.getDatatype(), fetchData(data, formatdata, context));
     } else {
       try {
-        loadedData = formatter.parse(dataToParse, formatdata);
+        loadedData = parseData(data, formatdata, context, field.getFormatter());
       } catch (RuntimeException e) {
-        throw new ParseException(data, dataToParse, clazz, method, context, formatdata, e);
+        //the field is only copied out of the record when it failed to parse
+        throw new ParseException(data.toString(), fetchData(data, formatdata, context), clazz, field.getGetter(), context, formatdata, e);
       }
     }
     if (LOG.isDebugEnabled()) {
@@ -250,116 +338,20 @@ public class FixedFormatManagerImpl implements FixedFormatManager {
     return loadedData;
   }
 
-  private Class getDatatype(Method method, Field fieldAnno) {
-    Class datatype;
-    if (followsBeanStandard(method)) {
-      datatype = method.getReturnType();
-    } else {
-      throw new FixedFormatException(format("Cannot annotate method %s, with %s annotation. %s annotations must be placed on methods starting with 'get' or 'is'", method.getName(), fieldAnno.getClass().getName(), fieldAnno.getClass().getName()));
-    }
-    return datatype;
-  }
-
   @SuppressWarnings({"unchecked"})
-  private <T> String exportDataAccordingFieldAnnotation(T fixedFormatRecord, Method method, Field fieldAnno) {
-    String result;
-    Class datatype = getDatatype(method, fieldAnno);
-
-    FormatContext<T> context = getFormatContext(datatype, fieldAnno);
-    FixedFormatter formatter = getFixedFormatterInstance(context.getFormatter(), context);
-    FormatInstructions formatdata = getFormatInstructions(method, fieldAnno);
-    Object valueObject;
-    try {
-      valueObject = method.invoke(fixedFormatRecord);
-    } catch (Exception e) {
-      throw new FixedFormatException(format("could not invoke method %s.%s(%s)", fixedFormatRecord.getClass().getName(), method.getName(), datatype), e);
-    }
+  private <T> void exportDataAccordingFieldPlan(T fixedFormatRecord, FieldPlan field, ExportBuffer result) {
+    Object valueObject = field.get(fixedFormatRecord);
+    int offset = field.getContext().getOffset();
 
     //recursivly follow if the valueObject is annotated as a record
-    if (valueObject != null && valueObject.getClass().getAnnotation(Record.class) != null) {
-      result = export(valueObject);
+    if (valueObject != null && recordPlans.get(valueObject.getClass()) != null) {
+      result.write(offset, export(valueObject));
     } else {
-      result = formatter.format(valueObject, formatdata);
+      field.getFormatter().format(valueObject, field.getInstructions(), result, offset);
     }
     if (LOG.isDebugEnabled()) {
-      LOG.debug(format("exported %s ", result));
+      LOG.debug(format("exported offset %s. The record is now '%s'", offset, result));
     }
-    return result;
   }
 
-  private String stripMethodPrefix(String name) {
-
-    if (name.startsWith("get") || name.startsWith("set")) {
-      return name.substring(3);
-    } else if (name.startsWith("is")) {
-      return name.substring(2);
-    } else {
-      return name;
-    }
-
-  }
-
-
-  @SuppressWarnings({"unchecked"})
-  private <T> FormatContext<T> getFormatContext(Class<T> datatype, Field fieldAnno) {
-    FormatContext<T> context = null;
-    if (fieldAnno != null) {
-      context = new FormatContext(fieldAnno.offset(), datatype, fieldAnno.formatter());
-    }
-    return context;
-
-  }
-
-  private FormatInstructions getFormatInstructions(Method method, Field fieldAnno) {
-    FixedFormatPatternData patternData = getFixedFormatPatternData(method.getAnnotation(FixedFormatPattern.class));
-    FixedFormatBooleanData booleanData = getFixedFormatBooleanData(method.getAnnotation(FixedFormatBoolean.class));
-    FixedFormatNumberData numberData = getFixedFormatNumberData(method.getAnnotation(FixedFormatNumber.class));
-    FixedFormatDecimalData decimalData = getFixedFormatDecimalData(method.getAnnotation(FixedFormatDecimal.class));
-    return new FormatInstructions(fieldAnno.length(), fieldAnno.align(), fieldAnno.paddingChar(), patternData, booleanData, numberData, decimalData);
-  }
-
-  private FixedFormatPatternData getFixedFormatPatternData(FixedFormatPattern annotation) {
-    FixedFormatPatternData result;
-    if (annotation != null) {
-      result = new FixedFormatPatternData(annotation.value());
-    } else {
-      result = FixedFormatPatternData.DEFAULT;
-    }
-    return result;
-  }
-
-  private FixedFormatBooleanData getFixedFormatBooleanData(FixedFormatBoolean annotation) {
-    FixedFormatBooleanData result;
-    if (annotation != null) {
-      result = new FixedFormatBooleanData(annotation.trueValue(), annotation.falseValue());
-    } else {
-      result = FixedFormatBooleanData.DEFAULT;
-    }
-    return result;
-  }
-
-  private FixedFormatNumberData getFixedFormatNumberData(FixedFormatNumber annotation) {
-    FixedFormatNumberData result;
-    if (annotation != null) {
-      result = new FixedFormatNumberData(annotation.sign(), annotation.positiveSign(), annotation.negativeSign());
-    } else {
-      result = FixedFormatNumberData.DEFAULT;
-    }
-    return result;
-  }
-
-  private FixedFormatDecimalData getFixedFormatDecimalData(FixedFormatDecimal annotation) {
-    FixedFormatDecimalData result;
-    if (annotation != null) {
-      result = new FixedFormatDecimalData(annotation.decimals(), annotation.useDecimalDelimiter(), annotation.decimalDelimiter(), RoundingMode.valueOf(annotation.roundingMode()));
-    } else {
-      result = FixedFormatDecimalData.DEFAULT;
-    }
-    return result;
-  }
-
-  private boolean followsBeanStandard(Method method) {
-    String methodName = method.getName();
-    return methodName.startsWith("get") || methodName.startsWith("is");
-  }
 }
@@ -24,8 +24,26 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @since 1.0.0
  */
 public class FloatFormatter extends AbstractDecimalFormatter<Float> {
-  
+
+  /**
+   * Parses the digits directly from the window. Subclasses is parsed through {@link #asObject} as they might
+   * override it.
+   */
+  public Float parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() == FloatFormatter.class) {
+      Float result = DecimalParser.toFloat(source, start, end, instructions);
+      if (result != null) {
+        return result;
+      }
+    }
+    return super.parse(source, start, end, instructions);
+  }
+
   public Float asObject(String string, FormatInstructions instructions) {
+      Float result = DecimalParser.toFloat(string, instructions.getFixedFormatDecimalData());
+      if (result != null) {
+        return result;
+      }
       String toConvert = getStringToConvert(string, instructions);
       return Float.parseFloat("".equals(toConvert) ? "0" : toConvert);
     }
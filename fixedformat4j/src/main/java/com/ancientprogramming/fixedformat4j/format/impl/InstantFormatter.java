@@ -0,0 +1,60 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Formatter for {@link Instant} data. The pattern is applied in UTC.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class InstantFormatter extends AbstractTemporalFormatter<Instant> {
+
+  private static final ConcurrentMap<String, DateTimeFormatter> UTC_FORMATTERS = new ConcurrentHashMap<String, DateTimeFormatter>();
+
+  public InstantFormatter() {
+    super(Instant.class, Instant::from);
+  }
+
+  /**
+   * @param pattern the pattern
+   * @return the shared formatter of the pattern applied in UTC
+   */
+  DateTimeFormatter getFormatter(String pattern) {
+    DateTimeFormatter result = UTC_FORMATTERS.get(pattern);
+    if (result == null) {
+      result = super.getFormatter(pattern).withZone(ZoneOffset.UTC);
+      UTC_FORMATTERS.putIfAbsent(pattern, result);
+    }
+    return result;
+  }
+
+  Instant fromFields(DatePattern pattern, int[] fields) {
+    LocalDateTime result = LocalDateTimeFormatter.toLocalDateTime(pattern, fields);
+    return result != null ? result.toInstant(ZoneOffset.UTC) : null;
+  }
+
+  int[] toFields(Instant value) {
+    return LocalDateTimeFormatter.fields(LocalDateTime.ofEpochSecond(value.getEpochSecond(), value.getNano(), ZoneOffset.UTC));
+  }
+}
@@ -15,7 +15,10 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.IntFixedFormatter;
 
 /**
  * Formatter for {@link Integer} data
@@ -23,7 +26,45 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class IntegerFormatter extends AbstractNumberFormatter<Integer> {
+public class IntegerFormatter extends AbstractNumberFormatter<Integer> implements IntFixedFormatter {
+
+  /**
+   * Parses the digits directly from the window. Subclasses is parsed through {@link #asObject} as they might
+   * override it.
+   */
+  public Integer parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != IntegerFormatter.class || start == end) {
+      return super.parse(source, start, end, instructions);
+    }
+    return (int) parseLong(source, start, end, instructions, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Parses the digits directly from the window without boxing the result.
+   *
+   * @throws FixedFormatException if a subclass parses the window to <code>null</code>
+   */
+  public int parseInt(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != IntegerFormatter.class || start == end) {
+      Integer result = parse(source, start, end, instructions);
+      if (result == null) {
+        throw new FixedFormatException(getClass().getName() + " parsed string[" + source.subSequence(start, end) + "] to null, which can't be loaded as an int value");
+      }
+      return result;
+    }
+    return (int) parseLong(source, start, end, instructions, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Writes the value without boxing it. Subclasses is formatted through {@link #asString} as they might override it.
+   */
+  public void formatInt(int value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (getClass() != IntegerFormatter.class) {
+      format(Integer.valueOf(value), instructions, buffer, offset);
+      return;
+    }
+    write(Integer.toString(value), instructions, buffer, offset);
+  }
 
   public Integer asObject(String string, FormatInstructions instructions) {
     return Integer.parseInt(string);
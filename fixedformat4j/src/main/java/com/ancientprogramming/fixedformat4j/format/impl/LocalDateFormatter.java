@@ -0,0 +1,43 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import java.time.LocalDate;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.DAY;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MONTH;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.YEAR;
+
+/**
+ * Formatter for {@link LocalDate} data.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class LocalDateFormatter extends AbstractTemporalFormatter<LocalDate> {
+
+  public LocalDateFormatter() {
+    super(LocalDate.class, LocalDate::from);
+  }
+
+  LocalDate fromFields(DatePattern pattern, int[] fields) {
+    return pattern.has(DAY) ? LocalDate.of(fields[YEAR], fields[MONTH], fields[DAY]) : null;
+  }
+
+  int[] toFields(LocalDate value) {
+    return new int[]{value.getYear(), value.getMonthValue(), value.getDayOfMonth(), -1, -1, -1, -1};
+  }
+}
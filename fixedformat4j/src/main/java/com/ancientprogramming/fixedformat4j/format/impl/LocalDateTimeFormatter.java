@@ -0,0 +1,58 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import java.time.LocalDateTime;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.DAY;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.HOUR;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MILLISECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MINUTE;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MONTH;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.SECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.YEAR;
+
+/**
+ * Formatter for {@link LocalDateTime} data.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class LocalDateTimeFormatter extends AbstractTemporalFormatter<LocalDateTime> {
+
+  public LocalDateTimeFormatter() {
+    super(LocalDateTime.class, LocalDateTime::from);
+  }
+
+  LocalDateTime fromFields(DatePattern pattern, int[] fields) {
+    return toLocalDateTime(pattern, fields);
+  }
+
+  int[] toFields(LocalDateTime value) {
+    return fields(value);
+  }
+
+  static int[] fields(LocalDateTime value) {
+    return new int[]{value.getYear(), value.getMonthValue(), value.getDayOfMonth(), value.getHour(), value.getMinute(), value.getSecond(), value.getNano() / 1000000};
+  }
+
+  static LocalDateTime toLocalDateTime(DatePattern pattern, int[] fields) {
+    if (!pattern.has(DAY) || !pattern.has(MINUTE)) {
+      return null;
+    }
+    return LocalDateTime.of(fields[YEAR], fields[MONTH], fields[DAY], fields[HOUR], fields[MINUTE], fields[SECOND], fields[MILLISECOND] * 1000000);
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import java.time.LocalTime;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.HOUR;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MILLISECOND;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.MINUTE;
+import static com.ancientprogramming.fixedformat4j.format.impl.DatePattern.SECOND;
+
+/**
+ * Formatter for {@link LocalTime} data.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class LocalTimeFormatter extends AbstractTemporalFormatter<LocalTime> {
+
+  public LocalTimeFormatter() {
+    super(LocalTime.class, LocalTime::from);
+  }
+
+  LocalTime fromFields(DatePattern pattern, int[] fields) {
+    return pattern.has(MINUTE) ? LocalTime.of(fields[HOUR], fields[MINUTE], fields[SECOND], fields[MILLISECOND] * 1000000) : null;
+  }
+
+  int[] toFields(LocalTime value) {
+    return new int[]{-1, -1, -1, value.getHour(), value.getMinute(), value.getSecond(), value.getNano() / 1000000};
+  }
+}
@@ -15,8 +15,11 @@
  */
 package com.ancientprogramming.fixedformat4j.format.impl;
 
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.LongFixedFormatter;
 
 /**
  * Formatter for {@link Long} data
@@ -24,7 +27,45 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  * @author Jacob von Eyben - http://www.ancientprogramming.com
  * @since 1.0.0
  */
-public class LongFormatter extends AbstractNumberFormatter<Long> {
+public class LongFormatter extends AbstractNumberFormatter<Long> implements LongFixedFormatter {
+
+  /**
+   * Parses the digits directly from the window. Subclasses is parsed through {@link #asObject} as they might
+   * override it.
+   */
+  public Long parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != LongFormatter.class || start == end) {
+      return super.parse(source, start, end, instructions);
+    }
+    return parseLong(source, start, end, instructions, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Parses the digits directly from the window without boxing the result.
+   *
+   * @throws FixedFormatException if a subclass parses the window to <code>null</code>
+   */
+  public long parseLong(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != LongFormatter.class || start == end) {
+      Long result = parse(source, start, end, instructions);
+      if (result == null) {
+        throw new FixedFormatException(getClass().getName() + " parsed string[" + source.subSequence(start, end) + "] to null, which can't be loaded as a long value");
+      }
+      return result;
+    }
+    return parseLong(source, start, end, instructions, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Writes the value without boxing it. Subclasses is formatted through {@link #asString} as they might override it.
+   */
+  public void formatLong(long value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (getClass() != LongFormatter.class) {
+      format(Long.valueOf(value), instructions, buffer, offset);
+      return;
+    }
+    write(Long.toString(value), instructions, buffer, offset);
+  }
 
   public Long asObject(String string, FormatInstructions instructions) {
     return Long.parseLong(string);
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.AbstractRecordCodec;
+import com.ancientprogramming.fixedformat4j.format.BooleanFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.DoubleFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.IntFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.LongFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.fetchData;
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.parseData;
+import static java.lang.String.format;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * A codec spun at runtime for record classes without a codec generated by the annotation processor.
+ * <p/>
+ * The fields of a {@link RecordPlan} is unrolled into one method handle for loading and one for exporting.
+ * Each field is a chain of fetching the data, parsing it and calling the setter (or calling the getter, formatting
+ * and writing the data), and the fields is sequenced with {@link MethodHandles#foldArguments}. The JVM compiles the
+ * combined handles into bytecode, so no loop over the fields is left.
+ * <p/>
+ * The getters and setters is invoked through the handles of the {@link AccessorStrategy} of the manager: directly
+ * for {@link AccessorStrategy#METHOD_HANDLE} and through the accessors of the plan for {@link AccessorStrategy#LAMBDA}.
+ * Fields of a primitive datatype having a specialized formatter, e.g. an {@link IntFixedFormatter}, is parsed and
+ * formatted without boxing the values, while the accessors of the plan box them.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class MethodHandleRecordCodec<T> extends AbstractRecordCodec<T> {
+
+  private static final Log LOG = LogFactory.getLog(MethodHandleRecordCodec.class);
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodType LOADER_TYPE = methodType(void.class, Object.class, CharSequence.class);
+  private static final MethodType WRITER_TYPE = methodType(void.class, ExportBuffer.class, Object.class);
+  private static final MethodType SETTER_TYPE = methodType(void.class, Object.class, Object.class);
+
+  private static final MethodHandle READ;
+  private static final MethodHandle WRITE_FIELD;
+  private static final MethodHandle IS_NULL;
+  private static final MethodHandle SKIP;
+  private static final MethodHandle MISSING_SETTER;
+  private static final MethodHandle SETTER_FAILED;
+  private static final MethodHandle GETTER_FAILED;
+  private static final MethodHandle NOTHING;
+  private static final MethodHandle HAS_DATA;
+  private static final Map<Class<?>, MethodHandle> PARSE_PRIMITIVE = new HashMap<Class<?>, MethodHandle>();
+  private static final Map<Class<?>, MethodHandle> FORMAT_PRIMITIVE = new HashMap<Class<?>, MethodHandle>();
+
+  static {
+    try {
+      Class<?> c = MethodHandleRecordCodec.class;
+      READ = LOOKUP.findVirtual(c, "read", methodType(Object.class, FieldPlan.class, CharSequence.class));
+      WRITE_FIELD = LOOKUP.findVirtual(c, "writeField", methodType(void.class, FieldPlan.class, ExportBuffer.class, Object.class));
+      IS_NULL = LOOKUP.findStatic(c, "isNull", methodType(boolean.class, Object.class, Object.class));
+      SKIP = LOOKUP.findStatic(c, "skip", SETTER_TYPE);
+      MISSING_SETTER = LOOKUP.findStatic(c, "missingSetter", methodType(void.class, FieldPlan.class, Object.class, Object.class));
+      SETTER_FAILED = LOOKUP.findStatic(c, "setterFailed", methodType(void.class, FieldPlan.class, Throwable.class, Object.class, Object.class));
+      GETTER_FAILED = LOOKUP.findStatic(c, "getterFailed", methodType(Object.class, FieldPlan.class, Throwable.class, Object.class));
+      NOTHING = LOOKUP.findStatic(c, "nothing", methodType(void.class));
+      HAS_DATA = LOOKUP.findVirtual(c, "hasData", methodType(boolean.class, CharSequence.class, FormatContext.class));
+      addPrimitive(int.class, IntFixedFormatter.class, "Int");
+      addPrimitive(long.class, LongFixedFormatter.class, "Long");
+      addPrimitive(double.class, DoubleFixedFormatter.class, "Double");
+      addPrimitive(boolean.class, BooleanFixedFormatter.class, "Boolean");
+    } catch (Exception e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Find the parse and format methods of the specialized formatter of a primitive datatype
+   */
+  private static void addPrimitive(Class<?> datatype, Class<?> formatterType, String name) throws NoSuchMethodException, IllegalAccessException {
+    PARSE_PRIMITIVE.put(datatype, LOOKUP.findVirtual(MethodHandleRecordCodec.class, "parse" + name,
+        methodType(datatype, CharSequence.class, String.class, FormatContext.class, FormatInstructions.class, formatterType)));
+    FORMAT_PRIMITIVE.put(datatype, LOOKUP.findVirtual(formatterType, "format" + name,
+        methodType(void.class, datatype, FormatInstructions.class, ExportBuffer.class, int.class)));
+  }
+
+  private final AccessorStrategy accessorStrategy;
+  private final MethodHandle constructor;
+  private final MethodHandle loader;
+  private final MethodHandle writer;
+
+  private MethodHandleRecordCodec(FixedFormatManager manager, RecordPlan<T> plan, AccessorStrategy accessorStrategy, MethodHandle constructor) throws IllegalAccessException {
+    super(manager, plan.getRecordClass(), plan.getRecord().length(), plan.getRecord().paddingChar(), plan.getLayoutLength());
+    this.accessorStrategy = accessorStrategy;
+    this.constructor = constructor;
+
+    List<MethodHandle> loaders = new ArrayList<MethodHandle>();
+    for (FieldPlan field : plan.getLoadFields()) {
+      loaders.add(fieldLoader(field));
+    }
+    this.loader = sequence(LOADER_TYPE, loaders);
+
+    List<MethodHandle> writers = new ArrayList<MethodHandle>();
+    for (FieldPlan field : plan.getExportFields()) {
+      writers.add(fieldWriter(field));
+    }
+    this.writer = sequence(WRITER_TYPE, writers);
+  }
+
+  /**
+   * Spin a codec for the record plan.
+   *
+   * @param manager the manager used for nested records
+   * @param plan the plan to spin the codec from
+   * @param accessorStrategy the strategy the plan was compiled with. The codec invokes the getters and setters the same way
+   * @return the codec or <code>null</code> if the record class can't be accessed through method handles. In that
+   * case the plan has to be used directly.
+   */
+  static <T> MethodHandleRecordCodec<T> compile(FixedFormatManager manager, RecordPlan<T> plan, AccessorStrategy accessorStrategy) {
+    try {
+      MethodHandle constructor;
+      if (plan.getConstructor() == null) {
+        return null;
+      } else if (plan.getDeclaringClassConstructor() != null) {
+        constructor = MethodHandles.filterReturnValue(LOOKUP.unreflectConstructor(plan.getDeclaringClassConstructor()), LOOKUP.unreflectConstructor(plan.getConstructor()));
+      } else {
+        constructor = LOOKUP.unreflectConstructor(plan.getConstructor());
+      }
+      return new MethodHandleRecordCodec<T>(manager, plan, accessorStrategy, constructor.asType(methodType(Object.class)));
+    } catch (IllegalAccessException e) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(format("could not spin codec for %s. Falling back to the record plan", plan.getRecordClass().getName()), e);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @SuppressWarnings({"unchecked"})
+  public T load(CharSequence data) {
+    T instance;
+    try {
+      instance = (T) (Object) constructor.invokeExact();
+    } catch (Throwable e) {
+      throw new FixedFormatException(format("unable to create instance of %s", getRecordClass().getName()), e);
+    }
+    try {
+      loader.invokeExact((Object) instance, data);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new FixedFormatException(format("unable to load %s", getRecordClass().getName()), e);
+    }
+    return instance;
+  }
+
+  protected void write(ExportBuffer result, T instance) {
+    try {
+      writer.invokeExact(result, (Object) instance);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new FixedFormatException(format("unable to export %s", getRecordClass().getName()), e);
+    }
+  }
+
+  /**
+   * @return a handle of type (Object instance, CharSequence data)void
+   */
+  private MethodHandle fieldLoader(FieldPlan field) throws IllegalAccessException {
+    if (field.getPrimitiveFormatter() != null && field.getSetter() != null) {
+      return primitiveFieldLoader(field);
+    }
+    MethodHandle store;
+    if (field.getSetter() == null) {
+      store = MethodHandles.insertArguments(MISSING_SETTER, 0, field);
+    } else {
+      MethodHandle setter = setter(field).asType(SETTER_TYPE);
+      setter = MethodHandles.catchException(setter, Throwable.class, MethodHandles.insertArguments(SETTER_FAILED, 0, field));
+      store = MethodHandles.guardWithTest(IS_NULL, SKIP, setter);
+    }
+    MethodHandle read = MethodHandles.insertArguments(READ, 0, this, field);
+    return MethodHandles.filterArguments(store, 1, read);
+  }
+
+  /**
+   * @return a handle of type (ExportBuffer result, Object instance)void
+   */
+  private MethodHandle fieldWriter(FieldPlan field) throws IllegalAccessException {
+    if (field.getPrimitiveFormatter() != null) {
+      return primitiveFieldWriter(field);
+    }
+    MethodHandle getter = getter(field).asType(methodType(Object.class, Object.class));
+    getter = MethodHandles.catchException(getter, Throwable.class, MethodHandles.insertArguments(GETTER_FAILED, 0, field));
+    MethodHandle write = MethodHandles.insertArguments(WRITE_FIELD, 0, this, field);
+    return MethodHandles.filterArguments(write, 1, getter);
+  }
+
+  /**
+   * @return a handle of type (Object instance, CharSequence data)void parsing and setting the primitive value if the record
+   * contains data for the field
+   */
+  private MethodHandle primitiveFieldLoader(FieldPlan field) throws IllegalAccessException {
+    Class<?> datatype = field.getDatatype();
+    MethodHandle setter = setter(field).asType(methodType(void.class, Object.class, datatype));
+    MethodHandle setterFailed = MethodHandles.insertArguments(SETTER_FAILED, 0, field).asType(methodType(void.class, Throwable.class, Object.class, datatype));
+    setter = MethodHandles.catchException(setter, Throwable.class, setterFailed);
+    MethodHandle parse = MethodHandles.insertArguments(PARSE_PRIMITIVE.get(datatype), 0, this);
+    parse = MethodHandles.insertArguments(parse, 1, field.getGetter().getName(), field.getContext(), field.getInstructions(), field.getPrimitiveFormatter());
+    MethodHandle load = MethodHandles.filterArguments(setter, 1, parse);
+    MethodHandle hasData = MethodHandles.insertArguments(HAS_DATA, 0, this);
+    hasData = MethodHandles.dropArguments(MethodHandles.insertArguments(hasData, 1, field.getContext()), 0, Object.class);
+    return MethodHandles.guardWithTest(hasData, load, MethodHandles.dropArguments(NOTHING, 0, LOADER_TYPE.parameterList()));
+  }
+
+  /**
+   * @return a handle of type (ExportBuffer result, Object instance)void formatting the primitive value
+   */
+  private MethodHandle primitiveFieldWriter(FieldPlan field) throws IllegalAccessException {
+    Class<?> datatype = field.getDatatype();
+    MethodHandle getter = getter(field).asType(methodType(datatype, Object.class));
+    MethodHandle getterFailed = MethodHandles.insertArguments(GETTER_FAILED, 0, field).asType(methodType(datatype, Throwable.class, Object.class));
+    getter = MethodHandles.catchException(getter, Throwable.class, getterFailed);
+    MethodHandle format = FORMAT_PRIMITIVE.get(datatype).bindTo(field.getPrimitiveFormatter());
+    format = MethodHandles.insertArguments(format, 3, field.getContext().getOffset());
+    format = MethodHandles.insertArguments(format, 1, field.getInstructions());
+    format = MethodHandles.permuteArguments(format, methodType(void.class, ExportBuffer.class, datatype), 1, 0);
+    return MethodHandles.filterArguments(format, 1, getter);
+  }
+
+  private MethodHandle getter(FieldPlan field) throws IllegalAccessException {
+    return accessorStrategy.getterHandle(field.getGetter(), field.getGetterAccessor());
+  }
+
+  private MethodHandle setter(FieldPlan field) throws IllegalAccessException {
+    return accessorStrategy.setterHandle(field.getSetter(), field.getSetterAccessor());
+  }
+
+  /**
+   * Combine the handles into one handle invoking them in order
+   */
+  private static MethodHandle sequence(MethodType type, List<MethodHandle> handles) {
+    MethodHandle result = MethodHandles.dropArguments(NOTHING, 0, type.parameterList());
+    for (int i = handles.size() - 1; i >= 0; i--) {
+      result = MethodHandles.foldArguments(result, handles.get(i));
+    }
+    return result;
+  }
+
+  private Object read(FieldPlan field, CharSequence data) {
+    if (field.isNestedRecord()) {
+      return loadNested(data, field.getContext(), field.getInstructions());
+    }
+    try {
+      return parseData(data, field.getInstructions(), field.getContext(), field.getFormatter());
+    } catch (RuntimeException e) {
+      String dataToParse = fetchData(data, field.getInstructions(), field.getContext());
+      throw new ParseException(data.toString(), dataToParse, getRecordClass(), field.getGetter(), field.getContext(), field.getInstructions(), e);
+    }
+  }
+
+  private void writeField(FieldPlan field, ExportBuffer result, Object value) {
+    writeField(result, field.getContext().getOffset(), value, field.getFormatter(), field.getInstructions());
+  }
+
+  private static boolean isNull(Object instance, Object value) {
+    return value == null;
+  }
+
+  private static void skip(Object instance, Object value) {
+  }
+
+  private static void nothing() {
+  }
+
+  private static void missingSetter(FieldPlan field, Object instance, Object value) {
+    if (value != null) {
+      throw field.missingSetter(instance);
+    }
+  }
+
+  private static void setterFailed(FieldPlan field, Throwable cause, Object instance, Object value) {
+    throw field.setterFailed(instance, cause);
+  }
+
+  private static Object getterFailed(FieldPlan field, Throwable cause, Object instance) {
+    throw field.getterFailed(instance, cause);
+  }
+}
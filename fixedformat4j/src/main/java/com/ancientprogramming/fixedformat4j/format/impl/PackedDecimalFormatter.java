@@ -0,0 +1,159 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.ByteCharSequence;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Formatter for packed decimals, also known as COMP-3, where each byte holds two digits and the last byte holds the
+ * last digit and a sign nibble. A field of <code>length</code> bytes holds <code>2 * length - 1</code> digits.
+ * <pre>
+ * &#064;Field(offset = 11, length = 5, formatter = PackedDecimalFormatter.class)
+ * &#064;FixedFormatDecimal(decimals = 2)
+ * public BigDecimal getAmount() {...}
+ * </pre>
+ * The sign nibbles C, A, E and F is positive, and B and D is negative. Values is exported with C for positive
+ * values and D for negative values, or F for positive values of fields with {@link Sign#NOSIGN}, which is the
+ * default. See {@link AbstractImpliedDecimalFormatter} for the datatypes supported.
+ * <p/>
+ * The bytes is decoded and encoded a byte at a time through lookup tables of the nibbles. Records loaded from a
+ * {@link ByteCharSequence}, e.g. through a {@link com.ancientprogramming.fixedformat4j.io.FixedFormatFile}, is read
+ * as the undecoded bytes whatever the charset of the record is. In other records each byte is a char of the same
+ * value, i.e. the record has to be decoded as ISO-8859-1. Likewise exported bytes is chars of the same value, which
+ * {@link ExportBuffer#getBytes} copies without encoding them.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class PackedDecimalFormatter extends AbstractImpliedDecimalFormatter {
+
+  private static final int POSITIVE = 0xC;
+  private static final int NEGATIVE = 0xD;
+  private static final int UNSIGNED = 0xF;
+  private static final BigInteger TEN = BigInteger.TEN;
+  private static final BigInteger HUNDRED = BigInteger.valueOf(100);
+
+  //the value of the two digits of a byte, -1 if a nibble isn't a digit
+  private static final int[] PAIRS = new int[256];
+  //the byte of two digits
+  private static final char[] PACKED = new char[100];
+  //1 for positive sign nibbles, -1 for negative and 0 for digits
+  private static final int[] SIGNS = new int[16];
+
+  static {
+    Arrays.fill(PAIRS, -1);
+    for (int high = 0; high < 10; high++) {
+      for (int low = 0; low < 10; low++) {
+        PAIRS[high << 4 | low] = high * 10 + low;
+        PACKED[high * 10 + low] = (char) (high << 4 | low);
+      }
+    }
+    SIGNS[0xA] = SIGNS[0xC] = SIGNS[0xE] = SIGNS[0xF] = 1;
+    SIGNS[0xB] = SIGNS[0xD] = -1;
+  }
+
+  public PackedDecimalFormatter(FormatContext context) {
+    super(context);
+  }
+
+  public Number parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (start == end) {
+      throw new NumberFormatException("could not parse an empty packed decimal");
+    }
+    ByteCharSequence bytes = source instanceof ByteCharSequence ? (ByteCharSequence) source : null;
+    long magnitude = 0;
+    BigInteger bigMagnitude = null;
+    for (int i = start; i < end - 1; i++) {
+      int pair = PAIRS[byteAt(source, bytes, i)];
+      if (pair < 0) {
+        throw invalidByte(source, bytes, start, end, i);
+      }
+      if (bigMagnitude == null && magnitude > (Long.MAX_VALUE - pair) / 100) {
+        bigMagnitude = BigInteger.valueOf(magnitude);
+      }
+      if (bigMagnitude != null) {
+        bigMagnitude = bigMagnitude.multiply(HUNDRED).add(BigInteger.valueOf(pair));
+      } else {
+        magnitude = magnitude * 100 + pair;
+      }
+    }
+    int last = byteAt(source, bytes, end - 1);
+    int digit = last >>> 4;
+    int sign = SIGNS[last & 0xF];
+    if (digit > 9 || sign == 0) {
+      throw invalidByte(source, bytes, start, end, end - 1);
+    }
+    if (bigMagnitude == null && magnitude > (Long.MAX_VALUE - digit) / 10) {
+      bigMagnitude = BigInteger.valueOf(magnitude);
+    }
+    if (bigMagnitude != null) {
+      bigMagnitude = bigMagnitude.multiply(TEN).add(BigInteger.valueOf(digit));
+    } else {
+      magnitude = magnitude * 10 + digit;
+    }
+    return toValue(sign < 0, magnitude, bigMagnitude, instructions);
+  }
+
+  public void format(Number value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    format(value, instructions, buffer.reserveBytes(offset, instructions.getLength()), offset - 1);
+  }
+
+  protected void write(boolean negative, long magnitude, String bigDigits, FormatInstructions instructions, char[] target, int offset) {
+    int length = instructions.getLength();
+    checkDigits(magnitude, bigDigits, 2 * length - 1);
+    int sign = negative ? NEGATIVE : instructions.getFixedFormatNumberData().getSigning() == Sign.NOSIGN ? UNSIGNED : POSITIVE;
+    int last = offset + length - 1;
+    if (bigDigits == null) {
+      target[last] = (char) ((magnitude % 10) << 4 | sign);
+      magnitude /= 10;
+      for (int i = last - 1; i >= offset; i--) {
+        target[i] = PACKED[(int) (magnitude % 100)];
+        magnitude /= 100;
+      }
+    } else {
+      target[last] = (char) (digit(bigDigits, 0) << 4 | sign);
+      for (int i = last - 1, index = 1; i >= offset; i--, index += 2) {
+        target[i] = PACKED[digit(bigDigits, index + 1) * 10 + digit(bigDigits, index)];
+      }
+    }
+  }
+
+  /**
+   * @return the byte at the index. Chars beyond a byte is returned as 0xFF, which is invalid in any position
+   */
+  private static int byteAt(CharSequence source, ByteCharSequence bytes, int index) {
+    if (bytes != null) {
+      return bytes.byteAt(index) & 0xFF;
+    }
+    char c = source.charAt(index);
+    return c <= 0xFF ? c : 0xFF;
+  }
+
+  private static NumberFormatException invalidByte(CharSequence source, ByteCharSequence bytes, int start, int end, int index) {
+    StringBuilder hex = new StringBuilder((end - start) * 2);
+    for (int i = start; i < end; i++) {
+      hex.append(String.format("%02X", bytes != null ? bytes.byteAt(i) & 0xFF : (int) source.charAt(i)));
+    }
+    return new NumberFormatException(String.format("could not parse packed decimal %s. Unexpected byte at index %d", hex, index - start));
+  }
+}
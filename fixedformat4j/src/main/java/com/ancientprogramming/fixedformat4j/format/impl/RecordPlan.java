@@ -0,0 +1,328 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatCache;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatIntern;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.FormatterRegistry;
+import com.ancientprogramming.fixedformat4j.format.StringInterner;
+import com.ancientprogramming.fixedformat4j.format.ValueCache;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ancientprogramming.fixedformat4j.format.FixedFormatUtil.getFixedFormatterInstance;
+import static java.lang.String.format;
+
+/**
+ * The compiled and immutable mapping of a {@link Record} annotated class.
+ * <p/>
+ * A plan is build once per class by scanning the annotated getters and is afterwards used for loading and
+ * exporting any number of records without further reflection lookups.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class RecordPlan<T> {
+
+  private final Class<T> recordClass;
+  private final Record record;
+  private final FieldPlan[] loadFields;
+  private final FieldPlan[] exportFields;
+  private final int layoutLength;
+  private final Constructor<T> constructor;
+  private final Constructor<?> declaringClassConstructor;
+
+  private RecordPlan(Class<T> recordClass, Record record, FieldPlan[] loadFields, FieldPlan[] exportFields) {
+    this.recordClass = recordClass;
+    this.record = record;
+    this.loadFields = loadFields;
+    this.exportFields = exportFields;
+
+    int end = record.length();
+    for (FieldPlan field : exportFields) {
+      end = Math.max(end, field.getContext().getOffset() - 1 + field.getInstructions().getLength());
+    }
+    this.layoutLength = end;
+
+    //resolve the constructors up front. If they cannot be found the instantiation fails when a record is loaded
+    Constructor<T> defaultConstructor = getConstructor(recordClass);
+    Class<?> declaringClass = recordClass.getDeclaringClass();
+    if (defaultConstructor == null && declaringClass != null) {
+      this.declaringClassConstructor = getConstructor(declaringClass);
+      this.constructor = declaringClassConstructor != null ? getConstructor(recordClass, declaringClass) : null;
+    } else {
+      this.declaringClassConstructor = null;
+      this.constructor = defaultConstructor;
+    }
+  }
+
+  /**
+   * Compiles the plan for the given class.
+   *
+   * @param recordClass the class to compile a plan for
+   * @param accessorStrategy the strategy used to invoke the getters and setters
+   * @return the plan or <code>null</code> if the class isn't annotated with the {@link Record} annotation
+   * @throws FixedFormatException if the annotations on the class is used in a wrong way
+   */
+  static <T> RecordPlan<T> compile(Class<T> recordClass, AccessorStrategy accessorStrategy) {
+    return compile(recordClass, accessorStrategy, FormatterRegistry.getDefault());
+  }
+
+  /**
+   * Compiles the plan for the given class.
+   *
+   * @param recordClass the class to compile a plan for
+   * @param accessorStrategy the strategy used to invoke the getters and setters
+   * @param registry the registry to resolve the formatters of fields using the {@link ByTypeFormatter} from
+   * @return the plan or <code>null</code> if the class isn't annotated with the {@link Record} annotation
+   * @throws FixedFormatException if the annotations on the class is used in a wrong way
+   */
+  static <T> RecordPlan<T> compile(Class<T> recordClass, AccessorStrategy accessorStrategy, FormatterRegistry registry) {
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null) {
+      return null;
+    }
+    Map<String, FieldPlan> loadFields = new LinkedHashMap<String, FieldPlan>();
+    List<FieldPlan> exportFields = new ArrayList<FieldPlan>();
+    for (Method method : recordClass.getMethods()) {
+      Field fieldAnnotation = method.getAnnotation(Field.class);
+      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
+      Field[] fields;
+      if (fieldAnnotation != null) {
+        fields = new Field[]{fieldAnnotation};
+      } else if (fieldsAnnotation != null) {
+        //assert that the fields annotation contains minimum one field anno
+        if (fieldsAnnotation.value() == null || fieldsAnnotation.value().length == 0) {
+          throw new FixedFormatException(format("%s annotation must contain minimum one %s annotation", Fields.class.getName(), Field.class.getName()));
+        }
+        fields = fieldsAnnotation.value();
+      } else {
+        continue;
+      }
+      String methodName = stripMethodPrefix(method.getName());
+      Method setter = getSetter(recordClass, "set" + methodName, method.getReturnType());
+      PropertyGetter getterAccessor = accessorStrategy.getter(method);
+      PropertySetter setterAccessor = setter != null ? accessorStrategy.setter(setter) : null;
+      for (int i = 0; i < fields.length; i++) {
+        FieldPlan fieldPlan = compileField(recordClass, registry, method, setter, getterAccessor, setterAccessor, "set" + methodName, fields[i]);
+        if (i == 0) {
+          //when reading data having multible field annotations the first field will decide what data to load
+          loadFields.put(methodName, fieldPlan);
+        }
+        exportFields.add(fieldPlan);
+      }
+    }
+    //export in offset order. Of the fields sharing an offset only the last one is exported, ordered by getter name
+    //and annotation order. The generated codecs uses the same rule
+    Collections.sort(exportFields, new Comparator<FieldPlan>() {
+      public int compare(FieldPlan o1, FieldPlan o2) {
+        int result = o1.getContext().getOffset() - o2.getContext().getOffset();
+        return result != 0 ? result : o1.getGetter().getName().compareTo(o2.getGetter().getName());
+      }
+    });
+    for (int i = exportFields.size() - 2; i >= 0; i--) {
+      if (exportFields.get(i).getContext().getOffset() == exportFields.get(i + 1).getContext().getOffset()) {
+        exportFields.remove(i);
+      }
+    }
+    return new RecordPlan<T>(recordClass, record, loadFields.values().toArray(new FieldPlan[loadFields.size()]), exportFields.toArray(new FieldPlan[exportFields.size()]));
+  }
+
+  Class<T> getRecordClass() {
+    return recordClass;
+  }
+
+  Record getRecord() {
+    return record;
+  }
+
+  /**
+   * @return the fields to load. Getters with multible field annotations is only represented by the first one.
+   */
+  FieldPlan[] getLoadFields() {
+    return loadFields;
+  }
+
+  /**
+   * @return the fields to export ordered by offset. Only one field is exported per offset
+   */
+  FieldPlan[] getExportFields() {
+    return exportFields;
+  }
+
+  /**
+   * @return the length of an exported record. Either the {@link Record#length()} or the end of the last field
+   */
+  int getLayoutLength() {
+    return layoutLength;
+  }
+
+  /**
+   * @return the constructor to create the record with or <code>null</code> if none was found
+   */
+  Constructor<T> getConstructor() {
+    return constructor;
+  }
+
+  /**
+   * @return the default constructor of the declaring class if the record is an inner class, otherwise <code>null</code>
+   */
+  Constructor<?> getDeclaringClassConstructor() {
+    return declaringClassConstructor;
+  }
+
+  /**
+   * Creates a new instance of the record class using the constructors resolved when the plan was compiled.
+   *
+   * @return the new instance or <code>null</code> if no usable constructor was found
+   * @throws Exception if the constructor invocation fails
+   */
+  T newInstance() throws Exception {
+    T result = null;
+    if (declaringClassConstructor != null && constructor != null) {
+      result = constructor.newInstance(declaringClassConstructor.newInstance());
+    } else if (constructor != null) {
+      result = constructor.newInstance();
+    }
+    return result;
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static FieldPlan compileField(Class<?> recordClass, FormatterRegistry registry, Method method, Method setter, PropertyGetter getterAccessor, PropertySetter setterAccessor, String setterName, Field fieldAnno) {
+    Class<?> datatype = getDatatype(method, fieldAnno);
+    FormatContext context = new FormatContext(fieldAnno.offset(), datatype, fieldAnno.formatter());
+    FixedFormatter resolved = getFixedFormatterInstance(context, registry);
+    FixedFormatter formatter = resolved;
+    if (method.getAnnotation(FixedFormatIntern.class) != null) {
+      formatter = StringInterner.getDefault().interned(formatter, context);
+    }
+    FixedFormatCache cacheAnno = method.getAnnotation(FixedFormatCache.class);
+    if (cacheAnno != null) {
+      //the cache is keyed by the resolved formatter, so managers with different registries never share parsed values
+      formatter = ValueCache.of(recordClass, method.getName(), fieldAnno.offset(), resolved, cacheAnno.size()).cached(formatter);
+    }
+    return new FieldPlan(method, setter, getterAccessor, setterAccessor, setterName, datatype, context, getFormatInstructions(method, fieldAnno), formatter);
+  }
+
+  private static Class<?> getDatatype(Method method, Field fieldAnno) {
+    if (!followsBeanStandard(method)) {
+      throw new FixedFormatException(format("Cannot annotate method %s, with %s annotation. %s annotations must be placed on methods starting with 'get' or 'is'", method.getName(), fieldAnno.getClass().getName(), fieldAnno.getClass().getName()));
+    }
+    return method.getReturnType();
+  }
+
+  private static Method getSetter(Class<?> recordClass, String setterName, Class<?> datatype) {
+    try {
+      return recordClass.getMethod(setterName, datatype);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static <C> Constructor<C> getConstructor(Class<C> clazz, Class<?>... parameterTypes) {
+    try {
+      return clazz.getDeclaredConstructor(parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static String stripMethodPrefix(String name) {
+    if (name.startsWith("get") || name.startsWith("set")) {
+      return name.substring(3);
+    } else if (name.startsWith("is")) {
+      return name.substring(2);
+    } else {
+      return name;
+    }
+  }
+
+  private static boolean followsBeanStandard(Method method) {
+    String methodName = method.getName();
+    return methodName.startsWith("get") || methodName.startsWith("is");
+  }
+
+  private static FormatInstructions getFormatInstructions(Method method, Field fieldAnno) {
+    FixedFormatPatternData patternData = getFixedFormatPatternData(method.getAnnotation(FixedFormatPattern.class));
+    FixedFormatBooleanData booleanData = getFixedFormatBooleanData(method.getAnnotation(FixedFormatBoolean.class));
+    FixedFormatNumberData numberData = getFixedFormatNumberData(method.getAnnotation(FixedFormatNumber.class));
+    FixedFormatDecimalData decimalData = getFixedFormatDecimalData(method.getAnnotation(FixedFormatDecimal.class));
+    return new FormatInstructions(fieldAnno.length(), fieldAnno.align(), fieldAnno.paddingChar(), patternData, booleanData, numberData, decimalData);
+  }
+
+  private static FixedFormatPatternData getFixedFormatPatternData(FixedFormatPattern annotation) {
+    FixedFormatPatternData result;
+    if (annotation != null) {
+      result = new FixedFormatPatternData(annotation.value());
+    } else {
+      result = FixedFormatPatternData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static FixedFormatBooleanData getFixedFormatBooleanData(FixedFormatBoolean annotation) {
+    FixedFormatBooleanData result;
+    if (annotation != null) {
+      result = new FixedFormatBooleanData(annotation.trueValue(), annotation.falseValue());
+    } else {
+      result = FixedFormatBooleanData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static FixedFormatNumberData getFixedFormatNumberData(FixedFormatNumber annotation) {
+    FixedFormatNumberData result;
+    if (annotation != null) {
+      result = new FixedFormatNumberData(annotation.sign(), annotation.positiveSign(), annotation.negativeSign());
+    } else {
+      result = FixedFormatNumberData.DEFAULT;
+    }
+    return result;
+  }
+
+  private static FixedFormatDecimalData getFixedFormatDecimalData(FixedFormatDecimal annotation) {
+    FixedFormatDecimalData result;
+    if (annotation != null) {
+      result = new FixedFormatDecimalData(annotation.decimals(), annotation.useDecimalDelimiter(), annotation.decimalDelimiter(), RoundingMode.valueOf(annotation.roundingMode()));
+    } else {
+      result = FixedFormatDecimalData.DEFAULT;
+    }
+    return result;
+  }
+}
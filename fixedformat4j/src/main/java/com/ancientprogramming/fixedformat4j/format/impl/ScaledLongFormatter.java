@@ -0,0 +1,105 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.LongFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+
+import java.math.BigDecimal;
+
+/**
+ * Formatter for decimal data held in a long as the value multiplied by 10 to the power of the decimals of the
+ * field, e.g. an amount in cents when the field has two decimals. No {@link BigDecimal} is created when the field
+ * has an implied delimiter, as the digits of the field then is the scaled value.
+ * <p/>
+ * Use it on fields of type <code>long</code> or {@link Long} annotated with
+ * {@link com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal}:
+ * <pre>
+ * &#064;Field(offset = 1, length = 9, align = Align.RIGHT, paddingChar = '0', formatter = ScaledLongFormatter.class)
+ * &#064;FixedFormatDecimal(decimals = 2)
+ * public long getAmountInCents() {...}
+ * </pre>
+ * A field with an explicit delimiter and more digits after the delimiter than the decimals is rounded according to
+ * the rounding mode of the field.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class ScaledLongFormatter extends AbstractDecimalFormatter<Long> implements LongFixedFormatter {
+
+  /**
+   * Parses the digits directly from the window when the field has an implied delimiter. Subclasses is parsed
+   * through {@link #asObject} as they might override it.
+   */
+  public Long parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != ScaledLongFormatter.class || start == end || instructions.getFixedFormatDecimalData().isUseDecimalDelimiter()) {
+      return super.parse(source, start, end, instructions);
+    }
+    return parseLong(source, start, end, instructions, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Like {@link #parse(CharSequence, int, int, FormatInstructions)} without boxing the result.
+   */
+  public long parseLong(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != ScaledLongFormatter.class || start == end || instructions.getFixedFormatDecimalData().isUseDecimalDelimiter()) {
+      return parse(source, start, end, instructions);
+    }
+    return parseLong(source, start, end, instructions, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Writes the value without boxing it. Subclasses is formatted through {@link #asString} as they might override it.
+   */
+  public void formatLong(long value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    if (getClass() != ScaledLongFormatter.class) {
+      format(value, instructions, buffer, offset);
+      return;
+    }
+    write(asString(value, instructions), instructions, buffer, offset);
+  }
+
+  public Long asObject(String string, FormatInstructions instructions) {
+    FixedFormatDecimalData decimalData = instructions.getFixedFormatDecimalData();
+    if ("".equals(string)) {
+      return 0L;
+    }
+    if (!decimalData.isUseDecimalDelimiter()) {
+      return Long.parseLong(string);
+    }
+    Long result = DecimalParser.toScaledLong(string, decimalData);
+    if (result != null) {
+      return result;
+    }
+    BigDecimal value = new BigDecimal(getStringToConvert(string, instructions));
+    return value.setScale(decimalData.getDecimals(), decimalData.getRoundingMode()).unscaledValue().longValueExact();
+  }
+
+  public String asString(Long obj, FormatInstructions instructions) {
+    return asString(obj != null ? obj : 0L, instructions);
+  }
+
+  private static String asString(long value, FormatInstructions instructions) {
+    FixedFormatDecimalData decimalData = instructions.getFixedFormatDecimalData();
+    int decimals = decimalData.getDecimals();
+    if (decimals >= 0 && decimals < DecimalWriter.POWERS_OF_TEN.length) {
+      return DecimalWriter.write(value, decimals, decimalData.isUseDecimalDelimiter(), decimalData.getDecimalDelimiter());
+    }
+    return DecimalWriter.write(BigDecimal.valueOf(value, decimals), decimals, decimalData.isUseDecimalDelimiter(), decimalData.getDecimalDelimiter());
+  }
+}
@@ -25,6 +25,17 @@ import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
  */
 public class ShortFormatter extends AbstractNumberFormatter<Short> {
 
+  /**
+   * Parses the digits directly from the window. Subclasses is parsed through {@link #asObject} as they might
+   * override it.
+   */
+  public Short parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (getClass() != ShortFormatter.class || start == end) {
+      return super.parse(source, start, end, instructions);
+    }
+    return (short) parseLong(source, start, end, instructions, Short.MIN_VALUE, Short.MAX_VALUE);
+  }
+
   public Short asObject(String string, FormatInstructions instructions) {
     return Short.parseShort(string);
   }
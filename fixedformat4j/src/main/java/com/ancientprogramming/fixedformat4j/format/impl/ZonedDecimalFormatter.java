@@ -0,0 +1,123 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Formatter for zoned decimals, where each digit is a char and the sign is overpunched on the last digit, e.g.
+ * <code>12C</code> is +123 and <code>12L</code> is -123.
+ * <pre>
+ * &#064;Field(offset = 11, length = 9, formatter = ZonedDecimalFormatter.class)
+ * &#064;FixedFormatDecimal(decimals = 2)
+ * public long getAmountInCents() {...}
+ * </pre>
+ * The overpunched digits 0 to 9 is <code>{ABCDEFGHI</code> for positive values and <code>}JKLMNOPQR</code> for
+ * negative values, which is how the EBCDIC zones C and D decodes. Plain digits is positive, and <code>pqrstuvwxy</code>
+ * is read as negative as well, which is how the ASCII zone 7 decodes.
+ * <p/>
+ * The sign is overpunched on the first digit for {@link Sign#PREPEND} and on the last digit otherwise. Fields with
+ * {@link Sign#NOSIGN}, which is the default, is exported with plain digits for positive values. See
+ * {@link AbstractImpliedDecimalFormatter} for the datatypes supported.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class ZonedDecimalFormatter extends AbstractImpliedDecimalFormatter {
+
+  private static final int POSITIVE = 16;
+  private static final int NEGATIVE = 32;
+  private static final BigInteger TEN = BigInteger.TEN;
+  private static final char[] POSITIVE_PUNCHES = "{ABCDEFGHI".toCharArray();
+  private static final char[] NEGATIVE_PUNCHES = "}JKLMNOPQR".toCharArray();
+
+  //the digit of a char plus POSITIVE or NEGATIVE if the sign is overpunched, -1 if the char isn't a digit
+  private static final int[] DIGITS = new int[128];
+
+  static {
+    Arrays.fill(DIGITS, -1);
+    for (int digit = 0; digit < 10; digit++) {
+      DIGITS['0' + digit] = digit;
+      DIGITS[POSITIVE_PUNCHES[digit]] = digit | POSITIVE;
+      DIGITS[NEGATIVE_PUNCHES[digit]] = digit | NEGATIVE;
+      DIGITS['p' + digit] = digit | NEGATIVE;
+    }
+  }
+
+  public ZonedDecimalFormatter(FormatContext context) {
+    super(context);
+  }
+
+  public Number parse(CharSequence source, int start, int end, FormatInstructions instructions) {
+    if (start == end) {
+      throw new NumberFormatException("could not parse an empty zoned decimal");
+    }
+    int signIndex = instructions.getFixedFormatNumberData().getSigning() == Sign.PREPEND ? start : end - 1;
+    boolean negative = false;
+    long magnitude = 0;
+    BigInteger bigMagnitude = null;
+    for (int i = start; i < end; i++) {
+      char c = source.charAt(i);
+      int digit = c < DIGITS.length ? DIGITS[c] : -1;
+      if (digit > 9 && i == signIndex) {
+        negative = (digit & NEGATIVE) != 0;
+        digit &= 0xF;
+      } else if (digit < 0 || digit > 9) {
+        throw new NumberFormatException(String.format("could not parse zoned decimal '%s'. Unexpected char '%s' at index %d", source.subSequence(start, end), c, i - start));
+      }
+      if (bigMagnitude == null && magnitude > (Long.MAX_VALUE - digit) / 10) {
+        bigMagnitude = BigInteger.valueOf(magnitude);
+      }
+      if (bigMagnitude != null) {
+        bigMagnitude = bigMagnitude.multiply(TEN).add(BigInteger.valueOf(digit));
+      } else {
+        magnitude = magnitude * 10 + digit;
+      }
+    }
+    return toValue(negative, magnitude, bigMagnitude, instructions);
+  }
+
+  public void format(Number value, FormatInstructions instructions, ExportBuffer buffer, int offset) {
+    format(value, instructions, buffer.reserve(offset, instructions.getLength()), offset - 1);
+  }
+
+  protected void write(boolean negative, long magnitude, String bigDigits, FormatInstructions instructions, char[] target, int offset) {
+    int length = instructions.getLength();
+    checkDigits(magnitude, bigDigits, length);
+    int last = offset + length - 1;
+    if (bigDigits == null) {
+      for (int i = last; i >= offset; i--) {
+        target[i] = (char) ('0' + magnitude % 10);
+        magnitude /= 10;
+      }
+    } else {
+      for (int i = last; i >= offset; i--) {
+        target[i] = (char) ('0' + digit(bigDigits, last - i));
+      }
+    }
+    Sign signing = instructions.getFixedFormatNumberData().getSigning();
+    if (negative || signing != Sign.NOSIGN) {
+      int signIndex = signing == Sign.PREPEND ? offset : last;
+      target[signIndex] = (negative ? NEGATIVE_PUNCHES : POSITIVE_PUNCHES)[target[signIndex] - '0'];
+    }
+  }
+}
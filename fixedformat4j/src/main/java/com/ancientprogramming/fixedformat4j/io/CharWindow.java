@@ -0,0 +1,68 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+/**
+ * A reusable view of a range of a char array. Records is loaded from the window while it points into the read buffer,
+ * so a record isn't copied into a String before it is loaded.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+final class CharWindow implements CharSequence {
+
+  private char[] chars;
+  private int offset;
+  private int length;
+
+  /**
+   * Point the window at a new range
+   *
+   * @param chars the chars
+   * @param start the index of the first char in the window
+   * @param end the index after the last char in the window
+   */
+  void reset(char[] chars, int start, int end) {
+    this.chars = chars;
+    this.offset = start;
+    this.length = end - start;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return chars[offset + index];
+  }
+
+  /**
+   * @return a copy of the range, as the window is reused
+   */
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+    }
+    return new String(chars, offset + start, end - start);
+  }
+
+  public String toString() {
+    return new String(chars, offset, length);
+  }
+}
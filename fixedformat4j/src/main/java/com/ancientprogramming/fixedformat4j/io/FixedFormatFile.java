@@ -0,0 +1,279 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ByteCharSequence;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+
+/**
+ * Random access to the records of a file of fixed length records in a single byte charset, see
+ * {@link SingleByteCharset}.
+ * <pre>
+ * try (FixedFormatFile&lt;Transaction&gt; file = new FixedFormatFile&lt;Transaction&gt;(manager, Transaction.class, path, StandardCharsets.ISO_8859_1)) {
+ *   Transaction last = file.get(file.size() - 1);
+ *   file.stream().parallel().filter(...).count();
+ * }
+ * </pre>
+ * The file is memory mapped, and record <code>k</code> starts at byte <code>k * (length + terminator length)</code>, so
+ * any record is found without reading the records before it. Each record is loaded directly from the mapped bytes
+ * through {@link FixedFormatManager#load(Class, CharSequence)}. Files larger than 2GB is mapped in several regions
+ * holding a whole number of records each.
+ * <p/>
+ * With {@link RecordBoundary#LINE} each record is followed by the same line terminator, which is detected after the
+ * first record. The last record may lack the terminator, and line terminators after the last record, like trailing
+ * blank lines, is ignored. With {@link RecordBoundary#LENGTH} the records has no
+ * terminator. In both cases the last record may be shorter than the record length.
+ * <p/>
+ * A file can be read by several threads, and its spliterator splits the records evenly for parallel streams. The
+ * records is loaded by the manager, which therefore has to be thread-safe as well.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class FixedFormatFile<T> implements Closeable {
+
+  private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final FileChannel channel;
+  private final SingleByteCharset charset;
+  private final int recordLength;
+  private final int terminatorLength;
+  private final long stride;
+  //the size of the file without the line terminators after the last record
+  private final long dataSize;
+  private final long size;
+  private final long recordsPerRegion;
+  private final MappedByteBuffer[] regions;
+
+  /**
+   * Map a file of newline terminated records
+   *
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records. It has to be marked with a record annotation having a length
+   * @param path the file
+   * @param charset the charset of the file. It has to encode each char in one byte
+   * @throws IOException if the file couldn't be mapped
+   * @throws FixedFormatException if the record class has no fixed length, the charset isn't a single byte charset or
+   * the first record isn't followed by a line terminator
+   */
+  public FixedFormatFile(FixedFormatManager manager, Class<T> recordClass, Path path, Charset charset) throws IOException {
+    this(manager, recordClass, path, charset, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records. It has to be marked with a record annotation having a length
+   * @param path the file
+   * @param charset the charset of the file. It has to encode each char in one byte
+   * @param boundary how the records is separated
+   * @throws IOException if the file couldn't be mapped
+   * @throws FixedFormatException if the record class has no fixed length, the charset isn't a single byte charset or
+   * the records is separated by lines and the first record isn't followed by a line terminator
+   */
+  public FixedFormatFile(FixedFormatManager manager, Class<T> recordClass, Path path, Charset charset, RecordBoundary boundary) throws IOException {
+    this(manager, recordClass, path, charset, boundary, MAX_REGION_SIZE);
+  }
+
+  FixedFormatFile(FixedFormatManager manager, Class<T> recordClass, Path path, Charset charset, RecordBoundary boundary, long maxRegionSize) throws IOException {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.recordLength = FixedFormatReader.recordLength(recordClass);
+    this.charset = SingleByteCharset.forCharset(charset);
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      this.dataSize = boundary == RecordBoundary.LINE ? withoutTrailingTerminators(channel.size()) : channel.size();
+      this.terminatorLength = boundary == RecordBoundary.LINE ? detectTerminatorLength() : 0;
+      this.stride = recordLength + terminatorLength;
+      if (stride > maxRegionSize) {
+        throw new FixedFormatException(format("records of %s bytes doesn't fit in a region of %s bytes", stride, maxRegionSize));
+      }
+      this.size = (dataSize + stride - 1) / stride;
+      this.recordsPerRegion = maxRegionSize / stride;
+      this.regions = new MappedByteBuffer[(int) ((size + recordsPerRegion - 1) / recordsPerRegion)];
+      for (int i = 0; i < regions.length; i++) {
+        long start = i * recordsPerRegion * stride;
+        regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(recordsPerRegion * stride, dataSize - start));
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    } catch (RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private long withoutTrailingTerminators(long fileSize) throws IOException {
+    ByteBuffer tail = ByteBuffer.allocate(64);
+    long end = fileSize;
+    while (end > 0) {
+      tail.clear();
+      long start = Math.max(0, end - tail.capacity());
+      tail.limit((int) (end - start));
+      while (tail.hasRemaining()) {
+        if (channel.read(tail, start + tail.position()) == -1) {
+          break;
+        }
+      }
+      for (int i = tail.position() - 1; i >= 0; i--) {
+        char c = charset.decode(tail.get(i));
+        if (c != '\r' && c != '\n') {
+          return start + i + 1;
+        }
+      }
+      end = start;
+    }
+    return 0;
+  }
+
+  private int detectTerminatorLength() throws IOException {
+    if (dataSize <= recordLength) {
+      return 0;
+    }
+    MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, recordLength, Math.min(2, dataSize - recordLength));
+    char first = charset.decode(head.get(0));
+    if (first == '\r') {
+      return head.limit() > 1 && charset.decode(head.get(1)) == '\n' ? 2 : 1;
+    }
+    if (first == '\n') {
+      return 1;
+    }
+    throw new FixedFormatException(format("the first record of %s chars isn't followed by a line terminator", recordLength));
+  }
+
+  /**
+   * @return the number of records in the file
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Load a record
+   *
+   * @param index the index of the record. The first record has index 0
+   * @return the record
+   * @throws IndexOutOfBoundsException if there is no record with the index
+   * @throws FixedFormatException if the record couldn't be loaded
+   */
+  public T get(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(format("index %s, size %s", index, size));
+    }
+    MappedByteBuffer region = regions[(int) (index / recordsPerRegion)];
+    int offset = (int) ((index % recordsPerRegion) * stride);
+    int length = Math.min(recordLength, region.limit() - offset);
+    return manager.load(recordClass, new ByteCharSequence(region, offset, length, charset));
+  }
+
+  /**
+   * @param from the index of the first record, inclusive
+   * @param to the index of the last record, exclusive
+   * @return a sequential stream of the records in the range
+   * @throws IndexOutOfBoundsException if the range isn't within the file
+   */
+  public Stream<T> range(long from, long to) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException(format("from %s, to %s, size %s", from, to, size));
+    }
+    return StreamSupport.stream(new RecordSpliterator(from, to), false);
+  }
+
+  /**
+   * @return a sequential stream of all records. Call {@link Stream#parallel()} to load the records in parallel
+   */
+  public Stream<T> stream() {
+    return range(0, size);
+  }
+
+  /**
+   * @return a spliterator of all records, splitting the records into two halves
+   */
+  public Spliterator<T> spliterator() {
+    return new RecordSpliterator(0, size);
+  }
+
+  /**
+   * Closes the file. The mappings is released when they are garbage collected, and the file must not be used
+   * afterwards
+   */
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private final class RecordSpliterator implements Spliterator<T> {
+
+    private long index;
+    private final long end;
+
+    private RecordSpliterator(long index, long end) {
+      this.index = index;
+      this.end = end;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (index >= end) {
+        return false;
+      }
+      action.accept(get(index++));
+      return true;
+    }
+
+    public void forEachRemaining(Consumer<? super T> action) {
+      while (index < end) {
+        action.accept(get(index++));
+      }
+    }
+
+    public Spliterator<T> trySplit() {
+      long middle = (index + end) >>> 1;
+      if (middle <= index) {
+        return null;
+      }
+      RecordSpliterator prefix = new RecordSpliterator(index, middle);
+      index = middle;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return end - index;
+    }
+
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+  }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+
+/**
+ * Reads the records of one @{@link Record} class from a stream of chars.
+ * <pre>
+ * try (FixedFormatReader&lt;Transaction&gt; reader = new FixedFormatReader&lt;Transaction&gt;(manager, Transaction.class, path, StandardCharsets.ISO_8859_1)) {
+ *   reader.stream().filter(...).forEach(...);
+ * }
+ * </pre>
+ * The chars is read into a reused buffer, and each record is loaded directly from its range of the buffer through
+ * {@link FixedFormatManager#load(Class, CharSequence)}. No String is created per record unless a formatter needs one.
+ * The buffer grows if a record is longer than the buffer.
+ * <p/>
+ * Empty lines is skipped. The records can be read once, either one by one through {@link #read()}, through an
+ * iterator or stream or by a callback. A reader is not thread-safe.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class FixedFormatReader<T> implements Iterable<T>, Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final FixedFormatManager manager;
+  private final Class<T> recordClass;
+  private final Reader reader;
+  private final RecordBoundary boundary;
+  private final int recordLength;
+  private final CharWindow window = new CharWindow();
+
+  private char[] buffer;
+  private int position;
+  private int limit;
+  private boolean skipLineFeed;
+  private long recordNumber;
+
+  /**
+   * Read newline terminated records from the reader
+   *
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records
+   * @param reader the reader to read from. It doesn't need to be buffered
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Reader reader) {
+    this(manager, recordClass, reader, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records
+   * @param reader the reader to read from. It doesn't need to be buffered
+   * @param boundary how the records is separated
+   * @throws FixedFormatException if the records is separated by length and the record class has no fixed length
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Reader reader, RecordBoundary boundary) {
+    this(manager, recordClass, reader, boundary, BUFFER_SIZE);
+  }
+
+  /**
+   * Read newline terminated records from the stream
+   *
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records
+   * @param in the stream to read from
+   * @param charset the charset to decode the stream with
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, InputStream in, Charset charset) {
+    this(manager, recordClass, in, charset, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records
+   * @param in the stream to read from
+   * @param charset the charset to decode the stream with
+   * @param boundary how the records is separated
+   * @throws FixedFormatException if the records is separated by length and the record class has no fixed length
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, InputStream in, Charset charset, RecordBoundary boundary) {
+    this(manager, recordClass, new InputStreamReader(in, charset), boundary);
+  }
+
+  /**
+   * Read newline terminated records from the file
+   *
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records
+   * @param path the file to read
+   * @param charset the charset of the file
+   * @throws IOException if the file couldn't be opened
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Path path, Charset charset) throws IOException {
+    this(manager, recordClass, path, charset, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to load the records with
+   * @param recordClass the class of the records
+   * @param path the file to read
+   * @param charset the charset of the file
+   * @param boundary how the records is separated
+   * @throws IOException if the file couldn't be opened
+   * @throws FixedFormatException if the records is separated by length and the record class has no fixed length
+   */
+  public FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Path path, Charset charset, RecordBoundary boundary) throws IOException {
+    this(manager, recordClass, Files.newInputStream(path), charset, boundary);
+  }
+
+  FixedFormatReader(FixedFormatManager manager, Class<T> recordClass, Reader reader, RecordBoundary boundary, int bufferSize) {
+    this.manager = manager;
+    this.recordClass = recordClass;
+    this.reader = reader;
+    this.boundary = boundary;
+    this.recordLength = boundary == RecordBoundary.LENGTH ? recordLength(recordClass) : -1;
+    this.buffer = new char[Math.max(bufferSize, recordLength)];
+  }
+
+  static int recordLength(Class<?> recordClass) {
+    Record record = recordClass.getAnnotation(Record.class);
+    if (record == null || record.length() <= 0) {
+      throw new FixedFormatException(format("%s has to be marked with a record annotation having a length to be separated by length", recordClass.getName()));
+    }
+    return record.length();
+  }
+
+  /**
+   * Read the next record
+   *
+   * @return the record or <code>null</code> if there is no more records
+   * @throws IOException if the underlying reader fails
+   * @throws FixedFormatException if the record couldn't be loaded
+   */
+  public T read() throws IOException {
+    if (!(boundary == RecordBoundary.LINE ? nextLine() : nextBlock())) {
+      return null;
+    }
+    recordNumber++;
+    return manager.load(recordClass, window);
+  }
+
+  /**
+   * Read all remaining records and give them to the callback
+   *
+   * @param callback called with each record in order
+   * @return the number of records read
+   * @throws IOException if the underlying reader fails
+   * @throws FixedFormatException if a record couldn't be loaded
+   */
+  public long readAll(Consumer<? super T> callback) throws IOException {
+    long count = 0;
+    for (T record = read(); record != null; record = read()) {
+      callback.accept(record);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * @return an iterator of the remaining records. An {@link IOException} is thrown as an {@link UncheckedIOException}
+   */
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+      private T next;
+
+      public boolean hasNext() {
+        if (next == null) {
+          try {
+            next = read();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        return next != null;
+      }
+
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+      }
+    };
+  }
+
+  /**
+   * @return a sequential stream of the remaining records. Closing the stream closes this reader. An
+   * {@link IOException} is thrown as an {@link UncheckedIOException}
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false)
+        .onClose(new Runnable() {
+          public void run() {
+            try {
+              close();
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+        });
+  }
+
+  /**
+   * @return the number of records read so far, which is the number of the last record read
+   */
+  public long getRecordNumber() {
+    return recordNumber;
+  }
+
+  /**
+   * Closes the underlying reader
+   */
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  private boolean nextLine() throws IOException {
+    while (true) {
+      if (skipLineFeed) {
+        if (position == limit && !fill()) {
+          return false;
+        }
+        if (buffer[position] == '\n') {
+          position++;
+        }
+        skipLineFeed = false;
+      }
+      int scanned = 0;
+      int end = -1;
+      while (end == -1) {
+        for (int i = position + scanned; i < limit; i++) {
+          if (buffer[i] == '\n' || buffer[i] == '\r') {
+            end = i;
+            break;
+          }
+        }
+        if (end == -1) {
+          scanned = limit - position;
+          if (!fill()) {
+            if (position == limit) {
+              return false;
+            }
+            //the last line has no terminator
+            end = limit;
+          }
+        }
+      }
+      window.reset(buffer, position, end);
+      if (end < limit) {
+        skipLineFeed = buffer[end] == '\r';
+        position = end + 1;
+      } else {
+        position = end;
+      }
+      if (window.length() > 0) {
+        return true;
+      }
+    }
+  }
+
+  private boolean nextBlock() throws IOException {
+    while (limit - position < recordLength) {
+      if (!fill()) {
+        if (position == limit) {
+          return false;
+        }
+        //the last record is shorter
+        window.reset(buffer, position, limit);
+        position = limit;
+        return true;
+      }
+    }
+    window.reset(buffer, position, position + recordLength);
+    position += recordLength;
+    return true;
+  }
+
+  /**
+   * Move the unread chars to the start of the buffer and read more chars after them. The buffer is doubled if it is
+   * full.
+   *
+   * @return <code>false</code> if the end of the stream is reached
+   */
+  private boolean fill() throws IOException {
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    if (limit == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+    int read = reader.read(buffer, limit, buffer.length - limit);
+    if (read == -1) {
+      return false;
+    }
+    limit += read;
+    return true;
+  }
+}
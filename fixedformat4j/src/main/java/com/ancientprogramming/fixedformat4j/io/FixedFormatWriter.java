@@ -0,0 +1,422 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes records of one @{@link com.ancientprogramming.fixedformat4j.annotation.Record} class to a stream of chars or
+ * bytes.
+ * <pre>
+ * try (FixedFormatWriter&lt;Transaction&gt; writer = new FixedFormatWriter&lt;Transaction&gt;(manager, path, StandardCharsets.ISO_8859_1)) {
+ *   writer.writeAll(transactions);
+ * }
+ * </pre>
+ * Each record is exported into a reused {@link ExportBuffer} through
+ * {@link FixedFormatManager#exportTo(Object, ExportBuffer)} and copied into a batch of chars together with its line
+ * separator, so no String is created per record. Full batches is written to a {@link Writer} as they are, or encoded
+ * by one reused {@link CharsetEncoder} into a reused byte buffer for an {@link OutputStream} or {@link FileChannel}.
+ * Records in a single byte charset is encoded directly from the export buffer into the byte batch through the table of
+ * their {@link SingleByteCharset} instead of an encoder, so byte fields like packed decimals is written unencoded.
+ * <p/>
+ * Nothing is written to the target before a batch is full, {@link #flush()} is called or the writer is closed. A writer
+ * is not thread-safe.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class FixedFormatWriter<T> implements Closeable, Flushable {
+
+  private static final int BATCH_SIZE = 1 << 16;
+
+  private final FixedFormatManager manager;
+  private final Sink sink;
+  private final RecordBoundary boundary;
+  private final ExportBuffer record = new ExportBuffer();
+  private final int batchSize;
+  private String separator;
+  private char[] batch;
+  private int position;
+  private boolean closed;
+
+  /**
+   * Write newline terminated records to the writer
+   *
+   * @param manager the manager to export the records with
+   * @param writer the writer to write to. It doesn't need to be buffered
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Writer writer) {
+    this(manager, writer, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to export the records with
+   * @param writer the writer to write to. It doesn't need to be buffered
+   * @param boundary how the records is separated
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Writer writer, RecordBoundary boundary) {
+    this(manager, new CharSink(writer), boundary, BATCH_SIZE);
+  }
+
+  /**
+   * Write newline terminated records to the stream
+   *
+   * @param manager the manager to export the records with
+   * @param out the stream to write to. It doesn't need to be buffered
+   * @param charset the charset to encode the records with
+   */
+  public FixedFormatWriter(FixedFormatManager manager, OutputStream out, Charset charset) {
+    this(manager, out, charset, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to export the records with
+   * @param out the stream to write to. It doesn't need to be buffered
+   * @param charset the charset to encode the records with
+   * @param boundary how the records is separated
+   */
+  public FixedFormatWriter(FixedFormatManager manager, OutputStream out, Charset charset, RecordBoundary boundary) {
+    this(manager, new ByteSink(charset, out, null, BATCH_SIZE), boundary, BATCH_SIZE);
+  }
+
+  /**
+   * Write newline terminated records to the channel
+   *
+   * @param manager the manager to export the records with
+   * @param channel the channel to write to from its current position
+   * @param charset the charset to encode the records with
+   */
+  public FixedFormatWriter(FixedFormatManager manager, FileChannel channel, Charset charset) {
+    this(manager, channel, charset, RecordBoundary.LINE);
+  }
+
+  /**
+   * @param manager the manager to export the records with
+   * @param channel the channel to write to from its current position
+   * @param charset the charset to encode the records with
+   * @param boundary how the records is separated
+   */
+  public FixedFormatWriter(FixedFormatManager manager, FileChannel channel, Charset charset, RecordBoundary boundary) {
+    this(manager, new ByteSink(charset, null, channel, BATCH_SIZE), boundary, BATCH_SIZE);
+  }
+
+  /**
+   * Write newline terminated records to the file. An existing file is truncated
+   *
+   * @param manager the manager to export the records with
+   * @param path the file to write
+   * @param charset the charset to encode the records with
+   * @throws IOException if the file couldn't be opened
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Path path, Charset charset) throws IOException {
+    this(manager, path, charset, RecordBoundary.LINE);
+  }
+
+  /**
+   * Write records to the file. An existing file is truncated
+   *
+   * @param manager the manager to export the records with
+   * @param path the file to write
+   * @param charset the charset to encode the records with
+   * @param boundary how the records is separated
+   * @throws IOException if the file couldn't be opened
+   */
+  public FixedFormatWriter(FixedFormatManager manager, Path path, Charset charset, RecordBoundary boundary) throws IOException {
+    this(manager, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), charset, boundary);
+  }
+
+  FixedFormatWriter(FixedFormatManager manager, Sink sink, RecordBoundary boundary, int batchSize) {
+    this.manager = manager;
+    this.sink = sink;
+    this.boundary = boundary;
+    this.separator = boundary == RecordBoundary.LINE ? System.getProperty("line.separator") : "";
+    this.batchSize = batchSize;
+    this.batch = new char[batchSize];
+  }
+
+  /**
+   * @param lineSeparator the separator written after each record when the records is separated by lines. The default
+   * is the line separator of the platform. Records separated by length has no separator
+   */
+  public void setLineSeparator(String lineSeparator) {
+    if (boundary == RecordBoundary.LINE) {
+      separator = lineSeparator;
+    }
+  }
+
+  /**
+   * Export the record and add it to the batch
+   *
+   * @param instance the record to write
+   * @throws IOException if the batch was full and couldn't be written
+   * @throws FixedFormatException if the record couldn't be exported
+   */
+  public void write(T instance) throws IOException {
+    if (closed) {
+      throw new IOException("the writer is closed");
+    }
+    manager.exportTo(instance, record);
+    if (sink.write(record, separator)) {
+      return;
+    }
+    int length = record.length();
+    int required = length + separator.length();
+    if (position + required > batch.length) {
+      writeBatch(false);
+      if (position + required > batch.length) {
+        batch = Arrays.copyOf(batch, position + required);
+      }
+    }
+    record.getChars(0, length, batch, position);
+    separator.getChars(0, separator.length(), batch, position + length);
+    position += required;
+  }
+
+  /**
+   * @param records the records to write in order
+   * @return the number of records written
+   * @throws IOException if a batch couldn't be written
+   * @throws FixedFormatException if a record couldn't be exported
+   */
+  public long writeAll(Iterable<? extends T> records) throws IOException {
+    return writeAll(records.iterator());
+  }
+
+  /**
+   * @param records the records to write in order
+   * @return the number of records written
+   * @throws IOException if a batch couldn't be written
+   * @throws FixedFormatException if a record couldn't be exported
+   */
+  public long writeAll(Stream<? extends T> records) throws IOException {
+    return writeAll(records.iterator());
+  }
+
+  private long writeAll(Iterator<? extends T> records) throws IOException {
+    long count = 0;
+    while (records.hasNext()) {
+      write(records.next());
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Write the batch and flush the target
+   */
+  public void flush() throws IOException {
+    writeBatch(false);
+    sink.flush();
+  }
+
+  /**
+   * Write the batch and close the target
+   */
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      writeBatch(true);
+      sink.flush();
+    } finally {
+      sink.close();
+    }
+  }
+
+  private void writeBatch(boolean endOfInput) throws IOException {
+    position = sink.write(batch, position, endOfInput);
+    if (batch.length > batchSize && position <= batchSize) {
+      //a single record was longer than a batch
+      batch = Arrays.copyOf(batch, batchSize);
+    }
+  }
+
+  /**
+   * The target the batches is written to
+   */
+  abstract static class Sink implements Closeable, Flushable {
+
+    /**
+     * Write the chars of the batch
+     *
+     * @param chars the batch
+     * @param length the number of chars in the batch
+     * @param endOfInput whether this is the last batch
+     * @return the number of chars left unwritten at the start of the batch
+     */
+    abstract int write(char[] chars, int length, boolean endOfInput) throws IOException;
+
+    /**
+     * Add the record and its separator directly to the batch of the sink instead of the batch of chars
+     *
+     * @param record the exported record
+     * @param separator the separator to write after the record
+     * @return <code>false</code> if the record has to be added to the batch of chars
+     */
+    boolean write(ExportBuffer record, String separator) throws IOException {
+      return false;
+    }
+  }
+
+  static final class CharSink extends Sink {
+    private final Writer writer;
+
+    CharSink(Writer writer) {
+      this.writer = writer;
+    }
+
+    int write(char[] chars, int length, boolean endOfInput) throws IOException {
+      writer.write(chars, 0, length);
+      return 0;
+    }
+
+    public void flush() throws IOException {
+      writer.flush();
+    }
+
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  static final class ByteSink extends Sink {
+    private final SingleByteCharset table;
+    private final CharsetEncoder encoder;
+    private final OutputStream out;
+    private final FileChannel channel;
+    private final ByteBuffer bytes;
+
+    ByteSink(Charset charset, OutputStream out, FileChannel channel, int batchSize) {
+      //unmappable chars is replaced like an OutputStreamWriter does
+      this.table = SingleByteCharset.isSingleByte(charset) ? SingleByteCharset.forCharset(charset) : null;
+      this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.out = out;
+      this.channel = channel;
+      //room for at least a surrogate pair, as the encoder can't write part of a char
+      int capacity = Math.max(16, (int) Math.ceil(batchSize * (double) encoder.maxBytesPerChar()));
+      this.bytes = channel != null ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    int write(char[] chars, int length, boolean endOfInput) throws IOException {
+      if (table != null) {
+        for (int begin = 0; begin < length; ) {
+          int end = Math.min(length, begin + bytes.remaining());
+          table.encode(chars, begin, end, bytes);
+          drain();
+          begin = end;
+        }
+        return 0;
+      }
+      CharBuffer in = CharBuffer.wrap(chars, 0, length);
+      while (true) {
+        CoderResult result = encoder.encode(in, bytes, endOfInput);
+        if (result.isOverflow()) {
+          drain();
+        } else if (result.isUnderflow()) {
+          break;
+        } else {
+          result.throwException();
+        }
+      }
+      if (endOfInput) {
+        while (encoder.flush(bytes).isOverflow()) {
+          drain();
+        }
+        encoder.reset();
+      }
+      drain();
+      //a surrogate pair split between two batches is kept for the next batch
+      int remaining = in.remaining();
+      System.arraycopy(chars, in.position(), chars, 0, remaining);
+      return remaining;
+    }
+
+    boolean write(ExportBuffer record, String separator) throws IOException {
+      if (table == null) {
+        return false;
+      }
+      int length = record.length();
+      if (bytes.remaining() < length + separator.length()) {
+        drain();
+      }
+      for (int begin = 0; begin < length; ) {
+        if (!bytes.hasRemaining()) {
+          drain();
+        }
+        int end = Math.min(length, begin + bytes.remaining());
+        record.getBytes(begin, end, table, bytes);
+        begin = end;
+      }
+      for (int i = 0; i < separator.length(); i++) {
+        if (!bytes.hasRemaining()) {
+          drain();
+        }
+        bytes.put(table.encode(separator.charAt(i)));
+      }
+      return true;
+    }
+
+    private void drain() throws IOException {
+      bytes.flip();
+      if (channel != null) {
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+      } else {
+        out.write(bytes.array(), bytes.arrayOffset(), bytes.limit());
+      }
+      bytes.clear();
+    }
+
+    public void flush() throws IOException {
+      drain();
+      if (out != null) {
+        out.flush();
+      }
+    }
+
+    public void close() throws IOException {
+      if (channel != null) {
+        channel.close();
+      } else {
+        out.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+/**
+ * How the records of a stream is separated
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public enum RecordBoundary {
+
+  /**
+   * Each record is terminated by a line feed, a carriage return or a carriage return followed by a line feed. The
+   * terminator of the last record is optional.
+   */
+  LINE,
+
+  /**
+   * The records is blocks of {@link com.ancientprogramming.fixedformat4j.annotation.Record#length()} chars without
+   * separators. The last record may be shorter.
+   */
+  LENGTH
+}
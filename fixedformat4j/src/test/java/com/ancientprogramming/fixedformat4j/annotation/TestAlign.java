@@ -56,4 +56,27 @@ public class TestAlign extends TestCase {
     assertEquals("foobar", Align.LEFT.remove("foobar  ", ' '));
     assertEquals("  foobar", Align.LEFT.remove("  foobar", ' '));
   }
+
+  public void testRemoveRange() {
+    assertEquals("foo", Align.RIGHT.remove("xx  foox", 2, 7, ' '));
+    assertEquals("", Align.RIGHT.remove("x   x", 1, 4, ' '));
+    assertEquals("foo", Align.LEFT.remove("xfoo  xx", 1, 6, ' '));
+    assertEquals("", Align.LEFT.remove("x   x", 1, 4, ' '));
+    assertEquals(4, Align.RIGHT.valueStart("xx  foox", 2, 7, ' '));
+    assertEquals(7, Align.RIGHT.valueEnd("xx  foox", 4, 7, ' '));
+    assertEquals(1, Align.LEFT.valueStart("xfoo  xx", 1, 6, ' '));
+    assertEquals(4, Align.LEFT.valueEnd("xfoo  xx", 1, 6, ' '));
+  }
+
+  public void testApplyIntoBuffer() {
+    char[] target = "xxxxxxxxxx".toCharArray();
+    Align.RIGHT.apply("foo", 5, '_', target, 1);
+    Align.LEFT.apply(new StringBuilder("bar"), 4, '_', target, 6);
+    assertEquals("x__foobar_", new String(target));
+    Align.RIGHT.apply("foobar", 2, '_', target, 0);
+    Align.LEFT.apply("foobar", 2, '_', target, 2);
+    assertEquals("arfooobar_", new String(target));
+    Align.LEFT.apply("xfoobarx", 1, 7, 6, '_', target, 4);
+    assertEquals("arfofoobar", new String(target));
+  }
 }
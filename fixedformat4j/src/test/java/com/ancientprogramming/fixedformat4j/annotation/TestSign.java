@@ -38,5 +38,33 @@ public class TestSign extends TestCase {
     assertEquals("-2001", Sign.PREPEND.remove("-000002001", new FormatInstructions(10, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null)));
    }
 
+  public void testRemoveRange() {
+    FormatInstructions instructions = new FormatInstructions(6, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null);
+    assertEquals("-12", Sign.PREPEND.remove("xx-00012xx", 2, 8, instructions));
+    assertEquals("12", Sign.PREPEND.remove("xx+00012xx", 2, 8, instructions));
+    assertEquals("0", Sign.PREPEND.remove("xx-00000xx", 2, 8, instructions));
+    assertEquals("-12", Sign.APPEND.remove("xx00012-xx", 2, 8, instructions));
+    assertEquals("12", Sign.NOSIGN.remove("xx000012xx", 2, 8, instructions));
+    assertEquals("0", Sign.NOSIGN.remove("xx000000xx", 2, 8, instructions));
+  }
+
+  public void testApplyIntoBuffer() {
+    FormatInstructions instructions = new FormatInstructions(5, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null);
+    char[] target = "xxxxxxxxxxxx".toCharArray();
+    Sign.PREPEND.apply("-12", instructions, target, 1);
+    Sign.APPEND.apply("34", instructions, target, 6);
+    assertEquals("x-00120034+x", new String(target));
+    Sign.APPEND.apply("-123456", instructions, target, 0);
+    assertEquals("3456-", new String(target, 0, 5));
+  }
 
+  public void testApplyShortFields() {
+    assertEquals("-", Sign.PREPEND.apply("-12", new FormatInstructions(1, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null)));
+    assertEquals("+", Sign.APPEND.apply("12", new FormatInstructions(1, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null)));
+    assertEquals("+", Sign.APPEND.apply("12", new FormatInstructions(0, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null)));
+    assertEquals("", Sign.NOSIGN.apply("12", new FormatInstructions(0, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null)));
+    //the sign replaces the first char of the aligned value
+    assertEquals("+2   ", Sign.PREPEND.apply("12", new FormatInstructions(5, Align.LEFT, ' ', null, null, FixedFormatNumberData.DEFAULT, null)));
+    assertEquals("2   -", Sign.APPEND.apply("-12", new FormatInstructions(5, Align.LEFT, ' ', null, null, FixedFormatNumberData.DEFAULT, null)));
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import com.ancientprogramming.fixedformat4j.format.impl.BigDecimalFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.IntegerFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+import junit.framework.TestCase;
+
+import java.math.RoundingMode;
+
+/**
+ * Parsing a window of a record must give the same result as parsing the field copied out of the record.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestAbstractFixedFormatter extends TestCase {
+
+  public void testStringWindow() {
+    FixedFormatter<String> formatter = new StringFormatter();
+    assertWindow(formatter, "xx  abc  xx", 2, 9, new FormatInstructions(7, Align.LEFT, ' ', null, null, null, null));
+    assertWindow(formatter, "xx  abc  xx", 2, 9, new FormatInstructions(7, Align.RIGHT, ' ', null, null, null, null));
+    assertWindow(formatter, "xx       xx", 2, 9, new FormatInstructions(7, Align.LEFT, ' ', null, null, null, null));
+    assertEquals("abc", formatter.parse("xx  abc  xx", 2, 9, new FormatInstructions(7, Align.RIGHT, ' ', null, null, null, null)).trim());
+  }
+
+  public void testNumberWindow() {
+    FixedFormatter<Integer> formatter = new IntegerFormatter();
+    String[] values = {"000123", "-00123", "+00123", "000000", "-00000", "+", "-", "0", "1", "00123-", "00123+", "000000+", "12    ", "-12   "};
+    for (Sign sign : Sign.values()) {
+      for (Align align : Align.values()) {
+        FormatInstructions instructions = new FormatInstructions(6, align, align == Align.RIGHT ? '0' : ' ', null, null, new FixedFormatNumberData(sign, '+', '-'), null);
+        for (String value : values) {
+          assertWindow(formatter, "ab" + value + "cd", 2, 2 + value.length(), instructions);
+        }
+      }
+    }
+  }
+
+  public void testDecimalWindow() {
+    FixedFormatter<java.math.BigDecimal> formatter = new BigDecimalFormatter();
+    FormatInstructions instructions = new FormatInstructions(8, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.APPEND, '+', '-'), new FixedFormatDecimalData(2, false, '.', RoundingMode.HALF_UP));
+    assertWindow(formatter, "x0001234-x", 1, 9, instructions);
+    assertWindow(formatter, "x0001234+x", 1, 9, instructions);
+  }
+
+  public void testLegacyFormatterParsesCopy() {
+    FixedFormatter<String> legacy = new StringFormatter() {
+      public String parse(String value, FormatInstructions instructions) {
+        return "[" + value + "]";
+      }
+    };
+    assertEquals("[ abc ]", legacy.parse("x abc x", 1, 6, new FormatInstructions(5, Align.LEFT, ' ', null, null, null, null)));
+  }
+
+  private <T> void assertWindow(FixedFormatter<T> formatter, String source, int start, int end, FormatInstructions instructions) {
+    Object expected;
+    try {
+      expected = formatter.parse(source.substring(start, end), instructions);
+    } catch (RuntimeException e) {
+      expected = e.getClass();
+    }
+    Object actual;
+    try {
+      actual = formatter.parse(source, start, end, instructions);
+    } catch (RuntimeException e) {
+      actual = e.getClass();
+    }
+    assertEquals(source.substring(start, end) + " " + instructions, expected, actual);
+  }
+
+  public void testFormatIntoBuffer() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 10, '.');
+    new StringFormatter().format("abc", new FormatInstructions(4, Align.RIGHT, ' ', null, null, null, null), buffer, 2);
+    new IntegerFormatter().format(-12, new FormatInstructions(4, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.APPEND, '+', '-'), null), buffer, 7);
+    assertEquals(". abc.012-", buffer.toString());
+  }
+
+  public void testLegacyFormatterFormatsString() {
+    FixedFormatter<String> legacy = new StringFormatter() {
+      public String format(String value, FormatInstructions instructions) {
+        return "[" + value + "]";
+      }
+    };
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 0, ' ');
+    legacy.format("abc", new FormatInstructions(3, Align.LEFT, ' ', null, null, null, null), buffer, 1);
+    assertEquals("[abc]", buffer.toString());
+  }
+}
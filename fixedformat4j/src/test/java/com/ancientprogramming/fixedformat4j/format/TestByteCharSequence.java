@@ -0,0 +1,93 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestByteCharSequence extends TestCase {
+
+  public void testDecode() {
+    Charset ebcdic = Charset.forName("IBM037");
+    ByteBuffer bytes = ByteBuffer.wrap("xxÆble 42xx".getBytes(ebcdic));
+    ByteCharSequence sequence = new ByteCharSequence(bytes, 2, 9, SingleByteCharset.forCharset(ebcdic));
+    assertEquals(9, sequence.length());
+    assertEquals('Æ', sequence.charAt(0));
+    assertEquals("42", sequence.subSequence(5, 7));
+    assertEquals("Æble 42xx", sequence.toString());
+    try {
+      sequence.charAt(9);
+      fail("expected index out of bounds");
+    } catch (IndexOutOfBoundsException e) {
+      //expected
+    }
+  }
+
+  public void testEncode() {
+    for (String name : new String[]{"US-ASCII", "ISO-8859-1", "windows-1252", "IBM037", "IBM1047"}) {
+      Charset charset = Charset.forName(name);
+      SingleByteCharset table = SingleByteCharset.forCharset(charset);
+      char[] chars = new char[0x3000];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = (char) i;
+      }
+      ByteBuffer bytes = ByteBuffer.allocateDirect(chars.length + 1);
+      bytes.put((byte) 1);
+      table.encode(chars, 0, chars.length, bytes);
+      assertEquals(bytes.capacity(), bytes.position());
+      byte[] expected = new String(chars).getBytes(charset);
+      for (int i = 0; i < chars.length; i++) {
+        assertEquals(name + " " + i, expected[i], bytes.get(i + 1));
+      }
+    }
+  }
+
+  public void testEncodeEveryChar() {
+    for (String name : new String[]{"US-ASCII", "ISO-8859-1", "IBM037", "x-MacRoman"}) {
+      Charset charset = Charset.forName(name);
+      SingleByteCharset table = SingleByteCharset.forCharset(charset);
+      for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+        ByteBuffer expected = charset.encode(String.valueOf((char) c));
+        assertEquals(name + " " + Integer.toHexString(c), 1, expected.remaining());
+        assertEquals(name + " " + Integer.toHexString(c), expected.get(0), table.encode((char) c));
+      }
+    }
+  }
+
+  public void testSingleByteCharset() {
+    SingleByteCharset ascii = SingleByteCharset.forCharset(StandardCharsets.US_ASCII);
+    assertSame(ascii, SingleByteCharset.forCharset(StandardCharsets.US_ASCII));
+    assertEquals('A', ascii.decode((byte) 'A'));
+    assertEquals('\uFFFD', ascii.decode((byte) 0xC6));
+    assertEquals('Æ', SingleByteCharset.forCharset(StandardCharsets.ISO_8859_1).decode((byte) 0xC6));
+    assertTrue(SingleByteCharset.isSingleByte(StandardCharsets.ISO_8859_1));
+    assertFalse(SingleByteCharset.isSingleByte(StandardCharsets.UTF_8));
+    try {
+      SingleByteCharset.forCharset(StandardCharsets.UTF_16);
+      fail("expected multi byte charset to be rejected");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestExportBuffer extends TestCase {
+
+  public void testWriteOnTemplate() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("0123456789", 5, '.');
+    buffer.write(3, "ab");
+    assertEquals("01ab456789", buffer.toString());
+  }
+
+  public void testGapsArePadded() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("xy", 10, '.');
+    buffer.write(5, "ab");
+    assertEquals("xy..ab", buffer.toString());
+    buffer.padTo(10);
+    assertEquals("xy..ab....", buffer.toString());
+  }
+
+  public void testGrowsBeyondLayoutLength() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 2, '_');
+    buffer.write(1, "ab");
+    buffer.write(6, "cdef");
+    assertEquals("ab___cdef", buffer.toString());
+    buffer.padTo(12);
+    assertEquals("ab___cdef___", buffer.toString());
+  }
+
+  public void testResetClearsPreviousRecord() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 10, ' ');
+    buffer.write(1, "0123456789");
+    buffer.reset("", 10, '*');
+    buffer.write(3, "ab");
+    assertEquals("**ab", buffer.toString());
+    buffer.padTo(-1);
+    assertEquals(4, buffer.length());
+  }
+
+  public void testAcquireNested() {
+    ExportBuffer outer = ExportBuffer.acquire();
+    try {
+      ExportBuffer nested = ExportBuffer.acquire();
+      assertNotSame(outer, nested);
+      nested.release();
+      assertSame(nested, ExportBuffer.acquire());
+      nested.release();
+    } finally {
+      outer.release();
+    }
+    assertSame(outer, ExportBuffer.acquire());
+    outer.release();
+  }
+
+  public void testClearThreadBuffers() {
+    ExportBuffer buffer = ExportBuffer.acquire();
+    buffer.release();
+    ExportBuffer.clearThreadBuffers();
+    ExportBuffer cleared = ExportBuffer.acquire();
+    assertNotSame(buffer, cleared);
+    cleared.release();
+    assertSame(cleared, ExportBuffer.acquire());
+    cleared.release();
+  }
+
+  public void testReserve() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("ab", 4, ' ');
+    char[] chars = buffer.reserve(4, 3);
+    chars[3] = 'x';
+    chars[4] = 'y';
+    chars[5] = 'z';
+    assertEquals("ab xyz", buffer.toString());
+  }
+}
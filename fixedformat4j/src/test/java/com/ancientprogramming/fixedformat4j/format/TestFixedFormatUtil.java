@@ -29,4 +29,29 @@ public class TestFixedFormatUtil extends TestCase {
     FixedFormatUtil.getFixedFormatterInstance(StringFormatter.class, new FormatContext<String>(1, java.lang.String.class, StringFormatter.class));
     FixedFormatUtil.getFixedFormatterInstance(ByTypeFormatter.class, new FormatContext(1, java.lang.String.class, ByTypeFormatter.class));
   }
+
+  public void testInstancesAreCached() {
+    FormatContext<String> context = new FormatContext<String>(1, String.class, StringFormatter.class);
+    FormatContext<String> otherContext = new FormatContext<String>(11, String.class, StringFormatter.class);
+    //formatters without a context constructor is shared
+    assertSame(FixedFormatUtil.getFixedFormatterInstance(StringFormatter.class, context), FixedFormatUtil.getFixedFormatterInstance(StringFormatter.class, otherContext));
+
+    //context bound formatters is cached per context
+    FormatContext byTypeContext = new FormatContext(1, String.class, ByTypeFormatter.class);
+    FormatContext equalByTypeContext = new FormatContext(1, String.class, ByTypeFormatter.class);
+    FormatContext otherByTypeContext = new FormatContext(1, Integer.class, ByTypeFormatter.class);
+    assertSame(FixedFormatUtil.getFixedFormatterInstance(ByTypeFormatter.class, byTypeContext), FixedFormatUtil.getFixedFormatterInstance(ByTypeFormatter.class, equalByTypeContext));
+    assertNotSame(FixedFormatUtil.getFixedFormatterInstance(ByTypeFormatter.class, byTypeContext), FixedFormatUtil.getFixedFormatterInstance(ByTypeFormatter.class, otherByTypeContext));
+  }
+
+  public void testOwnFormattersIsNotShared() {
+    //formatters outside the build-in package might keep state, so each field gets its own instance
+    FormatContext<String> context = new FormatContext<String>(1, String.class, OwnFormatter.class);
+    assertNotSame(FixedFormatUtil.getFixedFormatterInstance(OwnFormatter.class, context), FixedFormatUtil.getFixedFormatterInstance(OwnFormatter.class, context));
+    assertFalse(FixedFormatUtil.isBuildIn(OwnFormatter.class));
+    assertTrue(FixedFormatUtil.isBuildIn(StringFormatter.class));
+  }
+
+  public static class OwnFormatter extends StringFormatter {
+  }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.impl.AccessorStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.IntegerFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+import junit.framework.TestCase;
+
+import java.util.Currency;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestFormatterRegistry extends TestCase {
+
+  public void testBuildInFormatters() {
+    FormatterRegistry registry = new FormatterRegistry();
+    assertTrue(registry.getFormatter(int.class) instanceof IntegerFormatter);
+    assertSame(registry.getFormatter(int.class), registry.getFormatter(Integer.class));
+    assertTrue(registry.getFormatter(String.class) instanceof StringFormatter);
+    //the lookup is by the exact datatype
+    assertNull(registry.getFormatter(java.sql.Timestamp.class));
+    assertNull(registry.getFormatter(Currency.class));
+  }
+
+  public void testDefaultIsLocked() {
+    try {
+      FormatterRegistry.getDefault().register(Currency.class, new CurrencyFormatter());
+      fail("the default registry can't be modified");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    assertSame(FormatterRegistry.getDefault(), new FixedFormatManagerImpl().getFormatterRegistry());
+  }
+
+  public void testRegisteredFormatters() {
+    FormatterRegistry registry = new FormatterRegistry()
+        .register(Currency.class, new CurrencyFormatter())
+        .register(int.class, new HexFormatter());
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      FixedFormatManager manager = new FixedFormatManagerImpl(strategy, registry);
+      assertSame(registry, manager.getFormatterRegistry());
+      AmountRecord record = manager.load(AmountRecord.class, "DKK00ff");
+      assertEquals(Currency.getInstance("DKK"), record.getCurrency());
+      assertEquals(255, record.getAmount());
+      record.setAmount(4096);
+      assertEquals("DKK1000", manager.export(record));
+    }
+  }
+
+  public void testUnregisteredDatatype() {
+    try {
+      new FixedFormatManagerImpl().load(AmountRecord.class, "DKK0100");
+      fail("no formatter is registered for Currency in the default registry");
+    } catch (FixedFormatException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(FormatterRegistry.class.getSimpleName()));
+    }
+  }
+
+  public static class CurrencyFormatter extends AbstractFixedFormatter<Currency> {
+    public Currency asObject(String string, FormatInstructions instructions) {
+      return string.length() == 0 ? null : Currency.getInstance(string);
+    }
+
+    public String asString(Currency value, FormatInstructions instructions) {
+      return value != null ? value.getCurrencyCode() : null;
+    }
+  }
+
+  /**
+   * Doesn't implement {@link IntFixedFormatter}
+   */
+  public static class HexFormatter extends AbstractFixedFormatter<Integer> {
+    public Integer asObject(String string, FormatInstructions instructions) {
+      return string.length() == 0 ? null : Integer.valueOf(string, 16);
+    }
+
+    public String asString(Integer value, FormatInstructions instructions) {
+      return value != null ? Integer.toHexString(value) : null;
+    }
+  }
+
+  @Record
+  public static class AmountRecord {
+    private Currency currency;
+    private int amount;
+
+    @Field(offset = 1, length = 3)
+    public Currency getCurrency() {
+      return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+      this.currency = currency;
+    }
+
+    @Field(offset = 4, length = 4, align = Align.RIGHT, paddingChar = '0')
+    public int getAmount() {
+      return amount;
+    }
+
+    public void setAmount(int amount) {
+      this.amount = amount;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatIntern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.format.impl.AccessorStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestStringInterner extends TestCase {
+
+  public void testIntern() {
+    StringInterner interner = new StringInterner(16);
+    String first = interner.intern("xxDKKxx", 2, 5);
+    assertEquals("DKK", first);
+    assertSame(first, interner.intern("DKK"));
+    assertSame(first, interner.intern(new StringBuilder("DKK"), 0, 3));
+    assertEquals("", interner.intern("abc", 1, 1));
+    assertNull(interner.intern(null));
+    assertEquals(2, interner.getHits());
+    assertEquals(1, interner.getMisses());
+  }
+
+  public void testBounded() {
+    StringInterner interner = new StringInterner(2);
+    for (int i = 0; i < 1000; i++) {
+      String value = Integer.toString(i);
+      assertEquals(value, interner.intern(value, 0, value.length()));
+    }
+    assertEquals(1000, interner.getMisses());
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testInternedFormatter() {
+    StringInterner interner = new StringInterner(16);
+    FormatInstructions instructions = new FormatInstructions(5, Align.LEFT, ' ', null, null, null, null);
+    FixedFormatter formatter = interner.interned(new StringFormatter(), new FormatContext(1, String.class, ByTypeFormatter.class));
+    Object first = formatter.parse("xDKK  x", 1, 6, instructions);
+    assertEquals("DKK", first);
+    assertSame(first, formatter.parse("yDKK  y", 1, 6, instructions));
+    assertSame(first, formatter.parse("DKK  ", instructions));
+    assertNull(formatter.parse(null, instructions));
+
+    //values from other formatters is interned when they have been parsed
+    FixedFormatter custom = interner.interned(new LowerCaseFormatter(), new FormatContext(1, String.class, LowerCaseFormatter.class));
+    Object lower = custom.parse("xSEK  x", 1, 6, instructions);
+    assertEquals("sek", lower);
+    assertSame(lower, custom.parse("xSEK  x", 1, 6, instructions));
+  }
+
+  public void testInternedField() {
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      FixedFormatManager manager = new FixedFormatManagerImpl(strategy);
+      InternedRecord first = manager.load(InternedRecord.class, "DKK");
+      InternedRecord second = manager.load(InternedRecord.class, "DKK");
+      assertSame(first.getCurrency(), second.getCurrency());
+      assertEquals("DKK", manager.export(second));
+    }
+  }
+
+  public static class LowerCaseFormatter extends StringFormatter {
+    public String asObject(String string, FormatInstructions instructions) {
+      return string.toLowerCase();
+    }
+  }
+
+  @Record
+  public static class InternedRecord {
+    private String currency;
+
+    @Field(offset = 1, length = 3)
+    @FixedFormatIntern
+    public String getCurrency() {
+      return currency;
+    }
+
+    public void setCurrency(String currency) {
+      this.currency = currency;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatCache;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import com.ancientprogramming.fixedformat4j.format.impl.AccessorStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.DateFormatter;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestValueCache extends TestCase {
+
+  private static final FormatInstructions INSTRUCTIONS = new FormatInstructions(3, Align.LEFT, ' ', null, null, null, null);
+
+  public void testHitsAndMisses() {
+    ValueCache<String> cache = new ValueCache<String>(4);
+    CountingFormatter formatter = new CountingFormatter();
+    assertEquals("abc", cache.parse("xxabcxx", 2, 5, INSTRUCTIONS, formatter));
+    assertEquals("abc", cache.parse("abc", 0, 3, INSTRUCTIONS, formatter));
+    assertEquals("abd", cache.parse("abd", 0, 3, INSTRUCTIONS, formatter));
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(2, formatter.count.get());
+  }
+
+  public void testBounded() {
+    ValueCache<String> cache = new ValueCache<String>(3);
+    assertEquals(4, cache.getSize());
+    CountingFormatter formatter = new CountingFormatter();
+    for (int i = 0; i < 1000; i++) {
+      String value = Integer.toString(i);
+      assertEquals(value, cache.parse(value, 0, value.length(), INSTRUCTIONS, formatter));
+    }
+    assertEquals(1000, cache.getMisses());
+  }
+
+  public void testDatesIsCopied() {
+    ValueCache<Date> cache = new ValueCache<Date>(16);
+    FixedFormatter<Date> formatter = cache.cached(new DateFormatter());
+    FormatInstructions instructions = new FormatInstructions(8, Align.LEFT, ' ', new FixedFormatPatternData("yyyyMMdd"), null, null, null);
+    Date first = formatter.parse("20081021", instructions);
+    first.setTime(0);
+    Date second = formatter.parse("20081021", instructions);
+    assertEquals(1, cache.getHits());
+    assertFalse(second.getTime() == 0);
+    assertNull(formatter.parse((String) null, instructions));
+  }
+
+  public void testConcurrentUse() throws InterruptedException {
+    final ValueCache<String> cache = new ValueCache<String>(8);
+    final FixedFormatter<String> formatter = new StringFormatter();
+    final AtomicInteger failures = new AtomicInteger();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread() {
+        public void run() {
+          for (int i = 0; i < 100000; i++) {
+            String value = Integer.toString(i % 32);
+            if (!value.equals(cache.parse(value, 0, value.length(), INSTRUCTIONS, formatter))) {
+              failures.incrementAndGet();
+            }
+          }
+        }
+      };
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, failures.get());
+    assertEquals(400000, cache.getHits() + cache.getMisses());
+  }
+
+  public void testCachedField() {
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      FixedFormatManager manager = new FixedFormatManagerImpl(strategy);
+      CachedRecord first = manager.load(CachedRecord.class, "20081021DKK");
+      CachedRecord second = manager.load(CachedRecord.class, "20081021DKK");
+      assertEquals(first.getDate(), second.getDate());
+      assertSame(first.getCurrency(), second.getCurrency());
+      assertEquals("20081021DKK", manager.export(second));
+    }
+    FixedFormatter<?> formatter = FormatterRegistry.getDefault().getFormatter(String.class);
+    ValueCache<?> cache = ValueCache.get(CachedRecord.class, "getCurrency", 9, formatter);
+    assertEquals(AccessorStrategy.values().length * 2 - 1, cache.getHits());
+    assertNull(ValueCache.get(CachedRecord.class, "getCurrency", 1, formatter));
+  }
+
+  public void testRegistries() {
+    FormatterRegistry registry = new FormatterRegistry().register(String.class, new UpperCaseFormatter());
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      //the value parsed by the default formatter is never handed to a manager with another formatter
+      assertEquals("abc", new FixedFormatManagerImpl(strategy).load(CodeRecord.class, "abc").getCode());
+      assertEquals("ABC", new FixedFormatManagerImpl(strategy, registry).load(CodeRecord.class, "abc").getCode());
+      assertEquals("abc", new FixedFormatManagerImpl(strategy).load(CodeRecord.class, "abc").getCode());
+    }
+    ValueCache<?> cache = ValueCache.get(CodeRecord.class, "getCode", 1, FormatterRegistry.getDefault().getFormatter(String.class));
+    ValueCache<?> upperCased = ValueCache.get(CodeRecord.class, "getCode", 1, registry.getFormatter(String.class));
+    assertNotSame(cache, upperCased);
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, upperCased.getMisses());
+  }
+
+  private static class CountingFormatter extends StringFormatter {
+    private final AtomicInteger count = new AtomicInteger();
+
+    public String asObject(String string, FormatInstructions instructions) {
+      count.incrementAndGet();
+      return super.asObject(string, instructions);
+    }
+  }
+
+  private static class UpperCaseFormatter extends StringFormatter {
+    public String asObject(String string, FormatInstructions instructions) {
+      return super.asObject(string, instructions).toUpperCase();
+    }
+  }
+
+  @Record
+  public static class CodeRecord {
+    private String code;
+
+    @Field(offset = 1, length = 3)
+    @FixedFormatCache
+    public String getCode() {
+      return code;
+    }
+
+    public void setCode(String code) {
+      this.code = code;
+    }
+  }
+
+  @Record
+  public static class CachedRecord {
+    private Date date;
+    private String currency;
+
+    @Field(offset = 1, length = 8)
+    @FixedFormatPattern("yyyyMMdd")
+    @FixedFormatCache
+    public Date getDate() {
+      return date;
+    }
+
+    public void setDate(Date date) {
+      this.date = date;
+    }
+
+    @Field(offset = 9, length = 3)
+    @FixedFormatCache(size = 16)
+    public String getCurrency() {
+      return currency;
+    }
+
+    public void setCurrency(String currency) {
+      this.currency = currency;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.format.AbstractRecordCodec;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+
+/**
+ * A class used in testcases which has the codec name of {@link MyRecord} without being a codec of it.
+ */
+public class MyRecordCodec extends AbstractRecordCodec<MyOtherRecord> {
+
+  static {
+    TestFixedFormatManagerImpl.myRecordCodecInitialized = true;
+  }
+
+  public MyRecordCodec(FixedFormatManager manager) {
+    super(manager, MyOtherRecord.class, 0, ' ');
+  }
+
+  public MyOtherRecord load(CharSequence data) {
+    throw new UnsupportedOperationException();
+  }
+
+  protected void write(ExportBuffer result, MyOtherRecord instance) {
+    throw new UnsupportedOperationException();
+  }
+}
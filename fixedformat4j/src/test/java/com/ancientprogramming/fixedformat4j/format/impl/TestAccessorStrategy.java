@@ -0,0 +1,93 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestAccessorStrategy extends TestCase {
+
+  public void testAccessors() throws Throwable {
+    Method getter = MyRecord.class.getMethod("getSimpleFloatData");
+    Method setter = MyRecord.class.getMethod("setSimpleFloatData", float.class);
+    Method objectGetter = MyRecord.class.getMethod("getStringData");
+    Method objectSetter = MyRecord.class.getMethod("setStringData", String.class);
+
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      MyRecord record = new MyRecord();
+      strategy.setter(setter).set(record, 20.56F);
+      assertEquals(strategy.name(), 20.56F, record.getSimpleFloatData());
+      assertEquals(strategy.name(), 20.56F, strategy.getter(getter).get(record));
+
+      strategy.setter(objectSetter).set(record, "some text");
+      assertEquals(strategy.name(), "some text", strategy.getter(objectGetter).get(record));
+    }
+  }
+
+  public void testLambdaAccessorsOnNonPublicClass() throws Throwable {
+    Method getter = MyRecord.MyStaticNestedClass.class.getMethod("getStringData");
+    Method setter = MyRecord.MyStaticNestedClass.class.getMethod("setStringData", String.class);
+
+    MyRecord.MyStaticNestedClass record = new MyRecord.MyStaticNestedClass();
+    AccessorStrategy.LAMBDA.setter(setter).set(record, "xyz");
+    assertEquals("xyz", AccessorStrategy.LAMBDA.getter(getter).get(record));
+  }
+
+  public void testHandles() throws Throwable {
+    Method getter = MyRecord.class.getMethod("getStringData");
+    Method setter = MyRecord.class.getMethod("setStringData", String.class);
+    final List<String> calls = new ArrayList<String>();
+    PropertyGetter getterAccessor = new PropertyGetter() {
+      public Object get(Object instance) {
+        calls.add("get");
+        return ((MyRecord) instance).getStringData();
+      }
+    };
+    PropertySetter setterAccessor = new PropertySetter() {
+      public void set(Object instance, Object value) {
+        calls.add("set");
+        ((MyRecord) instance).setStringData((String) value);
+      }
+    };
+
+    //the spun codecs of the lambda strategy goes through the accessors, the method handle strategy invokes the methods
+    MyRecord record = new MyRecord();
+    AccessorStrategy.LAMBDA.setterHandle(setter, setterAccessor).invoke(record, "abc");
+    assertEquals("abc", AccessorStrategy.LAMBDA.getterHandle(getter, getterAccessor).invoke(record));
+    assertEquals(Arrays.asList("set", "get"), calls);
+
+    calls.clear();
+    AccessorStrategy.METHOD_HANDLE.setterHandle(setter, setterAccessor).invoke(record, "def");
+    assertEquals("def", AccessorStrategy.METHOD_HANDLE.getterHandle(getter, getterAccessor).invoke(record));
+    assertTrue(calls.isEmpty());
+  }
+
+  public void testManagerWithEachStrategy() {
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      FixedFormatManagerImpl manager = new FixedFormatManagerImpl(strategy);
+      MyRecord record = manager.load(MyRecord.class, TestFixedFormatManagerImpl.MY_RECORD_DATA);
+      assertEquals(strategy.name(), TestFixedFormatManagerImpl.MY_RECORD_DATA, manager.export(record));
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.annotation.Align;
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
 import com.ancientprogramming.fixedformat4j.format.data.FixedFormatBooleanData;
@@ -46,4 +47,39 @@ public class TestBooleanFormatter extends TestCase {
     assertEquals("F", formatter.format(false, new FormatInstructions(1, Align.LEFT, ' ', null, new FixedFormatBooleanData("T", "F"), null, null)));
     assertEquals("F", formatter.format(null, new FormatInstructions(1, Align.LEFT, ' ', null, new FixedFormatBooleanData("T", "F"), null, null)));
   }
+
+  public void testParseBoolean() {
+    BooleanFormatter formatter = new BooleanFormatter();
+    FormatInstructions instructions = new FormatInstructions(4, Align.RIGHT, ' ', null, new FixedFormatBooleanData("YES", "NO"), null, null);
+    assertTrue(formatter.parseBoolean("x YESx", 1, 5, instructions));
+    assertFalse(formatter.parseBoolean("x  NOx", 1, 5, instructions));
+    assertFalse(formatter.parseBoolean("x    x", 1, 5, instructions));
+    try {
+      formatter.parseBoolean("x  YEx", 1, 5, instructions);
+      fail("expected unknown value");
+    } catch (FixedFormatException e) {
+      assertEquals("Could not convert string[YE] to boolean value according to booleanData[" + instructions.getFixedFormatBooleanData() + "]", e.getMessage());
+    }
+
+    BooleanFormatter subclass = new BooleanFormatter() {
+      public Boolean asObject(String string, FormatInstructions instructions) {
+        return null;
+      }
+    };
+    try {
+      subclass.parseBoolean("x YESx", 1, 5, instructions);
+      fail("expected a FixedFormatException");
+    } catch (FixedFormatException e) {
+      assertEquals(subclass.getClass().getName() + " parsed string[ YES] to null, which can't be loaded as a boolean value", e.getMessage());
+    }
+  }
+
+  public void testFormatBoolean() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 8, '.');
+    FormatInstructions instructions = new FormatInstructions(4, Align.RIGHT, ' ', null, new FixedFormatBooleanData("YES", "NO"), null, null);
+    new BooleanFormatter().formatBoolean(true, instructions, buffer, 1);
+    new BooleanFormatter().formatBoolean(false, instructions, buffer, 5);
+    assertEquals(" YES  NO", buffer.toString());
+  }
 }
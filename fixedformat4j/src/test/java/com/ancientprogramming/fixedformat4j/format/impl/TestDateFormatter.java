@@ -22,8 +22,12 @@ import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
 
 /**
  * @author Jacob von Eyben - http://www.ancientprogramming.com
@@ -44,6 +48,44 @@ public class TestDateFormatter extends TestCase {
     Assert.assertEquals("  ", formatter.format(null, new FormatInstructions(2, Align.LEFT, ' ', new FixedFormatPatternData("yy"), null, null, null)));
   }
 
+  public void testSameAsSimpleDateFormat() throws ParseException {
+    TimeZone defaultTimeZone = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("Europe/Copenhagen"));
+      String[] patterns = {"yyyyMMdd", "ddMMyyyy", "ddMMyy", "yyMMdd", "yyyyMMddHHmmss", "yyyy-MM-dd HH:mm:ss.SSS", "HHmm", "yyyyMM"};
+      Random random = new Random(42);
+      for (int i = 0; i < 20000; i++) {
+        String pattern = patterns[random.nextInt(patterns.length)];
+        StringBuilder value = new StringBuilder();
+        for (int j = 0; j < pattern.length(); j++) {
+          char c = pattern.charAt(j);
+          value.append(Character.isLetter(c) ? (char) ('0' + random.nextInt(random.nextInt(3) == 0 ? 10 : 3)) : c);
+        }
+        if (pattern.startsWith("yyyy")) {
+          value.replace(0, 2, random.nextBoolean() ? "20" : "19");
+        }
+        assertParse(value.toString(), pattern);
+      }
+      //the gap and overlap of daylight saving time
+      assertParse("20080330023000", "yyyyMMddHHmmss");
+      assertParse("20081026023000", "yyyyMMddHHmmss");
+      assertParse("18000101000000", "yyyyMMddHHmmss");
+
+      for (int i = 0; i < 20000; i++) {
+        String pattern = patterns[random.nextInt(patterns.length)];
+        Date date = new Date(random.nextLong() % (400L * 365 * 24 * 60 * 60 * 1000));
+        assertEquals(pattern + " " + date, new SimpleDateFormat(pattern).format(date), formatter.format(date, new FormatInstructions(pattern.length(), Align.LEFT, ' ', new FixedFormatPatternData(pattern), null, null, null)));
+      }
+    } finally {
+      TimeZone.setDefault(defaultTimeZone);
+    }
+  }
+
+  private void assertParse(String value, String pattern) throws ParseException {
+    Date expected = new SimpleDateFormat(pattern).parse(value);
+    assertEquals(pattern + " " + value, expected, formatter.parse(value, new FormatInstructions(pattern.length(), Align.LEFT, ' ', new FixedFormatPatternData(pattern), null, null, null)));
+  }
+
   public Date getDate(int year, int month, int day) {
     Calendar cal = Calendar.getInstance();
     cal.set(Calendar.YEAR, year);
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestDatePattern extends TestCase {
+
+  public void testUnsupported() {
+    assertNull(DatePattern.of("yyyyMMMdd"));
+    assertNull(DatePattern.of("yyyyMMdd'T'"));
+    assertNull(DatePattern.of("yyyyMMddyy"));
+    assertNull(DatePattern.of("EEE dd"));
+    assertNull(DatePattern.of("[yyyy]"));
+    assertNull(DatePattern.of("--"));
+  }
+
+  public void testParse() {
+    DatePattern pattern = DatePattern.of("yyyy-MM-dd HH:mm:ss.SSS");
+    assertTrue(pattern.has(DatePattern.MILLISECOND));
+    assertFalse(pattern.isTwoDigitYear());
+    assertEquals("[2008, 10, 21, 13, 5, 9, 7]", Arrays.toString(pattern.parse("2008-10-21 13:05:09.007")));
+    assertNull(pattern.parse("2008-10-21 13:05:09"));
+    assertNull(pattern.parse("2008/10-21 13:05:09.007"));
+    assertNull(pattern.parse("2008-1x-21 13:05:09.007"));
+
+    pattern = DatePattern.of("ddMMyy");
+    assertTrue(pattern.isTwoDigitYear());
+    assertFalse(pattern.has(DatePattern.HOUR));
+    assertEquals("[79, 10, 13, 0, 0, 0, 0]", Arrays.toString(pattern.parse("131079")));
+  }
+
+  public void testFormat() {
+    assertEquals("2008-10-21 13:05:09.007", DatePattern.of("yyyy-MM-dd HH:mm:ss.SSS").format(new int[]{2008, 10, 21, 13, 5, 9, 7}));
+    assertEquals("131079", DatePattern.of("ddMMyy").format(new int[]{1979, 10, 13, 0, 0, 0, 0}));
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_NEGATIVE_SIGN;
+import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_POSITIVE_SIGN;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestDecimalParser extends TestCase {
+
+  private static final FixedFormatDecimalData IMPLIED = new FixedFormatDecimalData(2, false, '.', RoundingMode.HALF_UP);
+  private static final FixedFormatDecimalData DELIMITED = new FixedFormatDecimalData(2, true, ',', RoundingMode.HALF_UP);
+
+  public void testToBigDecimal() {
+    assertEquals(new BigDecimal("123.45"), DecimalParser.toBigDecimal("12345", IMPLIED));
+    assertEquals(new BigDecimal("-0.45"), DecimalParser.toBigDecimal("-45", IMPLIED));
+    assertEquals(new BigDecimal("+0.45"), DecimalParser.toBigDecimal("+45", IMPLIED));
+    assertEquals(new BigDecimal("123.4"), DecimalParser.toBigDecimal("123,4", DELIMITED));
+    assertEquals(new BigDecimal("123"), DecimalParser.toBigDecimal("123,", DELIMITED));
+    assertEquals(new BigDecimal("0.5"), DecimalParser.toBigDecimal(",5", DELIMITED));
+  }
+
+  public void testSlowPathValues() {
+    assertNull(DecimalParser.toBigDecimal("5", IMPLIED));
+    assertNull(DecimalParser.toBigDecimal("", IMPLIED));
+    assertNull(DecimalParser.toBigDecimal("-", IMPLIED));
+    assertNull(DecimalParser.toBigDecimal("1,2,3", DELIMITED));
+    assertNull(DecimalParser.toBigDecimal("1234567890123456789", IMPLIED));
+    assertNull(DecimalParser.toBigDecimal("1E5", IMPLIED));
+    assertNull(DecimalParser.toDouble("9007199254740993", IMPLIED));
+    assertNull(DecimalParser.toFloat("16777217", IMPLIED));
+  }
+
+  public void testNegativeZeroDouble() {
+    assertEquals(-0.0d, DecimalParser.toDouble("-000", IMPLIED));
+    assertEquals(-0.0f, DecimalParser.toFloat("-000", IMPLIED));
+  }
+
+  public void testSameAsStringToConvert() {
+    BigDecimalFormatter bigDecimalFormatter = new BigDecimalFormatter();
+    DoubleFormatter doubleFormatter = new DoubleFormatter();
+    FloatFormatter floatFormatter = new FloatFormatter();
+    Random random = new Random(42);
+    String chars = "0123456789012345678901234567890123456789-+.,x ";
+    for (int i = 0; i < 20000; i++) {
+      FixedFormatDecimalData decimalData = new FixedFormatDecimalData(random.nextInt(5), random.nextBoolean(), random.nextBoolean() ? '.' : ',', RoundingMode.HALF_UP);
+      FormatInstructions instructions = new FormatInstructions(20, Align.RIGHT, '0', null, null, null, decimalData);
+      StringBuilder value = new StringBuilder();
+      int length = random.nextInt(random.nextBoolean() ? 6 : 20);
+      for (int j = 0; j < length; j++) {
+        value.append(chars.charAt(random.nextInt(j == 0 || random.nextInt(10) == 0 ? chars.length() : 40)));
+      }
+      String string = value.toString();
+      String toConvert = bigDecimalFormatter.getStringToConvert(string, instructions);
+      String message = string + " " + decimalData;
+      assertEquals(message, legacy(BigDecimal.class, toConvert), parse(bigDecimalFormatter, string, instructions));
+      assertEquals(message, legacy(Double.class, toConvert), parse(doubleFormatter, string, instructions));
+      assertEquals(message, legacy(Float.class, toConvert), parse(floatFormatter, string, instructions));
+    }
+  }
+
+  public void testWindow() {
+    FormatInstructions prepend = new FormatInstructions(7, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), IMPLIED);
+    FormatInstructions append = new FormatInstructions(7, Align.LEFT, ' ', null, null, new FixedFormatNumberData(Sign.APPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), DELIMITED);
+    assertEquals(new BigDecimal("-1.23"), DecimalParser.toBigDecimal("x-000123y", 1, 8, prepend));
+    assertEquals(new BigDecimal("1.23"), DecimalParser.toBigDecimal("x+000123y", 1, 8, prepend));
+    assertEquals(-12.5d, DecimalParser.parseDouble("x12,5  -y", 1, 8, append));
+    assertEquals(12.5f, DecimalParser.toFloat("x12,5  +y", 1, 8, append));
+    //empty values and unknown signs is left to the String based parsing
+    assertNull(DecimalParser.toBigDecimal("x+000000y", 1, 8, prepend));
+    assertNull(DecimalParser.toBigDecimal("xD000123y", 1, 8, prepend));
+  }
+
+  public void testWindowSameAsString() {
+    BigDecimalFormatter bigDecimalFormatter = new BigDecimalFormatter();
+    DoubleFormatter doubleFormatter = new DoubleFormatter();
+    FloatFormatter floatFormatter = new FloatFormatter();
+    Random random = new Random(42);
+    String chars = "0123456789012345678901234567890123456789-+., ";
+    for (int i = 0; i < 20000; i++) {
+      FixedFormatDecimalData decimalData = new FixedFormatDecimalData(random.nextInt(5), random.nextBoolean(), random.nextBoolean() ? '.' : ',', RoundingMode.HALF_UP);
+      FixedFormatNumberData numberData = new FixedFormatNumberData(Sign.values()[random.nextInt(3)], DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN);
+      FormatInstructions instructions = new FormatInstructions(20, random.nextBoolean() ? Align.RIGHT : Align.LEFT, random.nextBoolean() ? '0' : ' ', null, null, numberData, decimalData);
+      StringBuilder value = new StringBuilder();
+      int length = random.nextInt(random.nextBoolean() ? 6 : 20);
+      for (int j = 0; j < length; j++) {
+        value.append(chars.charAt(random.nextInt(j == 0 || j == length - 1 || random.nextInt(10) == 0 ? chars.length() : 40)));
+      }
+      String string = value.toString();
+      String data = "ab" + string + "cd";
+      String message = "'" + string + "' " + numberData + " " + decimalData;
+      assertEquals(message, parseField(bigDecimalFormatter, string, instructions), parseWindow(bigDecimalFormatter, data, instructions));
+      assertEquals(message, parseField(doubleFormatter, string, instructions), parseWindow(doubleFormatter, data, instructions));
+      assertEquals(message, parseField(floatFormatter, string, instructions), parseWindow(floatFormatter, data, instructions));
+      assertEquals(message, parseField(doubleFormatter, string, instructions), parseDouble(doubleFormatter, data, instructions));
+    }
+  }
+
+  private static Object parseField(AbstractDecimalFormatter<?> formatter, String string, FormatInstructions instructions) {
+    try {
+      return formatter.parse(string, instructions);
+    } catch (NumberFormatException e) {
+      return e.getClass();
+    }
+  }
+
+  private static Object parseWindow(AbstractDecimalFormatter<?> formatter, String data, FormatInstructions instructions) {
+    try {
+      return formatter.parse(data, 2, data.length() - 2, instructions);
+    } catch (NumberFormatException e) {
+      return e.getClass();
+    }
+  }
+
+  private static Object parseDouble(DoubleFormatter formatter, String data, FormatInstructions instructions) {
+    try {
+      return formatter.parseDouble(data, 2, data.length() - 2, instructions);
+    } catch (NumberFormatException e) {
+      return e.getClass();
+    }
+  }
+
+  private static Object parse(AbstractDecimalFormatter<?> formatter, String string, FormatInstructions instructions) {
+    try {
+      return formatter.asObject(string, instructions);
+    } catch (NumberFormatException e) {
+      return e.getClass();
+    }
+  }
+
+  /**
+   * The String based parsing used before 1.4.0
+   */
+  private static Object legacy(Class<?> type, String toConvert) {
+    String value = "".equals(toConvert) ? "0" : toConvert;
+    try {
+      if (type == BigDecimal.class) {
+        return new BigDecimal(value);
+      }
+      return type == Double.class ? (Object) Double.parseDouble(value) : (Object) Float.parseFloat(value);
+    } catch (NumberFormatException e) {
+      return e.getClass();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import junit.framework.TestCase;
+import org.apache.commons.lang.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.util.Random;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestDecimalWriter extends TestCase {
+
+  public void testWrite() {
+    assertEquals("12345", DecimalWriter.write(new BigDecimal("123.45"), 2, false, '.'));
+    assertEquals("123,45", DecimalWriter.write(new BigDecimal("123.45"), 2, true, ','));
+    assertEquals("-005", DecimalWriter.write(new BigDecimal("-0.05"), 2, false, '.'));
+    assertEquals("0.", DecimalWriter.write(BigDecimal.ZERO, 0, true, '.'));
+    assertEquals("000", DecimalWriter.write(BigDecimal.ZERO, 2, false, '.'));
+    assertEquals("-9223372036854775808", DecimalWriter.write(Long.MIN_VALUE, 0, false, '.'));
+    assertEquals("92233720368547758070", DecimalWriter.write(new BigDecimal("922337203685477580.70"), 2, false, '.'));
+    assertEquals("1230", DecimalWriter.write(new BigDecimal("1234").setScale(-1, RoundingMode.HALF_UP), -1, false, '.'));
+  }
+
+  public void testSameAsDecimalFormat() {
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      int decimals = random.nextInt(8);
+      boolean useDelimiter = random.nextBoolean();
+      BigDecimal value;
+      switch (random.nextInt(3)) {
+        case 0:
+          value = BigDecimal.valueOf(random.nextLong(), random.nextInt(10));
+          break;
+        case 1:
+          value = BigDecimal.valueOf(random.nextInt(100000) - 50000, random.nextInt(6));
+          break;
+        default:
+          value = BigDecimal.valueOf((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12)));
+      }
+      BigDecimal rounded = value.setScale(decimals, RoundingMode.HALF_UP);
+      assertEquals(rounded.toString(), decimalFormat(rounded, decimals, useDelimiter, ','), DecimalWriter.write(rounded, decimals, useDelimiter, ','));
+    }
+  }
+
+  /**
+   * The DecimalFormat based implementation used before 1.4.0
+   */
+  private static String decimalFormat(BigDecimal roundedValue, int decimals, boolean useDecimalDelimiter, char decimalDelimiter) {
+    DecimalFormat formatter = new DecimalFormat();
+    formatter.setDecimalSeparatorAlwaysShown(true);
+    formatter.setMaximumFractionDigits(decimals);
+    char decimalSeparator = formatter.getDecimalFormatSymbols().getDecimalSeparator();
+    char groupingSeparator = formatter.getDecimalFormatSymbols().getGroupingSeparator();
+    String rawString = formatter.format(roundedValue).replaceAll("\\" + groupingSeparator, "");
+    String beforeDelimiter = rawString.substring(0, rawString.indexOf(decimalSeparator));
+    String afterDelimiter = rawString.substring(rawString.indexOf(decimalSeparator) + 1, rawString.length());
+    afterDelimiter = StringUtils.rightPad(StringUtils.substring(afterDelimiter, 0, decimals), decimals, '0');
+    return beforeDelimiter + (useDecimalDelimiter ? "" + decimalDelimiter : "") + afterDelimiter;
+  }
+}
@@ -17,6 +17,7 @@ package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.annotation.Align;
 import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
 import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
 import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
@@ -76,6 +77,21 @@ public class TestDoubleFormatter extends TestCase {
     assertEquals("+001005055", formatter.format(new Double(100.5055), new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(4, false, '.', RoundingMode.HALF_UP))));
   }
   
+  public void testPrimitiveParsedToNull() {
+    FormatInstructions instructions = new FormatInstructions(5, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.NOSIGN, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.HALF_UP));
+    DoubleFormatter subclass = new DoubleFormatter() {
+      public Double asObject(String string, FormatInstructions instructions) {
+        return null;
+      }
+    };
+    try {
+      subclass.parseDouble("00150", 0, 5, instructions);
+      fail("expected a FixedFormatException");
+    } catch (FixedFormatException e) {
+      assertEquals(subclass.getClass().getName() + " parsed string[00150] to null, which can't be loaded as a double value", e.getMessage());
+    }
+  }
+
   public void testFormatDoubleWith5DecimalsTo4Decimals() {
     assertEquals("+001005556", formatter.format(new Double(100.55555), new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(4, false, '.', RoundingMode.HALF_UP))));
   }
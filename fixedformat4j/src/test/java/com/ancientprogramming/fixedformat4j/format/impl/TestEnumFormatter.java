@@ -0,0 +1,152 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatEnumCode;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.FormatterRegistry;
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestEnumFormatter extends TestCase {
+
+  private static final FormatInstructions RIGHT = new FormatInstructions(4, Align.RIGHT, ' ', null, null, null, null);
+  private static final FormatInstructions LEFT = new FormatInstructions(3, Align.LEFT, '_', null, null, null, null);
+
+  private final EnumFormatter<Status> formatter = new EnumFormatter<Status>(Status.class);
+
+  public void testParse() {
+    assertEquals(Status.ACTIVE, formatter.parse("x   Ax", 1, 5, RIGHT));
+    assertEquals(Status.SUSPENDED, formatter.parse("x SUSx", 1, 5, RIGHT));
+    assertEquals(Status.PENDING, formatter.parse("PENDING", 0, 7, new FormatInstructions(7, Align.LEFT, ' ', null, null, null, null)));
+    assertEquals(Status.CLOSED, formatter.parse("C__", LEFT));
+    assertNull(formatter.parse("x    x", 1, 5, RIGHT));
+    assertNull(formatter.parse(null, RIGHT));
+    try {
+      formatter.parse("x  SUx", 1, 5, RIGHT);
+      fail("expected unknown code");
+    } catch (FixedFormatException e) {
+      assertEquals("Could not convert string[SU] to a constant of " + Status.class.getName() + ". The known codes is [A, C, SUS, PENDING]", e.getMessage());
+    }
+  }
+
+  public void testHashCollision() {
+    //"Aa" and "BB" has the same String hash code
+    EnumFormatter<Colliding> formatter = new EnumFormatter<Colliding>(Colliding.class);
+    FormatInstructions instructions = new FormatInstructions(2, Align.LEFT, ' ', null, null, null, null);
+    assertEquals(Colliding.Aa, formatter.parse("Aa", 0, 2, instructions));
+    assertEquals(Colliding.BB, formatter.parse("BB", 0, 2, instructions));
+  }
+
+  public void testFormat() {
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 14, '.');
+    formatter.format(Status.ACTIVE, RIGHT, buffer, 1);
+    formatter.format(Status.SUSPENDED, LEFT, buffer, 5);
+    formatter.format(null, LEFT, buffer, 8);
+    formatter.format(Status.PENDING, RIGHT, buffer, 11);
+    //a code longer than the field is chopped like other values
+    assertEquals("   ASUS___DING", buffer.toString());
+    assertEquals("C__", formatter.format(Status.CLOSED, LEFT));
+  }
+
+  public void testSubclass() {
+    EnumFormatter<Status> lowerCase = new EnumFormatter<Status>(Status.class) {
+      public Status asObject(String string, FormatInstructions instructions) {
+        return super.asObject(string.toUpperCase(), instructions);
+      }
+
+      public String asString(Status obj, FormatInstructions instructions) {
+        return super.asString(obj, instructions).toLowerCase();
+      }
+    };
+    assertEquals(Status.SUSPENDED, lowerCase.parse("x susx", 1, 5, RIGHT));
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 0, ' ');
+    lowerCase.format(Status.SUSPENDED, RIGHT, buffer, 1);
+    assertEquals(" sus", buffer.toString());
+  }
+
+  public void testDuplicateCodes() {
+    try {
+      new EnumFormatter<Duplicate>(Duplicate.class);
+      fail("expected duplicate codes");
+    } catch (FixedFormatException e) {
+      assertEquals(Duplicate.class.getName() + ".FIRST and " + Duplicate.class.getName() + ".SECOND has the same code[X]", e.getMessage());
+    }
+  }
+
+  public void testByType() {
+    assertSame(EnumFormatter.forType(Status.class), FormatterRegistry.getDefault().getFormatter(Status.class));
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      FixedFormatManager manager = new FixedFormatManagerImpl(strategy);
+      StatusRecord record = manager.load(StatusRecord.class, "SUS  C");
+      assertEquals(Status.SUSPENDED, record.getStatus());
+      assertEquals(Status.CLOSED, record.getPrevious());
+      record.setPrevious(null);
+      assertEquals("SUS   ", manager.export(record));
+    }
+  }
+
+  public enum Status {
+    @FixedFormatEnumCode("A") ACTIVE,
+    @FixedFormatEnumCode("C") CLOSED,
+    @FixedFormatEnumCode("SUS") SUSPENDED,
+    PENDING
+  }
+
+  public enum Colliding {
+    Aa, BB
+  }
+
+  public enum Duplicate {
+    @FixedFormatEnumCode("X") FIRST,
+    @FixedFormatEnumCode("X") SECOND
+  }
+
+  @Record
+  public static class StatusRecord {
+    private Status status;
+    private Status previous;
+
+    @Field(offset = 1, length = 3)
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    @Field(offset = 4, length = 3, align = Align.RIGHT)
+    public Status getPrevious() {
+      return previous;
+    }
+
+    public void setPrevious(Status previous) {
+      this.previous = previous;
+    }
+  }
+}
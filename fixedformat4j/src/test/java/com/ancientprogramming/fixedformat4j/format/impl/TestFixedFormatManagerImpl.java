@@ -17,13 +17,22 @@ package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatUtil;
 import com.ancientprogramming.fixedformat4j.format.ParseException;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Calendar;
 
 /**
@@ -40,6 +49,8 @@ public class TestFixedFormatManagerImpl extends TestCase {
   public static final String MULTIBLE_RECORD_DATA = "some      2008101320081013                       0100";
   public static final String MULTIBLE_RECORD_DATA_X_PADDED = "some      2008101320081013xxxxxxxxxxxxxxxxxxxxxxx0100";
 
+  static boolean myRecordCodecInitialized = false;
+
   FixedFormatManager manager = null;
 
   @Override
@@ -55,6 +66,14 @@ public class TestFixedFormatManagerImpl extends TestCase {
     Assert.assertTrue(loadedRecord.isBooleanData());
   }
 
+  public void testCodecOfOtherRecordIsIgnored() {
+    //MyRecordCodec has the name of the codec of MyRecord, but is a codec of MyOtherRecord
+    MyRecord loadedRecord = manager.load(MyRecord.class, MY_RECORD_DATA);
+    Assert.assertEquals(STR, loadedRecord.getStringData());
+    Assert.assertEquals(MY_RECORD_DATA, manager.export(loadedRecord));
+    Assert.assertFalse(myRecordCodecInitialized);
+  }
+
   public void testLoadMultibleFieldsRecord() {
     //when reading data having multible field annotations the first field will decide what data to return
     Calendar someDay = Calendar.getInstance();
@@ -71,6 +90,29 @@ public class TestFixedFormatManagerImpl extends TestCase {
     Assert.assertEquals("wrong record exported", MY_RECORD_DATA, manager.export(myRecord));
   }
 
+  public void testLoadAndExportBytes() {
+    Charset ebcdic = Charset.forName("IBM037");
+    SingleByteCharset charset = SingleByteCharset.forCharset(ebcdic);
+    ByteBuffer bytes = ByteBuffer.wrap(("xx" + MY_RECORD_DATA).getBytes(ebcdic));
+    bytes.position(2);
+    MyRecord loadedRecord = manager.load(MyRecord.class, bytes, charset);
+    Assert.assertEquals(2, bytes.position());
+    Assert.assertEquals(STR, loadedRecord.getStringData());
+    Assert.assertEquals(manager.load(MyRecord.class, MY_RECORD_DATA).getLongData(), loadedRecord.getLongData());
+
+    ByteBuffer exported = ByteBuffer.allocate(MY_RECORD_DATA.length() + 1);
+    exported.put((byte) 0);
+    manager.exportTo(createMyRecord(), exported, charset);
+    Assert.assertEquals(exported.capacity(), exported.position());
+    Assert.assertEquals(MY_RECORD_DATA, new String(exported.array(), 1, MY_RECORD_DATA.length(), ebcdic));
+    try {
+      manager.exportTo(createMyRecord(), ByteBuffer.allocate(10), charset);
+      fail("expected buffer overflow");
+    } catch (BufferOverflowException e) {
+      //expected
+    }
+  }
+
   public void testExportNestedRecordObject() {
     MyRecord myRecord = createMyRecord();
     MyOtherRecord myOtherRecord = new MyOtherRecord(myRecord);
@@ -191,4 +233,49 @@ public class TestFixedFormatManagerImpl extends TestCase {
       //expected
     }
   }
+
+  /**
+   * Loading a record must not allocate anything but the record itself on top of what the formatters allocates
+   * when parsing the fields from windows of the record.
+   */
+  public void testLoadOnlyAllocatesTheRecord() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (!(threadMXBean instanceof com.sun.management.ThreadMXBean) || !((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+      return;
+    }
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threadMXBean;
+    long threadId = Thread.currentThread().getId();
+    RecordPlan<MyRecord> plan = RecordPlan.compile(MyRecord.class, AccessorStrategy.LAMBDA);
+    int iterations = 20000;
+
+    //the debug logging of the tests allocates far more than the load itself
+    Logger logger = Logger.getLogger("com.ancientprogramming.fixedformat4j");
+    Level level = logger.getLevel();
+    logger.setLevel(Level.WARN);
+    long loadBytes = Long.MAX_VALUE;
+    long parseBytes = Long.MAX_VALUE;
+    try {
+      //repeat to let the JIT settle. The best run is used for both
+      for (int run = 0; run < 10; run++) {
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+          manager.load(MyRecord.class, MY_RECORD_DATA);
+        }
+        long afterLoad = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+          for (FieldPlan field : plan.getLoadFields()) {
+            FixedFormatUtil.parseData(MY_RECORD_DATA, field.getInstructions(), field.getContext(), field.getFormatter());
+          }
+        }
+        long afterParse = allocations.getThreadAllocatedBytes(threadId);
+        loadBytes = Math.min(loadBytes, (afterLoad - before) / iterations);
+        parseBytes = Math.min(parseBytes, (afterParse - afterLoad) / iterations);
+      }
+    } finally {
+      logger.setLevel(level);
+    }
+    long overhead = loadBytes - parseBytes;
+    //the record has 11 fields, so it is at most 16 bytes of header and 8 bytes per field even without compressed oops
+    assertTrue("load allocated " + overhead + " bytes per record on top of the parsing", overhead <= 16 + 11 * 8);
+  }
 }
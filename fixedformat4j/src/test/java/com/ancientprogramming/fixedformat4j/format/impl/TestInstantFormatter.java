@@ -0,0 +1,52 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import junit.framework.TestCase;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestInstantFormatter extends TestCase {
+  InstantFormatter formatter = new InstantFormatter();
+
+  public void testParse() {
+    assertEquals(Instant.parse("2008-10-21T13:05:09Z"), formatter.parse("20081021130509", instructions("yyyyMMddHHmmss")));
+    assertEquals(Instant.parse("2008-10-21T13:05:09Z"), formatter.parse("21.10.2008 13:05:09", instructions("d.M.yyyy HH:mm:ss")));
+    assertEquals(Instant.parse("2008-10-21T13:05:09Z"), formatter.parse("2008.295 13:05:09", instructions("yyyy.DDD HH:mm:ss")));
+  }
+
+  public void testFormat() {
+    assertEquals("20081021130509", formatter.format(Instant.parse("2008-10-21T13:05:09.5Z"), instructions("yyyyMMddHHmmss")));
+    assertEquals("2008.295 13:05:09", formatter.format(Instant.parse("2008-10-21T13:05:09Z"), instructions("yyyy.DDD HH:mm:ss")));
+  }
+
+  public void testFormatterIsShared() {
+    assertSame(formatter.getFormatter("yyyy.DDD"), new InstantFormatter().getFormatter("yyyy.DDD"));
+    assertEquals(ZoneOffset.UTC, formatter.getFormatter("yyyy.DDD").getZone());
+  }
+
+  private static FormatInstructions instructions(String pattern) {
+    return new FormatInstructions(pattern.length(), Align.LEFT, ' ', new FixedFormatPatternData(pattern), null, null, null);
+  }
+}
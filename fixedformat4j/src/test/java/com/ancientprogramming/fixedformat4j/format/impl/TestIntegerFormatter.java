@@ -17,6 +17,8 @@ package com.ancientprogramming.fixedformat4j.format.impl;
 
 import com.ancientprogramming.fixedformat4j.annotation.Align;
 import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ExportBuffer;
 import com.ancientprogramming.fixedformat4j.format.FixedFormatter;
 import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
 import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
@@ -54,4 +56,71 @@ public class TestIntegerFormatter extends TestCase {
     assertEquals("+000000000", formatter.format(0, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
     assertEquals("+000000000", formatter.format(null, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
   }
+
+  public void testParseWindow() {
+    FormatInstructions prepend = new FormatInstructions(6, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+    assertEquals(-123, formatter.parse("xx-00123xx", 2, 8, prepend));
+    assertEquals(123, formatter.parse("xx+00123xx", 2, 8, prepend));
+    assertEquals(0, formatter.parse("xx-00000xx", 2, 8, prepend));
+    FormatInstructions append = new FormatInstructions(6, Align.LEFT, ' ', null, null, new FixedFormatNumberData(Sign.APPEND, 'P', 'N'), null);
+    assertEquals(-42, formatter.parse("42   N", 0, 6, append));
+    assertEquals(42, formatter.parse("42   P", 0, 6, append));
+    FormatInstructions nosign = new FormatInstructions(11, Align.RIGHT, ' ', null, null, FixedFormatNumberData.DEFAULT, null);
+    assertEquals(Integer.MIN_VALUE, formatter.parse("-2147483648", 0, 11, nosign));
+    assertEquals(Integer.MAX_VALUE, formatter.parse(" 2147483647", 0, 11, nosign));
+  }
+
+  public void testParseWindowFailures() {
+    FormatInstructions nosign = new FormatInstructions(6, Align.RIGHT, '0', null, null, FixedFormatNumberData.DEFAULT, null);
+    try {
+      formatter.parse("xx0012a4xx", 2, 8, nosign);
+      fail("expected invalid char");
+    } catch (NumberFormatException e) {
+      assertEquals("could not parse '0012a4'. Unexpected char 'a' at index 4", e.getMessage());
+    }
+    try {
+      formatter.parse("2147483648", 0, 10, nosign);
+      fail("expected overflow");
+    } catch (NumberFormatException e) {
+      assertEquals("could not parse '2147483648'. The value is out of range [-2147483648;2147483647]", e.getMessage());
+    }
+  }
+
+  public void testPrimitive() {
+    FormatInstructions prepend = new FormatInstructions(6, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+    assertEquals(-123, new IntegerFormatter().parseInt("xx-00123xx", 2, 8, prepend));
+    ExportBuffer buffer = new ExportBuffer();
+    buffer.reset("", 6, ' ');
+    new IntegerFormatter().formatInt(-123, prepend, buffer, 1);
+    assertEquals("-00123", buffer.toString());
+
+    //subclasses is parsed and formatted through asObject and asString
+    IntegerFormatter subclass = new IntegerFormatter() {
+      public Integer asObject(String string, FormatInstructions instructions) {
+        return super.asObject(string, instructions) * 2;
+      }
+
+      public String asString(Integer obj, FormatInstructions instructions) {
+        return super.asString(obj + 1, instructions);
+      }
+    };
+    assertEquals(-246, subclass.parseInt("xx-00123xx", 2, 8, prepend));
+    subclass.formatInt(-123, prepend, buffer, 1);
+    assertEquals("-00122", buffer.toString());
+  }
+
+  public void testPrimitiveParsedToNull() {
+    FormatInstructions instructions = new FormatInstructions(3, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.NOSIGN, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+    IntegerFormatter subclass = new IntegerFormatter() {
+      public Integer asObject(String string, FormatInstructions instructions) {
+        return null;
+      }
+    };
+    try {
+      subclass.parseInt("x123x", 1, 4, instructions);
+      fail("expected a FixedFormatException");
+    } catch (FixedFormatException e) {
+      assertEquals(subclass.getClass().getName() + " parsed string[123] to null, which can't be loaded as an int value", e.getMessage());
+    }
+  }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import junit.framework.TestCase;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestLocalDateFormatter extends TestCase {
+  LocalDateFormatter formatter = new LocalDateFormatter();
+
+  public void testParse() {
+    assertEquals(LocalDate.of(2008, 10, 21), formatter.parse("20081021", instructions("yyyyMMdd")));
+    assertEquals(LocalDate.of(2079, 10, 13), formatter.parse("131079", instructions("ddMMyy")));
+    assertEquals(LocalDate.of(2008, 4, 30), formatter.parse("2008-04-31", instructions("yyyy-MM-dd")));
+    assertEquals(LocalDate.of(2008, 10, 21), formatter.parse("21.10.2008", instructions("d.M.yyyy")));
+    assertNull(formatter.parse("        ", instructions("yyyyMMdd")));
+    try {
+      formatter.parse("20081321", instructions("yyyyMMdd"));
+      fail("expected an invalid month");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFormat() {
+    assertEquals("20081021", formatter.format(LocalDate.of(2008, 10, 21), instructions("yyyyMMdd")));
+    assertEquals("21.10.08", formatter.format(LocalDate.of(2008, 10, 21), instructions("dd.MM.yy")));
+    //the day of year isn't formatted by digit arithmetic. Text fields is avoided as they depend on the default locale
+    assertEquals("2008.295", formatter.format(LocalDate.of(2008, 10, 21), instructions("yyyy.DDD")));
+    assertEquals("        ", formatter.format(null, instructions("yyyyMMdd")));
+  }
+
+  public void testSameAsDateTimeFormatter() {
+    String[] patterns = {"yyyyMMdd", "ddMMyy", "yyMMdd", "dd-MM-yyyy", "yyyyMM"};
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      String pattern = patterns[random.nextInt(patterns.length)];
+      StringBuilder value = new StringBuilder();
+      for (int j = 0; j < pattern.length(); j++) {
+        char c = pattern.charAt(j);
+        value.append(Character.isLetter(c) ? (char) ('0' + random.nextInt(random.nextInt(3) == 0 ? 10 : 4)) : c);
+      }
+      Object expected;
+      try {
+        expected = DateTimeFormatter.ofPattern(pattern).parse(value, LocalDate::from);
+      } catch (RuntimeException e) {
+        expected = FixedFormatException.class;
+      }
+      Object actual;
+      try {
+        actual = formatter.parse(value.toString(), instructions(pattern));
+      } catch (FixedFormatException e) {
+        actual = FixedFormatException.class;
+      }
+      assertEquals(pattern + " " + value, expected, actual);
+
+      if (!pattern.equals("yyyyMM")) {
+        LocalDate date = LocalDate.ofEpochDay(random.nextInt(200000) - 100000);
+        assertEquals(DateTimeFormatter.ofPattern(pattern).format(date), formatter.format(date, instructions(pattern)));
+      }
+    }
+  }
+
+  private static FormatInstructions instructions(String pattern) {
+    return new FormatInstructions(pattern.length(), Align.LEFT, ' ', new FixedFormatPatternData(pattern), null, null, null);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import junit.framework.TestCase;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestLocalDateTimeFormatter extends TestCase {
+  LocalDateTimeFormatter formatter = new LocalDateTimeFormatter();
+
+  public void testParse() {
+    assertEquals(LocalDateTime.of(2008, 10, 21, 13, 5, 9), formatter.parse("20081021130509", instructions("yyyyMMddHHmmss")));
+    assertEquals(LocalDateTime.of(2008, 10, 21, 13, 5, 9, 7000000), formatter.parse("2008-10-21 13:05:09.007", instructions("yyyy-MM-dd HH:mm:ss.SSS")));
+    assertEquals(LocalDateTime.of(2008, 10, 21, 13, 5), formatter.parse("2008102113:05", instructions("yyyyMMddHH:mm")));
+    try {
+      formatter.parse("20081021", instructions("yyyyMMdd"));
+      fail("expected the time to be missing");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    try {
+      formatter.parse("20081021246000", instructions("yyyyMMddHHmmss"));
+      fail("expected an invalid time");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFormat() {
+    assertEquals("20081021130509", formatter.format(LocalDateTime.of(2008, 10, 21, 13, 5, 9), instructions("yyyyMMddHHmmss")));
+    assertEquals("2008-10-21 13:05:09.007", formatter.format(LocalDateTime.of(2008, 10, 21, 13, 5, 9, 7999999), instructions("yyyy-MM-dd HH:mm:ss.SSS")));
+    assertEquals("20081021", formatter.format(LocalDateTime.of(2008, 10, 21, 13, 5, 9), instructions("yyyyMMdd")));
+  }
+
+  private static FormatInstructions instructions(String pattern) {
+    return new FormatInstructions(pattern.length(), Align.LEFT, ' ', new FixedFormatPatternData(pattern), null, null, null);
+  }
+}
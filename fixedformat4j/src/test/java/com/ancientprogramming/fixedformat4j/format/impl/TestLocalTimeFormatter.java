@@ -0,0 +1,53 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatPatternData;
+import junit.framework.TestCase;
+
+import java.time.LocalTime;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestLocalTimeFormatter extends TestCase {
+  LocalTimeFormatter formatter = new LocalTimeFormatter();
+
+  public void testParse() {
+    assertEquals(LocalTime.of(13, 5), formatter.parse("1305", instructions("HHmm")));
+    assertEquals(LocalTime.of(13, 5, 9), formatter.parse("13:05:09", instructions("HH:mm:ss")));
+    assertEquals(LocalTime.of(13, 5, 9), formatter.parse("20081021130509", instructions("yyyyMMddHHmmss")));
+    try {
+      formatter.parse("1360", instructions("HHmm"));
+      fail("expected an invalid minute");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFormat() {
+    assertEquals("1305", formatter.format(LocalTime.of(13, 5, 9), instructions("HHmm")));
+    assertEquals("13:05:09.123", formatter.format(LocalTime.of(13, 5, 9, 123456789), instructions("HH:mm:ss.SSS")));
+  }
+
+  private static FormatInstructions instructions(String pattern) {
+    return new FormatInstructions(pattern.length(), Align.LEFT, ' ', new FixedFormatPatternData(pattern), null, null, null);
+  }
+}
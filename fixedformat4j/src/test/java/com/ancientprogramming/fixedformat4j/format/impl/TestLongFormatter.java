@@ -53,4 +53,10 @@ public class TestLongFormatter extends TestCase {
     assertEquals("+000000000", formatter.format(0L, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
     assertEquals("+000000000", formatter.format(null, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
   }
+
+  public void testParseWindow() {
+    FormatInstructions instructions = new FormatInstructions(20, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.APPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+    assertEquals(Long.MIN_VALUE, formatter.parse("09223372036854775808-", 0, 21, instructions));
+    assertEquals(1234L, formatter.parse("00000000000000001234+", 0, 21, instructions));
+  }
 }
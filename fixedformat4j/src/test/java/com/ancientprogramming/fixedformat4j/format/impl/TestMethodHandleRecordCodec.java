@@ -0,0 +1,209 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.BooleanFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.DoubleFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.IntFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.LongFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestMethodHandleRecordCodec extends TestCase {
+
+  private FixedFormatManagerImpl manager = new FixedFormatManagerImpl();
+  private FixedFormatManagerImpl reflectionManager = new FixedFormatManagerImpl(AccessorStrategy.REFLECTION);
+
+  public void testLoadAndExport() {
+    MethodHandleRecordCodec<MyRecord> codec = compile(MyRecord.class);
+    assertNotNull(codec);
+    MyRecord record = codec.load(TestFixedFormatManagerImpl.MY_RECORD_DATA);
+    MyRecord expected = reflectionManager.load(MyRecord.class, TestFixedFormatManagerImpl.MY_RECORD_DATA);
+    assertEquals(expected.getStringData(), record.getStringData());
+    assertEquals(expected.getIntegerData(), record.getIntegerData());
+    assertEquals(expected.getBigDecimalData(), record.getBigDecimalData());
+    assertEquals(expected.getSimpleFloatData(), record.getSimpleFloatData());
+    assertEquals(TestFixedFormatManagerImpl.MY_RECORD_DATA, codec.export("", record));
+    assertEquals(reflectionManager.export("template", expected), codec.export("template", record));
+  }
+
+  public void testMultibleFieldsRecord() {
+    MultibleFieldsRecord record = new MultibleFieldsRecord();
+    record.setStringData("some text");
+    MethodHandleRecordCodec<MultibleFieldsRecord> codec = compile(MultibleFieldsRecord.class);
+    assertEquals(reflectionManager.export(record), codec.export("", record));
+  }
+
+  public void testInnerClass() {
+    MethodHandleRecordCodec<MyRecord.MyInnerClass> codec = compile(MyRecord.MyInnerClass.class);
+    assertNotNull(codec);
+    assertEquals("xyz", codec.load("xyz       ").getStringData());
+  }
+
+  public void testNoDefaultConstructor() {
+    //the record plan path is used to explain why the record can't be created
+    assertNull(compile(NoDefaultConstructorClass.MyInnerClass.class));
+  }
+
+  public void testParseFail() {
+    try {
+      compile(MyRecord.class).load("foobarfoobarfoobarfoobar");
+      fail("expected parse exception");
+    } catch (ParseException e) {
+      assertEquals(MyRecord.class, e.getAnnotatedClass());
+      assertNotNull(e.getAnnotatedMethod());
+    }
+  }
+
+  public void testPrimitiveFields() {
+    RecordPlan<PrimitiveRecord> plan = RecordPlan.compile(PrimitiveRecord.class, AccessorStrategy.LAMBDA);
+    assertTrue(primitiveFormatter(plan, "getIntData") instanceof IntFixedFormatter);
+    assertTrue(primitiveFormatter(plan, "getLongData") instanceof LongFixedFormatter);
+    assertTrue(primitiveFormatter(plan, "getCents") instanceof ScaledLongFormatter);
+    assertTrue(primitiveFormatter(plan, "getDoubleData") instanceof DoubleFixedFormatter);
+    assertTrue(primitiveFormatter(plan, "isBooleanData") instanceof BooleanFixedFormatter);
+    assertNull(primitiveFormatter(plan, "getCharData"));
+
+    String data = "-0004200000000001234567+00012.50Y7";
+    MethodHandleRecordCodec<PrimitiveRecord> codec = compile(PrimitiveRecord.class);
+    PrimitiveRecord record = codec.load(data);
+    assertEquals(-42, record.getIntData());
+    assertEquals(12345L, record.getLongData());
+    assertEquals(67L, record.getCents());
+    assertEquals(12.5d, record.getDoubleData());
+    assertTrue(record.isBooleanData());
+    assertEquals('7', record.getCharData());
+    assertEquals(data, codec.export("", record));
+    assertEquals(reflectionManager.export(reflectionManager.load(PrimitiveRecord.class, data)), codec.export("", record));
+
+    //fields beyond the end of the record keeps their initial value
+    record = codec.load("-0004");
+    assertEquals(-4, record.getIntData());
+    assertEquals(-1L, record.getLongData());
+
+    //the primitive values is boxed by the accessors of the lambda strategy and passed directly by method handles
+    MethodHandleRecordCodec<PrimitiveRecord> handles = compile(PrimitiveRecord.class, AccessorStrategy.METHOD_HANDLE);
+    assertEquals(data, handles.export("", handles.load(data)));
+  }
+
+  private static Object primitiveFormatter(RecordPlan<?> plan, String getterName) {
+    for (FieldPlan field : plan.getLoadFields()) {
+      if (field.getGetter().getName().equals(getterName)) {
+        return field.getPrimitiveFormatter();
+      }
+    }
+    throw new IllegalArgumentException(getterName);
+  }
+
+  public void testPrimitiveParseFail() {
+    try {
+      compile(PrimitiveRecord.class).load("-0004200000000001234567+00012.50X7");
+      fail("expected parse exception");
+    } catch (ParseException e) {
+      assertEquals("isBooleanData", e.getAnnotatedMethod().getName());
+      assertEquals("X", e.getFailedText());
+    }
+  }
+
+  @Record
+  public static class PrimitiveRecord {
+
+    private int intData;
+    private long longData = -1;
+    private long cents;
+    private double doubleData;
+    private boolean booleanData;
+    private char charData;
+
+    @Field(offset = 1, length = 6, align = Align.RIGHT, paddingChar = '0')
+    @FixedFormatNumber(sign = Sign.PREPEND)
+    public int getIntData() {
+      return intData;
+    }
+
+    public void setIntData(int intData) {
+      this.intData = intData;
+    }
+
+    @Field(offset = 7, length = 15, align = Align.RIGHT, paddingChar = '0')
+    public long getLongData() {
+      return longData;
+    }
+
+    public void setLongData(long longData) {
+      this.longData = longData;
+    }
+
+    @Field(offset = 22, length = 2, align = Align.RIGHT, paddingChar = '0', formatter = ScaledLongFormatter.class)
+    @FixedFormatDecimal(decimals = 2)
+    public long getCents() {
+      return cents;
+    }
+
+    public void setCents(long cents) {
+      this.cents = cents;
+    }
+
+    @Field(offset = 24, length = 9, align = Align.RIGHT, paddingChar = '0')
+    @FixedFormatNumber(sign = Sign.PREPEND)
+    @FixedFormatDecimal(decimals = 2, useDecimalDelimiter = true)
+    public double getDoubleData() {
+      return doubleData;
+    }
+
+    public void setDoubleData(double doubleData) {
+      this.doubleData = doubleData;
+    }
+
+    @Field(offset = 33, length = 1)
+    @FixedFormatBoolean(trueValue = "Y", falseValue = "N")
+    public boolean isBooleanData() {
+      return booleanData;
+    }
+
+    public void setBooleanData(boolean booleanData) {
+      this.booleanData = booleanData;
+    }
+
+    @Field(offset = 34, length = 1)
+    public char getCharData() {
+      return charData;
+    }
+
+    public void setCharData(char charData) {
+      this.charData = charData;
+    }
+  }
+
+  private <T> MethodHandleRecordCodec<T> compile(Class<T> recordClass) {
+    return compile(recordClass, AccessorStrategy.LAMBDA);
+  }
+
+  private <T> MethodHandleRecordCodec<T> compile(Class<T> recordClass, AccessorStrategy strategy) {
+    return MethodHandleRecordCodec.compile(manager, RecordPlan.compile(recordClass, strategy), strategy);
+  }
+}
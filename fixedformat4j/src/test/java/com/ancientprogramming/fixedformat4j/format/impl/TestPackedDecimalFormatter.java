@@ -0,0 +1,189 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.ByteCharSequence;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_NEGATIVE_SIGN;
+import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_POSITIVE_SIGN;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestPackedDecimalFormatter extends TestCase {
+
+  private final PackedDecimalFormatter decimals = formatter(BigDecimal.class);
+  private final PackedDecimalFormatter longs = formatter(Long.class);
+
+  public void testParse() {
+    assertEquals(new BigDecimal("123.45"), decimals.parse(hex("12345C"), instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(new BigDecimal("-123.45"), decimals.parse(hex("12345D"), instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(new BigDecimal("0.05"), decimals.parse(hex("00005F"), instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(-12345L, longs.parse("xx" + hex("12345B") + "xx", 2, 5, instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(7, formatter(int.class).parse(hex("7C"), instructions(1, 0, Sign.NOSIGN)));
+
+    //beyond a long
+    assertEquals(new BigDecimal("99999999999999999999.999"), decimals.parse(hex("99999999999999999999999C"), instructions(12, 3, Sign.NOSIGN)));
+    assertEquals(Long.MAX_VALUE, longs.parse(hex("00009223372036854775807C"), instructions(12, 0, Sign.NOSIGN)));
+  }
+
+  public void testParseFailures() {
+    //a digit as sign, a sign as digit, a sign nibble as last digit, a char beyond a byte and an empty field
+    for (String invalid : new String[]{hex("123456"), hex("12C45C"), hex("1234CC"), hex("12") + '\u0134' + hex("5C"), ""}) {
+      try {
+        decimals.parse(invalid, instructions(invalid.length(), 2, Sign.NOSIGN));
+        fail("expected invalid packed decimal " + Arrays.toString(invalid.toCharArray()));
+      } catch (NumberFormatException e) {
+        //expected
+      }
+    }
+    try {
+      formatter(int.class).parse(hex("99999999999C"), instructions(6, 0, Sign.NOSIGN));
+      fail("expected out of range");
+    } catch (NumberFormatException e) {
+      //expected
+    }
+    try {
+      longs.parse(hex("00009223372036854775808C"), instructions(12, 0, Sign.NOSIGN));
+      fail("expected out of range");
+    } catch (NumberFormatException e) {
+      //expected
+    }
+    try {
+      formatter(String.class);
+      fail("expected unsupported datatype");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFormat() {
+    assertEquals(hex("12345F"), decimals.format(new BigDecimal("123.45"), instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(hex("12345C"), decimals.format(new BigDecimal("123.45"), instructions(3, 2, Sign.APPEND)));
+    assertEquals(hex("12345D"), decimals.format(new BigDecimal("-123.449"), instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(hex("00000F"), decimals.format(null, instructions(3, 2, Sign.NOSIGN)));
+    assertEquals(hex("0001234D"), longs.format(-1234L, instructions(4, 2, Sign.NOSIGN)));
+    assertEquals(hex("9223372036854775808D"), longs.format(Long.MIN_VALUE, instructions(10, 0, Sign.NOSIGN)));
+    assertEquals(hex("0009999999999999999999999C"), decimals.format(new BigDecimal("999999999999999999.9999"), instructions(13, 4, Sign.APPEND)));
+    try {
+      longs.format(12345L, instructions(2, 2, Sign.NOSIGN));
+      fail("expected too many digits");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testEbcdicRecord() {
+    Charset ebcdic = Charset.forName("IBM037");
+    SingleByteCharset charset = SingleByteCharset.forCharset(ebcdic);
+    ByteBuffer data = ByteBuffer.allocate(14);
+    data.put("DKK".getBytes(ebcdic)).put(new byte[]{0x01, 0x23, 0x45, 0x6D}).put("00012C".getBytes(ebcdic)).put((byte) 0x40).flip();
+
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      FixedFormatManager manager = new FixedFormatManagerImpl(strategy);
+      MainframeRecord record = manager.load(MainframeRecord.class, data, charset);
+      assertEquals("DKK", record.getCurrency());
+      assertEquals(new BigDecimal("-1234.56"), record.getAmount());
+      assertEquals(123L, record.getCount());
+
+      //the packed bytes is loaded undecoded from a ByteCharSequence, and from ISO-8859-1 chars otherwise
+      assertEquals(record.getAmount(), manager.load(MainframeRecord.class, new ByteCharSequence(data, 0, data.limit(), charset)).getAmount());
+      assertEquals(new BigDecimal("-1234.56"), manager.load(MainframeRecord.class, "DKK" + hex("0123456D") + "00012C ").getAmount());
+
+      ByteBuffer exported = ByteBuffer.allocate(14);
+      manager.exportTo(record, exported, charset);
+      assertEquals(strategy.name(), data, exported.flip());
+    }
+  }
+
+  /**
+   * @return the bytes of the hex digits as ISO-8859-1 chars
+   */
+  private static String hex(String hexDigits) {
+    char[] result = new char[hexDigits.length() / 2];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (char) Integer.parseInt(hexDigits.substring(i * 2, i * 2 + 2), 16);
+    }
+    return new String(result);
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static PackedDecimalFormatter formatter(Class<?> dataType) {
+    return new PackedDecimalFormatter(new FormatContext(1, dataType, PackedDecimalFormatter.class));
+  }
+
+  static FormatInstructions instructions(int length, int decimals, Sign signing) {
+    return new FormatInstructions(length, Align.RIGHT, '0', null, null, new FixedFormatNumberData(signing, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(decimals, false, '.', RoundingMode.HALF_UP));
+  }
+
+  @Record(length = 14)
+  public static class MainframeRecord {
+
+    private String currency;
+    private BigDecimal amount;
+    private long count;
+
+    @Field(offset = 1, length = 3)
+    public String getCurrency() {
+      return currency;
+    }
+
+    public void setCurrency(String currency) {
+      this.currency = currency;
+    }
+
+    @Field(offset = 4, length = 4, formatter = PackedDecimalFormatter.class)
+    @FixedFormatDecimal(decimals = 2)
+    public BigDecimal getAmount() {
+      return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+      this.amount = amount;
+    }
+
+    @Field(offset = 8, length = 6, formatter = ZonedDecimalFormatter.class)
+    @FixedFormatNumber(sign = Sign.APPEND)
+    public long getCount() {
+      return count;
+    }
+
+    public void setCount(long count) {
+      this.count = count;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import junit.framework.TestCase;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestRecordPlan extends TestCase {
+
+  public void testCompileNonRecordClass() {
+    assertNull(RecordPlan.compile(String.class, AccessorStrategy.REFLECTION));
+  }
+
+  public void testCompileMultibleFieldsRecord() {
+    RecordPlan<MultibleFieldsRecord> plan = RecordPlan.compile(MultibleFieldsRecord.class, AccessorStrategy.REFLECTION);
+    assertNotNull(plan);
+    assertEquals(3, plan.getLoadFields().length);
+    assertEquals(4, plan.getExportFields().length);
+
+    int previousOffset = 0;
+    for (FieldPlan field : plan.getExportFields()) {
+      assertTrue("export fields must be ordered by offset", previousOffset <= field.getContext().getOffset());
+      previousOffset = field.getContext().getOffset();
+    }
+  }
+
+  public void testSharedOffsets() throws Exception {
+    for (AccessorStrategy accessorStrategy : AccessorStrategy.values()) {
+      FieldPlan[] exportFields = RecordPlan.compile(SharedOffsetsRecord.class, accessorStrategy).getExportFields();
+      assertEquals(2, exportFields.length);
+      assertEquals("getB", exportFields[0].getGetter().getName());
+      assertEquals(2, exportFields[1].getInstructions().getLength());
+    }
+    SharedOffsetsRecord record = new SharedOffsetsRecord();
+    assertEquals("bbbcc", new FixedFormatManagerImpl().export(record));
+    assertEquals("bbbcc", new FixedFormatManagerImpl(AccessorStrategy.REFLECTION).export(record));
+  }
+
+  public void testNestedRecordField() throws Exception {
+    RecordPlan<MyOtherRecord> plan = RecordPlan.compile(MyOtherRecord.class, AccessorStrategy.REFLECTION);
+    assertTrue(plan.getExportFields()[0].isNestedRecord());
+    //MyOtherRecord has no default constructor
+    assertNull(plan.newInstance());
+  }
+
+  public void testNewInstanceOfInnerClass() throws Exception {
+    RecordPlan<MyRecord.MyInnerClass> plan = RecordPlan.compile(MyRecord.MyInnerClass.class, AccessorStrategy.REFLECTION);
+    assertNotNull(plan.newInstance());
+  }
+
+  @Record
+  public static class SharedOffsetsRecord {
+
+    @Field(offset = 1, length = 3)
+    public String getB() {
+      return "bbb";
+    }
+
+    @Field(offset = 1, length = 3)
+    public String getA() {
+      return "aaa";
+    }
+
+    @Fields({@Field(offset = 4, length = 3), @Field(offset = 4, length = 2)})
+    public String getC() {
+      return "ccc";
+    }
+  }
+}
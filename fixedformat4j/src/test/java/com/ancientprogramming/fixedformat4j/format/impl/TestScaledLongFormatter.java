@@ -0,0 +1,117 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatDecimalData;
+import com.ancientprogramming.fixedformat4j.format.data.FixedFormatNumberData;
+import junit.framework.TestCase;
+
+import java.math.RoundingMode;
+
+import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_NEGATIVE_SIGN;
+import static com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber.DEFAULT_POSITIVE_SIGN;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestScaledLongFormatter extends TestCase {
+  ScaledLongFormatter formatter = new ScaledLongFormatter();
+
+  public void testParse() {
+    assertEquals(Long.valueOf(10050), formatter.parse("+000010050", instructions(2, false, RoundingMode.UNNECESSARY)));
+    assertEquals(Long.valueOf(-10050), formatter.parse("-000010050", instructions(2, false, RoundingMode.UNNECESSARY)));
+    assertEquals(Long.valueOf(5), formatter.parse("+000000005", instructions(2, false, RoundingMode.UNNECESSARY)));
+    assertEquals(Long.valueOf(0), formatter.parse("+000000000", instructions(2, false, RoundingMode.UNNECESSARY)));
+
+    //use delimiter
+    assertEquals(Long.valueOf(123456), formatter.parse("+001234.56", instructions(2, true, RoundingMode.UNNECESSARY)));
+    assertEquals(Long.valueOf(123450), formatter.parse("+0001234.5", instructions(2, true, RoundingMode.UNNECESSARY)));
+    assertEquals(Long.valueOf(-1234), formatter.parse("-000001234", instructions(0, true, RoundingMode.UNNECESSARY)));
+    assertEquals(Long.valueOf(12346), formatter.parse("+00123.456", instructions(2, true, RoundingMode.HALF_UP)));
+    assertEquals(Long.valueOf(-12345), formatter.parse("-00123.455", instructions(2, true, RoundingMode.HALF_DOWN)));
+  }
+
+  public void testParseWindow() {
+    assertEquals(Long.valueOf(-10050), formatter.parse("ab000010050-cd", 2, 12, appendInstructions(2, false)));
+    assertEquals(Long.valueOf(123456), formatter.parse("ab001234.56+cd", 2, 12, appendInstructions(2, true)));
+  }
+
+  public void testParseFailures() {
+    try {
+      formatter.parse("+00123.456", instructions(2, true, RoundingMode.UNNECESSARY));
+      fail("expected the value to need rounding");
+    } catch (ArithmeticException e) {
+      //expected
+    }
+    try {
+      formatter.parse("+0001x3456", instructions(2, false, RoundingMode.UNNECESSARY));
+      fail("expected an invalid char");
+    } catch (NumberFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFormat() {
+    assertEquals("+000010050", formatter.format(10050L, instructions(2, false, RoundingMode.UNNECESSARY)));
+    assertEquals("-000000005", formatter.format(-5L, instructions(2, false, RoundingMode.UNNECESSARY)));
+    assertEquals("+000100.50", formatter.format(10050L, instructions(2, true, RoundingMode.UNNECESSARY)));
+    assertEquals("-000000.05", formatter.format(-5L, instructions(2, true, RoundingMode.UNNECESSARY)));
+    assertEquals("+000000.00", formatter.format(null, instructions(2, true, RoundingMode.UNNECESSARY)));
+    assertEquals("000010050-", formatter.format(-10050L, appendInstructions(2, false)));
+  }
+
+  public void testPrimitiveRecord() {
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    AmountRecord record = manager.load(AmountRecord.class, "0001234567-");
+    assertEquals(-1234567L, record.getAmount());
+    record.setAmount(99);
+    assertEquals("0000000099+", manager.export(record));
+  }
+
+  private static FormatInstructions instructions(int decimals, boolean useDecimalDelimiter, RoundingMode roundingMode) {
+    return new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(decimals, useDecimalDelimiter, '.', roundingMode));
+  }
+
+  private static FormatInstructions appendInstructions(int decimals, boolean useDecimalDelimiter) {
+    return new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.APPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(decimals, useDecimalDelimiter, '.', RoundingMode.UNNECESSARY));
+  }
+
+  @Record
+  public static class AmountRecord {
+
+    private long amount;
+
+    @Field(offset = 1, length = 11, align = Align.RIGHT, paddingChar = '0', formatter = ScaledLongFormatter.class)
+    @FixedFormatDecimal(decimals = 2)
+    @FixedFormatNumber(sign = Sign.APPEND)
+    public long getAmount() {
+      return amount;
+    }
+
+    public void setAmount(long amount) {
+      this.amount = amount;
+    }
+  }
+}
@@ -54,4 +54,15 @@ public class TestShortFormatter extends TestCase {
     assertEquals("+000000000", formatter.format((short) 0, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
     assertEquals("+000000000", formatter.format(null, new FormatInstructions(10, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), new FixedFormatDecimalData(2, false, '.', RoundingMode.UNNECESSARY))));
   }
-}
\ No newline at end of file
+
+  public void testParseWindowOutOfRange() {
+    FormatInstructions instructions = new FormatInstructions(6, Align.RIGHT, '0', null, null, new FixedFormatNumberData(Sign.PREPEND, DEFAULT_POSITIVE_SIGN, DEFAULT_NEGATIVE_SIGN), null);
+    assertEquals((short) -32768, formatter.parse("-32768", 0, 6, instructions));
+    try {
+      formatter.parse("+32768", 0, 6, instructions);
+      fail("expected overflow");
+    } catch (NumberFormatException e) {
+      //expected
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.format.impl;
+
+import com.ancientprogramming.fixedformat4j.annotation.Sign;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FormatContext;
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+
+import static com.ancientprogramming.fixedformat4j.format.impl.TestPackedDecimalFormatter.instructions;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestZonedDecimalFormatter extends TestCase {
+
+  private final ZonedDecimalFormatter decimals = formatter(BigDecimal.class);
+  private final ZonedDecimalFormatter longs = formatter(long.class);
+
+  public void testParse() {
+    assertEquals(new BigDecimal("123.45"), decimals.parse("1234E", instructions(5, 2, Sign.NOSIGN)));
+    assertEquals(new BigDecimal("-123.45"), decimals.parse("1234N", instructions(5, 2, Sign.NOSIGN)));
+    assertEquals(new BigDecimal("123.45"), decimals.parse("12345", instructions(5, 2, Sign.NOSIGN)));
+    assertEquals(new BigDecimal("-123.40"), decimals.parse("1234}", instructions(5, 2, Sign.NOSIGN)));
+    assertEquals(new BigDecimal("123.40"), decimals.parse("1234{", instructions(5, 2, Sign.NOSIGN)));
+    //the ASCII zone
+    assertEquals(-12345L, longs.parse("xx1234uxx", 2, 7, instructions(5, 2, Sign.NOSIGN)));
+    assertEquals(-12345L, longs.parse("J2345", instructions(5, 2, Sign.PREPEND)));
+    assertEquals(42, formatter(Integer.class).parse("0004B", instructions(5, 0, Sign.APPEND)));
+    assertEquals(new BigDecimal("-12345678901234567890.12"), decimals.parse("123456789012345678901K", instructions(22, 2, Sign.NOSIGN)));
+  }
+
+  public void testParseFailures() {
+    //a space, a letter, a sign as digit, a char beyond the punches and an empty field
+    for (String invalid : new String[]{"12 45", "1A345", "-1234", "1234Å", ""}) {
+      try {
+        longs.parse(invalid, instructions(invalid.length(), 2, Sign.NOSIGN));
+        fail("expected invalid zoned decimal " + invalid);
+      } catch (NumberFormatException e) {
+        //expected
+      }
+    }
+    try {
+      longs.parse("J2345", instructions(5, 2, Sign.APPEND));
+      fail("expected the sign at the end");
+    } catch (NumberFormatException e) {
+      //expected
+    }
+    try {
+      longs.parse("99999999999999999999", instructions(20, 0, Sign.NOSIGN));
+      fail("expected out of range");
+    } catch (NumberFormatException e) {
+      //expected
+    }
+  }
+
+  public void testFormat() {
+    assertEquals("12345", decimals.format(new BigDecimal("123.45"), instructions(5, 2, Sign.NOSIGN)));
+    assertEquals("1234E", decimals.format(new BigDecimal("123.45"), instructions(5, 2, Sign.APPEND)));
+    assertEquals("1234N", decimals.format(new BigDecimal("-123.45"), instructions(5, 2, Sign.NOSIGN)));
+    assertEquals("0000J", decimals.format(new BigDecimal("-0.011"), instructions(5, 2, Sign.NOSIGN)));
+    assertEquals("J2345", longs.format(-12345L, instructions(5, 2, Sign.PREPEND)));
+    assertEquals("{0000", longs.format(null, instructions(5, 2, Sign.PREPEND)));
+    assertEquals("922337203685477580Q", longs.format(Long.MIN_VALUE, instructions(19, 0, Sign.NOSIGN)));
+    assertEquals("123456789012345678901K", decimals.format(new BigDecimal("-12345678901234567890.12"), instructions(22, 2, Sign.NOSIGN)));
+    try {
+      longs.format(123456L, instructions(5, 2, Sign.NOSIGN));
+      fail("expected too many digits");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private static ZonedDecimalFormatter formatter(Class<?> dataType) {
+    return new ZonedDecimalFormatter(new FormatContext(1, dataType, ZonedDecimalFormatter.class));
+  }
+}
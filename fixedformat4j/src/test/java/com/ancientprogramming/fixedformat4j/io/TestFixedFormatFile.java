@@ -0,0 +1,187 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.io.TestFixedFormatReader.Amount;
+import com.ancientprogramming.fixedformat4j.io.TestFixedFormatReader.Unbounded;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestFixedFormatFile extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+  private Path file;
+
+  protected void setUp() throws Exception {
+    file = Files.createTempFile("fixedformat4j", ".txt");
+  }
+
+  protected void tearDown() throws Exception {
+    Files.delete(file);
+  }
+
+  public void testLines() throws IOException {
+    for (String terminator : Arrays.asList("\n", "\r\n", "\r")) {
+      write("DKK00012" + terminator + "SEK00034" + terminator + "NOK00056", StandardCharsets.ISO_8859_1);
+      try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+        assertEquals(3, records.size());
+        assertEquals("NOK56", toString(records.get(2)));
+        assertEquals("DKK12", toString(records.get(0)));
+        assertEquals(Arrays.asList("SEK34", "NOK56"), records.range(1, 3).map(TestFixedFormatFile::toString).collect(Collectors.toList()));
+      }
+    }
+    write("DKK00012\nSEK00034\n", StandardCharsets.ISO_8859_1);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+      assertEquals(2, records.size());
+      assertEquals("SEK34", toString(records.get(1)));
+    }
+    //line terminators after the last record isn't records
+    for (String data : Arrays.asList("DKK00012\r\nSEK34\r\n\r\n", "DKK00012\nSEK34\n\n\n", "DKK00012\nSEK34" + String.format("%100s", "").replace(' ', '\n'))) {
+      write(data, StandardCharsets.ISO_8859_1);
+      try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+        assertEquals(2, records.size());
+        assertEquals("SEK34", toString(records.get(1)));
+      }
+    }
+    write("DKK00012\n\n", StandardCharsets.ISO_8859_1);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+      assertEquals(1, records.size());
+    }
+    write("DKK00012|SEK00034", StandardCharsets.ISO_8859_1);
+    try {
+      new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1);
+      fail("expected missing line terminator");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testLength() throws IOException {
+    write("DKK00012SEK00034NOK", StandardCharsets.ISO_8859_1);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1, RecordBoundary.LENGTH)) {
+      assertEquals(3, records.size());
+      //the last record is shorter than the record length
+      assertEquals(Arrays.asList("DKK12", "SEK34", "NOK0"), records.stream().map(TestFixedFormatFile::toString).collect(Collectors.toList()));
+    }
+    write("", StandardCharsets.ISO_8859_1);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+      assertEquals(0, records.size());
+      assertEquals(0, records.stream().count());
+    }
+  }
+
+  public void testIndexOutOfBounds() throws IOException {
+    write("DKK00012\nSEK00034", StandardCharsets.ISO_8859_1);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+      for (long index : new long[]{-1, 2}) {
+        try {
+          records.get(index);
+          fail("expected index out of bounds for " + index);
+        } catch (IndexOutOfBoundsException e) {
+          //expected
+        }
+      }
+      try {
+        records.range(1, 3);
+        fail("expected index out of bounds");
+      } catch (IndexOutOfBoundsException e) {
+        //expected
+      }
+    }
+  }
+
+  public void testRegions() throws IOException {
+    StringBuilder data = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      data.append(String.format("C%02d%05d\r\n", i % 100, i));
+    }
+    write(data.toString(), StandardCharsets.ISO_8859_1);
+    //regions of 3 records each
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1, RecordBoundary.LINE, 35)) {
+      assertEquals(1000, records.size());
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(i, records.get(i).getAmount());
+      }
+      assertEquals(499500, records.stream().parallel().mapToLong(Amount::getAmount).sum());
+      List<Integer> ordered = records.stream().parallel().map(Amount::getAmount).collect(Collectors.toList());
+      assertEquals(1000, ordered.size());
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(i, ordered.get(i).intValue());
+      }
+    }
+  }
+
+  public void testSpliterator() throws IOException {
+    write("DKK00012\nSEK00034\nNOK00056\nEUR00078\nUSD00090", StandardCharsets.ISO_8859_1);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.ISO_8859_1)) {
+      Spliterator<Amount> suffix = records.spliterator();
+      assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+      Spliterator<Amount> prefix = suffix.trySplit();
+      assertEquals(2, prefix.getExactSizeIfKnown());
+      assertEquals(3, suffix.getExactSizeIfKnown());
+      final StringBuilder codes = new StringBuilder();
+      prefix.forEachRemaining(amount -> codes.append(amount.getCode()));
+      suffix.tryAdvance(amount -> codes.append(amount.getCode()));
+      assertEquals("DKKSEKNOK", codes.toString());
+      assertEquals(2, suffix.estimateSize());
+    }
+  }
+
+  public void testCharsets() throws IOException {
+    Charset ebcdic = Charset.forName("IBM037");
+    write("ÆØÅ00001\nDKK00002", ebcdic);
+    try (FixedFormatFile<Amount> records = new FixedFormatFile<Amount>(manager, Amount.class, file, ebcdic)) {
+      assertEquals("ÆØÅ1", toString(records.get(0)));
+      assertEquals("DKK2", toString(records.get(1)));
+    }
+    try {
+      new FixedFormatFile<Amount>(manager, Amount.class, file, StandardCharsets.UTF_8);
+      fail("expected multi byte charset to be rejected");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+    try {
+      new FixedFormatFile<Unbounded>(manager, Unbounded.class, file, StandardCharsets.ISO_8859_1);
+      fail("expected missing record length");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  private void write(String data, Charset charset) throws IOException {
+    Files.write(file, data.getBytes(charset));
+  }
+
+  private static String toString(Amount amount) {
+    return amount.getCode() + amount.getAmount();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestFixedFormatReader extends TestCase {
+
+  private static final String LINES = "DKK00012\nSEK00034\r\n\nNOK00056\rEUR00078";
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+
+  public void testLines() throws IOException {
+    //every buffer size puts the line terminators at a different place relative to the end of the buffer
+    for (int bufferSize = 1; bufferSize < 20; bufferSize++) {
+      FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, new StringReader(LINES), RecordBoundary.LINE, bufferSize);
+      assertEquals("buffer size " + bufferSize, Arrays.asList("DKK12", "SEK34", "NOK56", "EUR78"), toStrings(reader));
+      assertEquals(4, reader.getRecordNumber());
+      assertNull(reader.read());
+    }
+  }
+
+  public void testTerminatedLastLine() throws IOException {
+    FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, new StringReader("DKK00012\r\nSEK00034\r\n"));
+    assertEquals(Arrays.asList("DKK12", "SEK34"), toStrings(reader));
+    assertEquals(Arrays.asList(), toStrings(new FixedFormatReader<Amount>(manager, Amount.class, new StringReader(""))));
+  }
+
+  public void testLength() throws IOException {
+    for (int bufferSize = 1; bufferSize < 20; bufferSize++) {
+      FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, new StringReader("DKK00012SEK00034NOK"), RecordBoundary.LENGTH, bufferSize);
+      //the last record is shorter than the record length
+      assertEquals(Arrays.asList("DKK12", "SEK34", "NOK0"), toStrings(reader));
+    }
+    try {
+      new FixedFormatReader<Unbounded>(manager, Unbounded.class, new StringReader(""), RecordBoundary.LENGTH);
+      fail("expected missing record length");
+    } catch (FixedFormatException e) {
+      //expected
+    }
+  }
+
+  public void testStream() {
+    final boolean[] closed = new boolean[1];
+    StringReader data = new StringReader(LINES) {
+      public void close() {
+        closed[0] = true;
+      }
+    };
+    try (Stream<Amount> stream = new FixedFormatReader<Amount>(manager, Amount.class, data).stream()) {
+      assertEquals(Arrays.asList("SEK", "EUR"), stream.filter(amount -> amount.getAmount() > 30 && amount.getAmount() != 56).map(Amount::getCode).collect(Collectors.toList()));
+    }
+    assertTrue(closed[0]);
+  }
+
+  public void testCallback() throws IOException {
+    final List<String> codes = new ArrayList<String>();
+    FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, new StringReader(LINES));
+    assertEquals(4, reader.readAll(new Consumer<Amount>() {
+      public void accept(Amount amount) {
+        codes.add(amount.getCode());
+      }
+    }));
+    assertEquals(Arrays.asList("DKK", "SEK", "NOK", "EUR"), codes);
+  }
+
+  public void testCharsets() throws IOException {
+    byte[] latin1 = "ÆØÅ00001\n".getBytes(StandardCharsets.ISO_8859_1);
+    assertEquals(Arrays.asList("ÆØÅ1"), toStrings(new FixedFormatReader<Amount>(manager, Amount.class, new ByteArrayInputStream(latin1), StandardCharsets.ISO_8859_1)));
+
+    Path file = Files.createTempFile("fixedformat4j", ".txt");
+    try {
+      Files.write(file, "ÆØÅ00001\nDKK00002".getBytes(StandardCharsets.UTF_8));
+      try (FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, file, StandardCharsets.UTF_8)) {
+        assertEquals(Arrays.asList("ÆØÅ1", "DKK2"), toStrings(reader));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  public void testParseException() throws IOException {
+    FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, new StringReader("DKK00012\nSEK000x4\n"));
+    reader.read();
+    try {
+      reader.read();
+      fail("expected parse exception");
+    } catch (ParseException e) {
+      assertEquals("SEK000x4", e.getCompleteText());
+      assertEquals(2, reader.getRecordNumber());
+    }
+  }
+
+  private static List<String> toStrings(FixedFormatReader<Amount> reader) {
+    List<String> result = new ArrayList<String>();
+    for (Amount amount : reader) {
+      result.add(amount.getCode() + amount.getAmount());
+    }
+    return result;
+  }
+
+  @Record(length = 8)
+  public static class Amount {
+    private String code;
+    private int amount;
+
+    @Field(offset = 1, length = 3)
+    public String getCode() {
+      return code;
+    }
+
+    public void setCode(String code) {
+      this.code = code;
+    }
+
+    @Field(offset = 4, length = 5, align = Align.RIGHT, paddingChar = '0')
+    public int getAmount() {
+      return amount;
+    }
+
+    public void setAmount(int amount) {
+      this.amount = amount;
+    }
+  }
+
+  @Record
+  public static class Unbounded {
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.io;
+
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import com.ancientprogramming.fixedformat4j.format.impl.AccessorStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.TestPackedDecimalFormatter.MainframeRecord;
+import com.ancientprogramming.fixedformat4j.io.TestFixedFormatReader.Amount;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestFixedFormatWriter extends TestCase {
+
+  private final FixedFormatManager manager = new FixedFormatManagerImpl();
+
+  public void testWriter() throws IOException {
+    for (AccessorStrategy strategy : AccessorStrategy.values()) {
+      StringWriter out = new StringWriter();
+      FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(new FixedFormatManagerImpl(strategy), out);
+      writer.setLineSeparator("\r\n");
+      assertEquals(2, writer.writeAll(Arrays.asList(amount("DKK", 12), amount("SEK", 34))));
+      //nothing is written before the batch is full or flushed
+      assertEquals("", out.toString());
+      writer.flush();
+      assertEquals("DKK00012\r\nSEK00034\r\n", out.toString());
+      writer.write(amount(null, 5));
+      writer.close();
+      assertEquals("DKK00012\r\nSEK00034\r\n   00005\r\n", out.toString());
+    }
+  }
+
+  public void testLength() throws IOException {
+    StringWriter out = new StringWriter();
+    FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(manager, out, RecordBoundary.LENGTH);
+    writer.setLineSeparator("\n");
+    assertEquals(2, writer.writeAll(Stream.of(amount("DKK", 12), amount("SEK", 34))));
+    writer.close();
+    assertEquals("DKK00012SEK00034", out.toString());
+  }
+
+  public void testBatches() throws IOException {
+    //a pair of surrogates is split between two batches for some of the batch sizes
+    String expected = "a😀00001\nDKK00002\n";
+    for (int batchSize = 1; batchSize < 20; batchSize++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(manager, new FixedFormatWriter.ByteSink(StandardCharsets.UTF_8, out, null, batchSize), RecordBoundary.LINE, batchSize);
+      writer.setLineSeparator("\n");
+      writer.write(amount("a😀", 1));
+      writer.write(amount("DKK", 2));
+      writer.close();
+      assertEquals("batch size " + batchSize, expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+      StringWriter chars = new StringWriter();
+      writer = new FixedFormatWriter<Amount>(manager, new FixedFormatWriter.CharSink(chars), RecordBoundary.LINE, batchSize);
+      writer.setLineSeparator("\n");
+      writer.write(amount("a😀", 1));
+      writer.write(amount("DKK", 2));
+      writer.close();
+      assertEquals("batch size " + batchSize, expected, chars.toString());
+    }
+  }
+
+  public void testCharset() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(manager, out, StandardCharsets.ISO_8859_1);
+    writer.setLineSeparator("\n");
+    writer.write(amount("ÆØÅ", 1));
+    writer.close();
+    assertTrue(Arrays.equals("ÆØÅ00001\n".getBytes(StandardCharsets.ISO_8859_1), out.toByteArray()));
+
+    //single byte charsets is encoded by table, unmappable chars is replaced like the encoder does
+    Charset ebcdic = Charset.forName("IBM037");
+    for (int batchSize = 1; batchSize < 20; batchSize++) {
+      out = new ByteArrayOutputStream();
+      writer = new FixedFormatWriter<Amount>(manager, new FixedFormatWriter.ByteSink(ebcdic, out, null, batchSize), RecordBoundary.LINE, batchSize);
+      writer.setLineSeparator("\r\n");
+      writer.write(amount("ÆØ€", 1));
+      writer.write(amount("DKK", 2));
+      writer.close();
+      assertTrue("batch size " + batchSize, Arrays.equals("ÆØ€00001\r\nDKK00002\r\n".getBytes(ebcdic), out.toByteArray()));
+    }
+  }
+
+  public void testPackedDecimals() throws IOException {
+    //the packed bytes is written unencoded, the rest of the record is encoded by table
+    Charset ebcdic = Charset.forName("IBM037");
+    ByteBuffer expected = ByteBuffer.allocate(32);
+    expected.put("DKK".getBytes(ebcdic)).put(new byte[]{0x01, 0x23, 0x45, 0x6D}).put("00012C".getBytes(ebcdic)).put((byte) 0x40).put("\r\n".getBytes(ebcdic));
+    expected.put("SEK".getBytes(ebcdic)).put(new byte[]{0x00, 0x00, 0x12, 0x3F}).put("00000{".getBytes(ebcdic)).put((byte) 0x40).put("\r\n".getBytes(ebcdic)).flip();
+    for (int batchSize = 1; batchSize < 40; batchSize++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      FixedFormatWriter<MainframeRecord> writer = new FixedFormatWriter<MainframeRecord>(manager, new FixedFormatWriter.ByteSink(ebcdic, out, null, batchSize), RecordBoundary.LINE, batchSize);
+      writer.setLineSeparator("\r\n");
+      writer.write(mainframeRecord("DKK", "-1234.56", 123));
+      writer.write(mainframeRecord("SEK", "1.23", 0));
+      writer.close();
+      assertEquals("batch size " + batchSize, expected, ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    MainframeRecord record = manager.load(MainframeRecord.class, expected, SingleByteCharset.forCharset(ebcdic));
+    assertEquals(new BigDecimal("-1234.56"), record.getAmount());
+  }
+
+  public void testFiles() throws IOException {
+    Path file = Files.createTempFile("fixedformat4j", ".txt");
+    try {
+      try (FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(manager, file, StandardCharsets.UTF_8)) {
+        writer.write(amount("ÆØÅ", 1));
+        writer.write(amount("DKK", 2));
+      }
+      assertEquals(Arrays.asList("ÆØÅ1", "DKK2"), read(file));
+
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+        FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(manager, channel, StandardCharsets.UTF_8);
+        writer.write(amount("SEK", 3));
+        writer.close();
+        assertFalse(channel.isOpen());
+      }
+      assertEquals(Arrays.asList("ÆØÅ1", "DKK2", "SEK3"), read(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  public void testClosed() throws IOException {
+    FixedFormatWriter<Amount> writer = new FixedFormatWriter<Amount>(manager, new StringWriter());
+    writer.close();
+    writer.close();
+    try {
+      writer.write(amount("DKK", 1));
+      fail("expected closed writer");
+    } catch (IOException e) {
+      //expected
+    }
+  }
+
+  private List<String> read(Path file) throws IOException {
+    List<String> result = new ArrayList<String>();
+    try (FixedFormatReader<Amount> reader = new FixedFormatReader<Amount>(manager, Amount.class, file, StandardCharsets.UTF_8)) {
+      for (Amount amount : reader) {
+        result.add(amount.getCode() + amount.getAmount());
+      }
+    }
+    return result;
+  }
+
+  private static Amount amount(String code, int value) {
+    Amount result = new Amount();
+    result.setCode(code);
+    result.setAmount(value);
+    return result;
+  }
+
+  private static MainframeRecord mainframeRecord(String currency, String amount, long count) {
+    MainframeRecord record = new MainframeRecord();
+    record.setCurrency(currency);
+    record.setAmount(new BigDecimal(amount));
+    record.setCount(count);
+    return record;
+  }
+}
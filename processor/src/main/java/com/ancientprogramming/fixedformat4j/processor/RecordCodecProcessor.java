@@ -0,0 +1,470 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.processor;
+
+import com.ancientprogramming.fixedformat4j.annotation.Align;
+import com.ancientprogramming.fixedformat4j.annotation.Field;
+import com.ancientprogramming.fixedformat4j.annotation.Fields;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatBoolean;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatCache;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatDecimal;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatIntern;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatNumber;
+import com.ancientprogramming.fixedformat4j.annotation.FixedFormatPattern;
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.format.AbstractRecordCodec;
+import com.ancientprogramming.fixedformat4j.format.RecordCodec;
+import com.ancientprogramming.fixedformat4j.format.impl.ByTypeFormatter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Generates a {@link RecordCodec} for every @{@link Record} annotated class.
+ * <p/>
+ * The generated codec calls the annotated getters and their setters directly and has the offsets, lengths and
+ * format instructions hardcoded, so no reflection is needed when loading and exporting. Fields of type int, long,
+ * double and boolean is parsed and formatted without boxing when their formatter supports it.
+ * Classes the codec can't instantiate or call directly (private classes, inner classes, classes without a default
+ * constructor or with getters and setters throwing checked exceptions) are skipped and will be handled by reflection.
+ * The same goes for classes with annotations the reflection based manager rejects, so the error is reported the
+ * same way as without the processor.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+@SupportedAnnotationTypes("com.ancientprogramming.fixedformat4j.annotation.Record")
+public class RecordCodecProcessor extends AbstractProcessor {
+
+  private static final String ANNOTATION_PACKAGE = Record.class.getPackage().getName();
+  private static final String DATA_PACKAGE = "com.ancientprogramming.fixedformat4j.format.data";
+  private static final String FORMAT_PACKAGE = RecordCodec.class.getPackage().getName();
+
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Record.class))) {
+      String reason = getUnsupportedReason(type);
+      if (reason != null) {
+        note(type, format("no codec generated for %s: %s", type.getQualifiedName(), reason));
+        continue;
+      }
+      List<FieldModel> fields = new ArrayList<FieldModel>();
+      reason = collectFields(type, fields);
+      if (reason != null) {
+        note(type, format("no codec generated for %s: %s", type.getQualifiedName(), reason));
+        continue;
+      }
+      try {
+        writeCodec(type, fields);
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, format("could not write codec for %s: %s", type.getQualifiedName(), e), type);
+      }
+    }
+    return false;
+  }
+
+  private String getUnsupportedReason(TypeElement type) {
+    if (type.getKind() != ElementKind.CLASS) {
+      return "only classes are supported";
+    }
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      return "the class is abstract";
+    }
+    for (Element element = type; element.getKind().isClass() || element.getKind().isInterface(); element = element.getEnclosingElement()) {
+      TypeElement enclosing = (TypeElement) element;
+      if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+        return "the class is not accessible from its package";
+      }
+      if (enclosing.getNestingKind() == NestingKind.LOCAL || enclosing.getNestingKind() == NestingKind.ANONYMOUS) {
+        return "local classes are not supported";
+      }
+      if (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC)) {
+        return "inner classes are not supported";
+      }
+    }
+    List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+    for (ExecutableElement constructor : constructors) {
+      if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE) && constructor.getThrownTypes().isEmpty()) {
+        return null;
+      }
+    }
+    return "the class has no accessible default constructor";
+  }
+
+  /**
+   * Collect the fields the same way as the reflection based record plan does.
+   *
+   * @return the reason why no codec can be generated or <code>null</code>
+   */
+  private String collectFields(TypeElement type, List<FieldModel> fields) {
+    List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+    Map<String, FieldModel> loadFields = new LinkedHashMap<String, FieldModel>();
+    for (ExecutableElement method : methods) {
+      if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      Field fieldAnnotation = method.getAnnotation(Field.class);
+      Fields fieldsAnnotation = method.getAnnotation(Fields.class);
+      Field[] fieldAnnotations;
+      if (fieldAnnotation != null) {
+        fieldAnnotations = new Field[]{fieldAnnotation};
+      } else if (fieldsAnnotation != null) {
+        fieldAnnotations = fieldsAnnotation.value();
+        if (fieldAnnotations.length == 0) {
+          return format("%s has an empty @Fields annotation", method.getSimpleName());
+        }
+      } else {
+        continue;
+      }
+      String getterName = method.getSimpleName().toString();
+      if (!getterName.startsWith("get") && !getterName.startsWith("is")) {
+        return format("%s is not a getter", getterName);
+      }
+      if (!method.getParameters().isEmpty() || !method.getThrownTypes().isEmpty()) {
+        return format("%s can not be called directly", getterName);
+      }
+      String propertyName = getterName.substring(getterName.startsWith("get") ? 3 : 2);
+      TypeMirror datatype = processingEnv.getTypeUtils().erasure(method.getReturnType());
+      ExecutableElement setter = getSetter(methods, "set" + propertyName, datatype);
+      if (setter != null && !setter.getThrownTypes().isEmpty()) {
+        return format("%s can not be called directly", setter.getSimpleName());
+      }
+      for (int i = 0; i < fieldAnnotations.length; i++) {
+        FieldModel field = new FieldModel(fields.size(), method, fieldAnnotations[i], datatype, setter, "set" + propertyName);
+        fields.add(field);
+        if (i == 0 && !loadFields.containsKey(propertyName)) {
+          field.load = true;
+          loadFields.put(propertyName, field);
+        }
+      }
+    }
+    return null;
+  }
+
+  private ExecutableElement getSetter(List<ExecutableElement> methods, String setterName, TypeMirror datatype) {
+    for (ExecutableElement method : methods) {
+      if (method.getSimpleName().contentEquals(setterName) && method.getModifiers().contains(Modifier.PUBLIC) &&
+          !method.getModifiers().contains(Modifier.STATIC) && method.getParameters().size() == 1 &&
+          processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType()), datatype)) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  private void writeCodec(TypeElement type, List<FieldModel> fields) throws IOException {
+    String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String codecName = binaryName + RecordCodec.CODEC_SUFFIX;
+    String codecSimpleName = packageName.length() == 0 ? codecName : codecName.substring(packageName.length() + 1);
+    String recordType = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+    Record record = type.getAnnotation(Record.class);
+
+    //export in offset order. Like the record plan only the last field sharing an offset is exported, ordered by
+    //getter name and annotation order
+    List<FieldModel> exportFields = new ArrayList<FieldModel>(fields);
+    Collections.sort(exportFields, new Comparator<FieldModel>() {
+      public int compare(FieldModel o1, FieldModel o2) {
+        int result = o1.offset - o2.offset;
+        return result != 0 ? result : o1.getterName.compareTo(o2.getterName);
+      }
+    });
+    for (int i = exportFields.size() - 2; i >= 0; i--) {
+      if (exportFields.get(i).offset == exportFields.get(i + 1).offset) {
+        exportFields.remove(i);
+      }
+    }
+    int layoutLength = record.length();
+    for (FieldModel field : exportFields) {
+      layoutLength = Math.max(layoutLength, field.offset - 1 + field.length);
+    }
+
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(codecName, type);
+    PrintWriter out = new PrintWriter(file.openWriter());
+    try {
+      if (packageName.length() > 0) {
+        out.println("package " + packageName + ";");
+        out.println();
+      }
+      out.println("/**");
+      out.println(" * Loads and exports {@link " + recordType + "} records.");
+      out.println(" * Generated by " + getClass().getName() + ". Do not edit.");
+      out.println(" */");
+      out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+      out.println("public final class " + codecSimpleName + " extends " + AbstractRecordCodec.class.getName() + "<" + recordType + "> {");
+      out.println();
+      for (FieldModel field : fields) {
+        out.println(format("  private static final %s.FormatContext CONTEXT_%d = new %s.FormatContext(%d, %s.class, %s.class);",
+            FORMAT_PACKAGE, field.index, FORMAT_PACKAGE, field.offset, field.datatype, field.formatter));
+        out.println(format("  private static final %s.FormatInstructions INSTRUCTIONS_%d = %s;", FORMAT_PACKAGE, field.index, formatInstructions(field)));
+      }
+      out.println();
+      //the formatters depends on the formatter registry of the manager
+      for (FieldModel field : fields) {
+        out.println(format("  private final %s.%sFixedFormatter formatter%d;", FORMAT_PACKAGE, field.primitiveName != null ? field.primitiveName : "", field.index));
+      }
+      out.println();
+      out.println("  public " + codecSimpleName + "(" + FORMAT_PACKAGE + ".FixedFormatManager manager) {");
+      out.println(format("    super(manager, %s.class, %d, %s, %d);", recordType, record.length(), charLiteral(record.paddingChar()), layoutLength));
+      for (FieldModel field : fields) {
+        String formatter;
+        if (field.primitiveName != null) {
+          formatter = format("formatter(CONTEXT_%d, %s.%sFixedFormatter.class)", field.index, FORMAT_PACKAGE, field.primitiveName);
+        } else {
+          formatter = format("formatter(CONTEXT_%d)", field.index);
+          if (field.intern) {
+            formatter = format("%s.StringInterner.getDefault().interned(%s, CONTEXT_%d)", FORMAT_PACKAGE, formatter, field.index);
+          }
+          if (field.cacheSize != -1) {
+            formatter = format("%s.ValueCache.of(%s.class, \"%s\", %d, formatter(CONTEXT_%d), %d).cached(%s)", FORMAT_PACKAGE, recordType, field.getterName, field.offset, field.index, field.cacheSize, formatter);
+          }
+        }
+        out.println(format("    formatter%d = %s;", field.index, formatter));
+      }
+      out.println("  }");
+      out.println();
+      out.println("  public " + recordType + " load(CharSequence data) {");
+      out.println("    " + recordType + " instance = new " + recordType + "();");
+      out.println("    Object value;");
+      for (FieldModel field : fields) {
+        if (!field.load) {
+          continue;
+        }
+        if (field.primitiveName != null) {
+          String parse = format("parse%s(data, \"%s\", CONTEXT_%d, INSTRUCTIONS_%d, formatter%d)", field.primitiveName, field.getterName, field.index, field.index, field.index);
+          out.println(format("    if (hasData(data, CONTEXT_%d)) {", field.index));
+          if (field.setterExists) {
+            out.println(format("      instance.%s(%s);", field.setterName, parse));
+          } else {
+            out.println(format("      %s;", parse));
+            out.println(format("      throw missingSetter(\"%s\", %s.class);", field.setterName, field.datatype));
+          }
+          out.println("    }");
+          continue;
+        }
+        if (field.nestedRecord) {
+          out.println(format("    value = loadNested(data, CONTEXT_%d, INSTRUCTIONS_%d);", field.index, field.index));
+        } else {
+          out.println(format("    value = parse(data, \"%s\", CONTEXT_%d, INSTRUCTIONS_%d, formatter%d);", field.getterName, field.index, field.index, field.index));
+        }
+        out.println("    if (value != null) {");
+        if (field.setterExists) {
+          out.println(format("      instance.%s((%s) value);", field.setterName, field.objectType));
+        } else {
+          out.println(format("      throw missingSetter(\"%s\", %s.class);", field.setterName, field.datatype));
+        }
+        out.println("    }");
+      }
+      out.println("    return instance;");
+      out.println("  }");
+      out.println();
+      out.println("  protected void write(" + FORMAT_PACKAGE + ".ExportBuffer result, " + recordType + " instance) {");
+      for (FieldModel field : exportFields) {
+        if (field.primitiveName != null) {
+          out.println(format("    formatter%d.format%s(instance.%s(), INSTRUCTIONS_%d, result, %d);", field.index, field.primitiveName, field.getterName, field.index, field.offset));
+        } else if (field.primitive) {
+          out.println(format("    formatter%d.format(instance.%s(), INSTRUCTIONS_%d, result, %d);", field.index, field.getterName, field.index, field.offset));
+        } else {
+          out.println(format("    writeField(result, %d, instance.%s(), formatter%d, INSTRUCTIONS_%d);", field.offset, field.getterName, field.index, field.index));
+        }
+      }
+      out.println("  }");
+      out.println("}");
+    } finally {
+      out.close();
+    }
+  }
+
+  private String formatInstructions(FieldModel field) {
+    ExecutableElement method = field.getter;
+    StringBuilder result = new StringBuilder();
+    result.append("new ").append(FORMAT_PACKAGE).append(".FormatInstructions(").append(field.length).append(", ")
+        .append(ANNOTATION_PACKAGE).append(".Align.").append(field.align.name()).append(", ")
+        .append(charLiteral(field.paddingChar)).append(", ");
+
+    FixedFormatPattern pattern = method.getAnnotation(FixedFormatPattern.class);
+    if (pattern != null) {
+      result.append(format("new %s.FixedFormatPatternData(%s)", DATA_PACKAGE, stringLiteral(pattern.value())));
+    } else {
+      result.append(DATA_PACKAGE).append(".FixedFormatPatternData.DEFAULT");
+    }
+    result.append(", ");
+
+    FixedFormatBoolean bool = method.getAnnotation(FixedFormatBoolean.class);
+    if (bool != null) {
+      result.append(format("new %s.FixedFormatBooleanData(%s, %s)", DATA_PACKAGE, stringLiteral(bool.trueValue()), stringLiteral(bool.falseValue())));
+    } else {
+      result.append(DATA_PACKAGE).append(".FixedFormatBooleanData.DEFAULT");
+    }
+    result.append(", ");
+
+    FixedFormatNumber number = method.getAnnotation(FixedFormatNumber.class);
+    if (number != null) {
+      result.append(format("new %s.FixedFormatNumberData(%s.Sign.%s, %s, %s)", DATA_PACKAGE, ANNOTATION_PACKAGE, number.sign().name(), charLiteral(number.positiveSign()), charLiteral(number.negativeSign())));
+    } else {
+      result.append(DATA_PACKAGE).append(".FixedFormatNumberData.DEFAULT");
+    }
+    result.append(", ");
+
+    FixedFormatDecimal decimal = method.getAnnotation(FixedFormatDecimal.class);
+    if (decimal != null) {
+      result.append(format("new %s.FixedFormatDecimalData(%d, %s, %s, java.math.RoundingMode.valueOf(%d))", DATA_PACKAGE, decimal.decimals(), decimal.useDecimalDelimiter(), charLiteral(decimal.decimalDelimiter()), decimal.roundingMode()));
+    } else {
+      result.append(DATA_PACKAGE).append(".FixedFormatDecimalData.DEFAULT");
+    }
+    result.append(")");
+    return result.toString();
+  }
+
+  private static String charLiteral(char c) {
+    return format("'\\u%04x'", (int) c);
+  }
+
+  private static String stringLiteral(String value) {
+    StringBuilder result = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+        result.append(format("\\u%04x", (int) c));
+      } else {
+        result.append(c);
+      }
+    }
+    return result.append('"').toString();
+  }
+
+  private void note(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+  }
+
+  /**
+   * One @{@link Field} annotation and the getter it is placed on
+   */
+  private class FieldModel {
+    final int index;
+    final ExecutableElement getter;
+    final String getterName;
+    final String setterName;
+    final boolean setterExists;
+    final int offset;
+    final int length;
+    final Align align;
+    final char paddingChar;
+    final String formatter;
+    final int cacheSize;
+    final boolean intern;
+    final String datatype;
+    final String objectType;
+    final boolean primitive;
+    final boolean nestedRecord;
+    final String primitiveName;
+    boolean load;
+
+    FieldModel(int index, ExecutableElement getter, Field field, TypeMirror datatype, ExecutableElement setter, String setterName) {
+      this.index = index;
+      this.getter = getter;
+      this.getterName = getter.getSimpleName().toString();
+      this.setterName = setterName;
+      this.setterExists = setter != null;
+      this.offset = field.offset();
+      this.length = field.length();
+      this.align = field.align();
+      this.paddingChar = field.paddingChar();
+      this.formatter = getFormatter(field);
+      FixedFormatCache cache = getter.getAnnotation(FixedFormatCache.class);
+      this.cacheSize = cache != null ? cache.size() : -1;
+      this.intern = getter.getAnnotation(FixedFormatIntern.class) != null;
+      this.datatype = datatype.toString();
+      this.primitive = datatype.getKind().isPrimitive();
+      this.objectType = primitive ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) datatype).getQualifiedName().toString() : this.datatype;
+      this.nestedRecord = datatype.getKind() == TypeKind.DECLARED && ((DeclaredType) datatype).asElement().getAnnotation(Record.class) != null;
+      this.primitiveName = cacheSize == -1 && !intern ? getPrimitiveName(datatype) : null;
+    }
+
+    /**
+     * @return the name used in the methods of the specialized formatter for the datatype, e.g. Int for parseInt and
+     * formatInt, or <code>null</code> if the formatter doesn't support the datatype without boxing
+     */
+    private String getPrimitiveName(TypeMirror datatype) {
+      String name;
+      switch (datatype.getKind()) {
+        case INT:
+          name = "Int";
+          break;
+        case LONG:
+          name = "Long";
+          break;
+        case DOUBLE:
+          name = "Double";
+          break;
+        case BOOLEAN:
+          name = "Boolean";
+          break;
+        default:
+          return null;
+      }
+      if (ByTypeFormatter.class.getName().equals(formatter)) {
+        return name;
+      }
+      TypeElement formatterType = processingEnv.getElementUtils().getTypeElement(formatter);
+      TypeElement specializedType = processingEnv.getElementUtils().getTypeElement(FORMAT_PACKAGE + "." + name + "FixedFormatter");
+      Types types = processingEnv.getTypeUtils();
+      if (formatterType == null || specializedType == null || !types.isAssignable(types.erasure(formatterType.asType()), types.erasure(specializedType.asType()))) {
+        return null;
+      }
+      return name;
+    }
+
+    private String getFormatter(Field field) {
+      try {
+        return field.formatter().getCanonicalName();
+      } catch (MirroredTypeException e) {
+        return processingEnv.getTypeUtils().erasure(e.getTypeMirror()).toString();
+      }
+    }
+  }
+}
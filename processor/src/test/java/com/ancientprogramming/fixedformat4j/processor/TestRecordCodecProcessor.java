@@ -0,0 +1,395 @@
+/*
+ * Copyright 2004 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ancientprogramming.fixedformat4j.processor;
+
+import com.ancientprogramming.fixedformat4j.annotation.Record;
+import com.ancientprogramming.fixedformat4j.exception.FixedFormatException;
+import com.ancientprogramming.fixedformat4j.format.AbstractFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.AbstractRecordCodec;
+import com.ancientprogramming.fixedformat4j.format.BooleanFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.FixedFormatManager;
+import com.ancientprogramming.fixedformat4j.format.FormatInstructions;
+import com.ancientprogramming.fixedformat4j.format.FormatterRegistry;
+import com.ancientprogramming.fixedformat4j.format.IntFixedFormatter;
+import com.ancientprogramming.fixedformat4j.format.ParseException;
+import com.ancientprogramming.fixedformat4j.format.RecordCodec;
+import com.ancientprogramming.fixedformat4j.format.SingleByteCharset;
+import com.ancientprogramming.fixedformat4j.format.ValueCache;
+import com.ancientprogramming.fixedformat4j.format.impl.AccessorStrategy;
+import com.ancientprogramming.fixedformat4j.format.impl.FixedFormatManagerImpl;
+import com.ancientprogramming.fixedformat4j.format.impl.StringFormatter;
+import junit.framework.TestCase;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Compiles some records with the processor and uses the generated codecs.
+ *
+ * @author Jacob von Eyben - http://www.ancientprogramming.com
+ * @since 1.4.0
+ */
+public class TestRecordCodecProcessor extends TestCase {
+
+  private static final String BASIC_RECORD =
+      "package codec;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.*;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.Record;\n" +
+      "import java.math.BigDecimal;\n" +
+      "import java.util.Date;\n" +
+      "@Record(length = 41, paddingChar = '.')\n" +
+      "public class BasicRecord {\n" +
+      "  private String stringData;\n" +
+      "  private int intData;\n" +
+      "  private BigDecimal decimalData;\n" +
+      "  private Date dateData;\n" +
+      "  private boolean booleanData;\n" +
+      "  @Fields({@Field(offset = 1, length = 5), @Field(offset = 30, length = 3)})\n" +
+      "  @FixedFormatIntern\n" +
+      "  public String getStringData() { return stringData; }\n" +
+      "  public void setStringData(String stringData) { this.stringData = stringData; }\n" +
+      "  @Field(offset = 6, length = 5, align = Align.RIGHT, paddingChar = '0')\n" +
+      "  @FixedFormatNumber(sign = Sign.PREPEND)\n" +
+      "  public int getIntData() { return intData; }\n" +
+      "  public void setIntData(int intData) { this.intData = intData; }\n" +
+      "  @Field(offset = 11, length = 7, align = Align.RIGHT, paddingChar = '0')\n" +
+      "  @FixedFormatDecimal(decimals = 3, useDecimalDelimiter = true)\n" +
+      "  public BigDecimal getDecimalData() { return decimalData; }\n" +
+      "  public void setDecimalData(BigDecimal decimalData) { this.decimalData = decimalData; }\n" +
+      "  @Field(offset = 18, length = 10)\n" +
+      "  @FixedFormatPattern(\"yyyy-MM-dd\")\n" +
+      "  @FixedFormatCache(size = 16)\n" +
+      "  public Date getDateData() { return dateData; }\n" +
+      "  public void setDateData(Date dateData) { this.dateData = dateData; }\n" +
+      "  @Field(offset = 28, length = 1)\n" +
+      "  @FixedFormatBoolean(trueValue = \"J\", falseValue = \"N\")\n" +
+      "  public boolean isBooleanData() { return booleanData; }\n" +
+      "  public void setBooleanData(boolean booleanData) { this.booleanData = booleanData; }\n" +
+      "  @Field(offset = 41, length = 1)\n" +
+      "  public String getReadOnly() { return \"R\"; }\n" +
+      "}\n";
+
+  private static final String NESTED_RECORD =
+      "package codec;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.*;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.Record;\n" +
+      "public class Outer {\n" +
+      "  @Record\n" +
+      "  public static class NestedRecord {\n" +
+      "    private String name;\n" +
+      "    private BasicRecord basic;\n" +
+      "    @Field(offset = 1, length = 3)\n" +
+      "    public String getName() { return name; }\n" +
+      "    public void setName(String name) { this.name = name; }\n" +
+      "    @Field(offset = 4, length = 41)\n" +
+      "    public BasicRecord getBasic() { return basic; }\n" +
+      "    public void setBasic(BasicRecord basic) { this.basic = basic; }\n" +
+      "  }\n" +
+      "  @Record\n" +
+      "  public class InnerRecord {\n" +
+      "    @Field(offset = 1, length = 3)\n" +
+      "    public String getName() { return null; }\n" +
+      "  }\n" +
+      "}\n";
+
+  //has the name the nested record codecs used to get
+  private static final String TOP_LEVEL_RECORD =
+      "package codec;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.*;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.Record;\n" +
+      "@Record\n" +
+      "public class Outer_NestedRecord {\n" +
+      "  private String code;\n" +
+      "  @Field(offset = 1, length = 5)\n" +
+      "  public String getCode() { return code; }\n" +
+      "  public void setCode(String code) { this.code = code; }\n" +
+      "}\n";
+
+  private static final String SHARED_OFFSETS_RECORD =
+      "package codec;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.*;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.Record;\n" +
+      "@Record\n" +
+      "public class SharedOffsetsRecord {\n" +
+      "  @Field(offset = 1, length = 3)\n" +
+      "  public String getB() { return \"bbb\"; }\n" +
+      "  public void setB(String b) { }\n" +
+      "  @Field(offset = 1, length = 3)\n" +
+      "  public String getA() { return \"aaa\"; }\n" +
+      "  public void setA(String a) { }\n" +
+      "  @Fields({@Field(offset = 4, length = 3), @Field(offset = 4, length = 2)})\n" +
+      "  public String getC() { return \"ccc\"; }\n" +
+      "  public void setC(String c) { }\n" +
+      "}\n";
+
+  private static final String MAINFRAME_RECORD =
+      "package codec;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.*;\n" +
+      "import com.ancientprogramming.fixedformat4j.annotation.Record;\n" +
+      "import com.ancientprogramming.fixedformat4j.format.impl.*;\n" +
+      "import java.math.BigDecimal;\n" +
+      "@Record(length = 13)\n" +
+      "public class MainframeRecord {\n" +
+      "  private String currency;\n" +
+      "  private BigDecimal amount;\n" +
+      "  private long count;\n" +
+      "  @Field(offset = 1, length = 3)\n" +
+      "  public String getCurrency() { return currency; }\n" +
+      "  public void setCurrency(String currency) { this.currency = currency; }\n" +
+      "  @Field(offset = 4, length = 4, formatter = PackedDecimalFormatter.class)\n" +
+      "  @FixedFormatDecimal(decimals = 2)\n" +
+      "  public BigDecimal getAmount() { return amount; }\n" +
+      "  public void setAmount(BigDecimal amount) { this.amount = amount; }\n" +
+      "  @Field(offset = 8, length = 6, formatter = ZonedDecimalFormatter.class)\n" +
+      "  public long getCount() { return count; }\n" +
+      "  public void setCount(long count) { this.count = count; }\n" +
+      "}\n";
+
+  private static final String BASIC_DATA = "foo  -0012001.2502008-10-21J.bar........";
+
+  private ClassLoader classLoader;
+  private ClassLoader reflectionClassLoader;
+
+  protected void setUp() throws Exception {
+    classLoader = compile(true);
+    reflectionClassLoader = compile(false);
+  }
+
+  private ClassLoader compile(boolean generateCodecs) throws Exception {
+    File outputDirectory = File.createTempFile("codec", "");
+    assertTrue(outputDirectory.delete());
+    assertTrue(outputDirectory.mkdirs());
+    outputDirectory.deleteOnExit();
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    String classpath = new File(Record.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    List<String> options = new ArrayList<String>(Arrays.asList("-classpath", classpath, "-d", outputDirectory.getPath(), "-s", outputDirectory.getPath()));
+    if (!generateCodecs) {
+      options.add("-proc:none");
+    }
+    List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+    sources.add(new Source("codec/BasicRecord", BASIC_RECORD));
+    sources.add(new Source("codec/Outer", NESTED_RECORD));
+    sources.add(new Source("codec/Outer_NestedRecord", TOP_LEVEL_RECORD));
+    sources.add(new Source("codec/SharedOffsetsRecord", SHARED_OFFSETS_RECORD));
+    sources.add(new Source("codec/MainframeRecord", MAINFRAME_RECORD));
+    JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, sources);
+    task.setProcessors(Arrays.asList(new RecordCodecProcessor()));
+    assertTrue(task.call());
+    fileManager.close();
+
+    return new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()}, getClass().getClassLoader());
+  }
+
+  public void testCodecsGenerated() throws Exception {
+    assertTrue(RecordCodec.class.isAssignableFrom(classLoader.loadClass("codec.BasicRecordCodec")));
+    assertTrue(RecordCodec.class.isAssignableFrom(classLoader.loadClass("codec.Outer$NestedRecordCodec")));
+    assertTrue(RecordCodec.class.isAssignableFrom(classLoader.loadClass("codec.Outer_NestedRecordCodec")));
+    try {
+      classLoader.loadClass("codec.Outer$InnerRecordCodec");
+      fail("inner classes can't be instantiated by a codec");
+    } catch (ClassNotFoundException e) {
+      //expected
+    }
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testLoadAndExport() throws Exception {
+    Class<Object> recordClass = (Class<Object>) classLoader.loadClass("codec.BasicRecord");
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    Object record = manager.load(recordClass, BASIC_DATA);
+    assertEquals("foo", recordClass.getMethod("getStringData").invoke(record));
+    assertEquals(-12, recordClass.getMethod("getIntData").invoke(record));
+    assertEquals(new java.math.BigDecimal("1.250"), recordClass.getMethod("getDecimalData").invoke(record));
+    assertEquals(Boolean.TRUE, recordClass.getMethod("isBooleanData").invoke(record));
+    //the gaps and the end of the record is padded with the record padding char
+    assertEquals("foo  -0012001.2502008-10-21J.foo........R", manager.export(record));
+    assertEquals("foo  -0012001.2502008-10-21J.foo........R", manager.export("", record));
+  }
+
+  public void testCodecMatchesReflection() throws Exception {
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    FixedFormatManager reflectionManager = new FixedFormatManagerImpl(AccessorStrategy.REFLECTION);
+    for (String name : new String[]{"codec.BasicRecord", "codec.Outer$NestedRecord"}) {
+      String data = name.equals("codec.BasicRecord") ? BASIC_DATA : "abc" + BASIC_DATA;
+      Object generated = manager.load(classLoader.loadClass(name), data);
+      Object reflected = reflectionManager.load(reflectionClassLoader.loadClass(name), data);
+      assertEquals(reflectionManager.export(reflected), manager.export(generated));
+      assertEquals(reflectionManager.export("template", reflected), manager.export("template", generated));
+    }
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testNestedAndTopLevelCodecsDiffers() throws Exception {
+    Class<Object> recordClass = (Class<Object>) classLoader.loadClass("codec.Outer_NestedRecord");
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    Object record = manager.load(recordClass, "abcde");
+    assertEquals("abcde", recordClass.getMethod("getCode").invoke(record));
+    assertEquals("abcde", manager.export(record));
+    for (String name : new String[]{"codec.Outer_NestedRecord", "codec.Outer$NestedRecord"}) {
+      AbstractRecordCodec<?> codec = (AbstractRecordCodec<?>) classLoader.loadClass(name + RecordCodec.CODEC_SUFFIX).getConstructor(FixedFormatManager.class).newInstance(manager);
+      assertEquals(classLoader.loadClass(name), codec.getRecordClass());
+    }
+  }
+
+  public void testSharedOffsets() throws Exception {
+    Object generated = classLoader.loadClass("codec.SharedOffsetsRecord").newInstance();
+    Object reflected = reflectionClassLoader.loadClass("codec.SharedOffsetsRecord").newInstance();
+    assertEquals("bbbcc", new FixedFormatManagerImpl().export(generated));
+    assertEquals("bbbcc", new FixedFormatManagerImpl(AccessorStrategy.REFLECTION).export(reflected));
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testNestedRecord() throws Exception {
+    Class<Object> recordClass = (Class<Object>) classLoader.loadClass("codec.Outer$NestedRecord");
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    Object record = manager.load(recordClass, "abc" + BASIC_DATA);
+    Object basic = recordClass.getMethod("getBasic").invoke(record);
+    assertEquals("foo", basic.getClass().getMethod("getStringData").invoke(basic));
+    assertEquals("abcfoo  -0012001.2502008-10-21J.foo........R", manager.export(record));
+  }
+
+  public void testValueCache() throws Exception {
+    Class<?> recordClass = classLoader.loadClass("codec.BasicRecord");
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    Object first = manager.load(recordClass, BASIC_DATA);
+    ValueCache<?> cache = ValueCache.get(recordClass, "getDateData", 18, FormatterRegistry.getDefault().getFormatter(Date.class));
+    long hits = cache.getHits();
+    Object second = manager.load(recordClass, BASIC_DATA);
+    assertEquals(hits + 1, cache.getHits());
+    assertEquals(16, cache.getSize());
+    Object firstDate = recordClass.getMethod("getDateData").invoke(first);
+    Object secondDate = recordClass.getMethod("getDateData").invoke(second);
+    assertEquals(firstDate, secondDate);
+    assertNotSame(firstDate, secondDate);
+    assertSame(recordClass.getMethod("getStringData").invoke(first), recordClass.getMethod("getStringData").invoke(second));
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testPrimitiveFields() throws Exception {
+    List<Class<?>> formatterTypes = new ArrayList<Class<?>>();
+    for (java.lang.reflect.Field field : classLoader.loadClass("codec.BasicRecordCodec").getDeclaredFields()) {
+      formatterTypes.add(field.getType());
+    }
+    assertTrue(formatterTypes.contains(IntFixedFormatter.class));
+    assertTrue(formatterTypes.contains(BooleanFixedFormatter.class));
+
+    //fields beyond the end of the record keeps their initial value
+    Class<Object> recordClass = (Class<Object>) classLoader.loadClass("codec.BasicRecord");
+    Object record = new FixedFormatManagerImpl().load(recordClass, "foo");
+    assertEquals(0, recordClass.getMethod("getIntData").invoke(record));
+    assertEquals(Boolean.FALSE, recordClass.getMethod("isBooleanData").invoke(record));
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testFormatterRegistry() throws Exception {
+    //the registered int formatter doesn't implement IntFixedFormatter
+    FormatterRegistry registry = new FormatterRegistry()
+        .register(String.class, new StringFormatter() {
+          public String asObject(String string, FormatInstructions instructions) {
+            return string.toUpperCase();
+          }
+        })
+        .register(int.class, new AbstractFixedFormatter<Integer>() {
+          public Integer asObject(String string, FormatInstructions instructions) {
+            return -Integer.valueOf(string);
+          }
+
+          public String asString(Integer value, FormatInstructions instructions) {
+            return Integer.toString(-value);
+          }
+        });
+    Class<Object> recordClass = (Class<Object>) classLoader.loadClass("codec.BasicRecord");
+    FixedFormatManager manager = new FixedFormatManagerImpl(registry);
+    Object record = manager.load(recordClass, BASIC_DATA);
+    assertEquals("FOO", recordClass.getMethod("getStringData").invoke(record));
+    assertEquals(12, recordClass.getMethod("getIntData").invoke(record));
+    assertEquals("FOO  00-12001.2502008-10-21J.FOO........R", manager.export(record));
+
+    //the default manager isn't affected
+    assertEquals("foo", recordClass.getMethod("getStringData").invoke(new FixedFormatManagerImpl().load(recordClass, BASIC_DATA)));
+  }
+
+  @SuppressWarnings({"unchecked"})
+  public void testMainframeFields() throws Exception {
+    Charset ebcdic = Charset.forName("IBM037");
+    SingleByteCharset charset = SingleByteCharset.forCharset(ebcdic);
+    ByteBuffer data = ByteBuffer.allocate(13);
+    data.put("DKK".getBytes(ebcdic)).put(new byte[]{0x01, 0x23, 0x45, 0x6D}).put("00012L".getBytes(ebcdic)).flip();
+
+    Class<Object> recordClass = (Class<Object>) classLoader.loadClass("codec.MainframeRecord");
+    assertNotNull(classLoader.loadClass("codec.MainframeRecordCodec"));
+    FixedFormatManager manager = new FixedFormatManagerImpl();
+    Object record = manager.load(recordClass, data, charset);
+    assertEquals("DKK", recordClass.getMethod("getCurrency").invoke(record));
+    assertEquals(new BigDecimal("-1234.56"), recordClass.getMethod("getAmount").invoke(record));
+    assertEquals(-123L, recordClass.getMethod("getCount").invoke(record));
+
+    ByteBuffer exported = ByteBuffer.allocate(13);
+    manager.exportTo(record, exported, charset);
+    assertEquals(data, exported.flip());
+  }
+
+  public void testParseException() throws Exception {
+    Class<?> recordClass = classLoader.loadClass("codec.BasicRecord");
+    try {
+      new FixedFormatManagerImpl().load(recordClass, "foo  -00x2001.2502008-10-21J.bar........");
+      fail("expected parse exception");
+    } catch (ParseException e) {
+      assertEquals(recordClass, e.getAnnotatedClass());
+      assertEquals("getIntData", e.getAnnotatedMethod().getName());
+      assertEquals("-00x2", e.getFailedText());
+    }
+  }
+
+  public void testMissingSetter() throws Exception {
+    Class<?> recordClass = classLoader.loadClass("codec.BasicRecord");
+    try {
+      new FixedFormatManagerImpl().load(recordClass, BASIC_DATA + "X");
+      fail("expected missing setter");
+    } catch (FixedFormatException e) {
+      assertEquals("setter method named codec.BasicRecord.setReadOnly(class java.lang.String) does not exist", e.getMessage());
+    }
+  }
+
+  private static class Source extends SimpleJavaFileObject {
+    private final String code;
+
+    Source(String name, String code) {
+      super(URI.create("string:///" + name + Kind.SOURCE.extension), Kind.SOURCE);
+      this.code = code;
+    }
+
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return code;
+    }
+  }
+}